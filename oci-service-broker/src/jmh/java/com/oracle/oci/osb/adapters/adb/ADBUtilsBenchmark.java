@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.adapters.adb;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Measures the decoding of an Autonomous Database wallet into the credentials returned by bind, streamed from the
+ * wallet download against the previous implementation that went through a temporary file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ADBUtilsBenchmark {
+
+    private static final String DB_NAME = "osbdemo";
+
+    private byte[] wallet;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            // binary stores do not compress, the text configuration files do
+            addEntry(zip, "cwallet.sso", randomBytes(random, 6700));
+            addEntry(zip, "ewallet.p12", randomBytes(random, 6600));
+            addEntry(zip, "keystore.jks", randomBytes(random, 3200));
+            addEntry(zip, "truststore.jks", randomBytes(random, 2900));
+            addEntry(zip, "ojdbc.properties", text("oracle.net.wallet_location=(SOURCE=(METHOD=FILE)"
+                    + "(METHOD_DATA=(DIRECTORY=${TNS_ADMIN})))\n", 1));
+            addEntry(zip, "sqlnet.ora", text("WALLET_LOCATION = (SOURCE = (METHOD = file) (METHOD_DATA = "
+                    + "(DIRECTORY=\"?/network/admin\")))\nSSL_SERVER_DN_MATCH=yes\n", 1));
+            addEntry(zip, "tnsnames.ora", text(DB_NAME + "_high = (description= (retry_count=20)(retry_delay=3)"
+                    + "(address=(protocol=tcps)(port=1522)(host=adb.us-phoenix-1.oraclecloud.com))"
+                    + "(connect_data=(service_name=abcdefgh_" + DB_NAME + "_high.adb.oraclecloud.com))"
+                    + "(security=(ssl_server_cert_dn=\"CN=adwc.uscom-east-1.oraclecloud.com,OU=Oracle BMCS US,"
+                    + "O=Oracle Corporation,L=Redwood City,ST=California,C=US\")))\n", 5));
+            addEntry(zip, "README", text("Wallet README\n", 40));
+        }
+        wallet = bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Map<String, String> streaming() throws IOException {
+        return ADBUtils.generateCredentialsMap(new ByteArrayInputStream(wallet));
+    }
+
+    @Benchmark
+    public Map<String, String> tempFile() throws IOException {
+        return tempFileCredentialsMap(DB_NAME, new ByteArrayInputStream(wallet));
+    }
+
+    /**
+     * The previous implementation of {@link ADBUtils#generateCredentialsMap(InputStream)}, kept as the
+     * baseline.
+     */
+    private static Map<String, String> tempFileCredentialsMap(String dbName, InputStream in) throws IOException {
+        Path tempDir = Files.createTempDirectory(dbName);
+        Path tmpFile = Files.createTempFile(tempDir, dbName, ".zip");
+        try (FileOutputStream out = new FileOutputStream(tmpFile.toFile())) {
+            byte[] b = new byte[1024];
+            int count;
+            while ((count = in.read(b)) >= 0) {
+                out.write(b, 0, count);
+            }
+        }
+
+        Map<String, String> credMap = new HashMap<>();
+        try (FileInputStream fip = new FileInputStream(tmpFile.toFile()); ZipInputStream zis = new ZipInputStream
+                (fip)) {
+            ZipEntry ze = zis.getNextEntry();
+            while (ze != null) {
+                byte[] data = toByteArray(zis);
+                credMap.put(ze.getName(), Base64.getEncoder().encodeToString(data));
+                zis.closeEntry();
+                ze = zis.getNextEntry();
+            }
+        } finally {
+            Files.delete(tmpFile);
+            Files.delete(tempDir);
+        }
+        return credMap;
+    }
+
+    /**
+     * The Utils.toByteArray the previous implementation read the entries with.
+     */
+    private static byte[] toByteArray(InputStream is) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        if(is != null) {
+            byte[] chunk = new byte[4096];
+            int read;
+            while ((read = is.read(chunk, 0, chunk.length)) != -1) {
+                bos.write(chunk, 0, read);
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    private static void addEntry(ZipOutputStream zip, String name, byte[] data) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(data);
+        zip.closeEntry();
+    }
+
+    private static byte[] randomBytes(Random random, int size) {
+        byte[] data = new byte[size];
+        random.nextBytes(data);
+        return data;
+    }
+
+    private static byte[] text(String line, int times) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            sb.append(line);
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
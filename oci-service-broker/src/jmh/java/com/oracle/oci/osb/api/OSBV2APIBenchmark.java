@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.api;
+
+import com.oracle.oci.osb.jackson.OSBObjectMapperProvider;
+import com.oracle.oci.osb.mbean.BrokerMetrics;
+import com.oracle.oci.osb.rest.MetricsResponseFilter;
+import com.oracle.oci.osb.rest.RequestValidationFilter;
+import com.oracle.oci.osb.store.MemoryStore;
+import com.oracle.oci.osb.util.Constants;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.jackson.JacksonFeature;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.openjdk.jmh.annotations.*;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures provision, bind and last_operation requests end to end through the Jersey request pipeline, including
+ * the request filters, JSON (de)serialization and a {@link MemoryStore}. The requests are handed to Jersey in
+ * memory, so no HTTP server or socket is involved, and the service adapter answers immediately.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OSBV2APIBenchmark {
+
+    private static final URI BASE_URI = URI.create("http://localhost/");
+
+    private static final String INSTANCE_ID = "bench-instance";
+
+    private static final String BINDING_ID = "bench-binding";
+
+    private static final String IDENTITY = Constants.PLATFORM_KUBERNETES + Base64.getEncoder().encodeToString(
+            "{\"username\":\"bench\",\"uid\":\"1\"}".getBytes(StandardCharsets.UTF_8));
+
+    private static final byte[] PROVISION_BODY = ("{\"service_id\":\"" + StubServiceAdapter.SERVICE_ID
+            + "\",\"plan_id\":\"" + StubServiceAdapter.PLAN_ID + "\",\"parameters\":{\"name\":\"bench\","
+            + "\"compartmentId\":\"ocid1.compartment.oc1..aaaaaaaastub\",\"freeFormTags\":{\"team\":\"bench\"}}}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] BIND_BODY = ("{\"service_id\":\"" + StubServiceAdapter.SERVICE_ID
+            + "\",\"plan_id\":\"" + StubServiceAdapter.PLAN_ID + "\",\"parameters\":{\"walletPassword\":\"bench\"}}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private ApplicationHandler handler;
+
+    @Setup
+    public void setup() throws Exception {
+        ResourceConfig config = new ResourceConfig(OSBObjectMapperProvider.class, JacksonFeature.class);
+        config.register(new OSBV2API(new MemoryStore(),
+                Collections.singletonList(new StubServiceAdapter())));
+        config.register(new RequestValidationFilter());
+        config.register(new MetricsResponseFilter(new BrokerMetrics()));
+        handler = new ApplicationHandler(config);
+
+        // the instance and binding queried by the last_operation benchmarks
+        expectStatus(provision(INSTANCE_ID), 202);
+        expectStatus(bind(INSTANCE_ID, BINDING_ID), 201);
+    }
+
+    @Benchmark
+    public int catalog() throws Exception {
+        return call("GET", "v2/catalog", null).getStatus();
+    }
+
+    @Benchmark
+    public int provision() throws Exception {
+        return provision("bench-provision").getStatus();
+    }
+
+    @Benchmark
+    public int bind() throws Exception {
+        return bind(INSTANCE_ID, "bench-bind").getStatus();
+    }
+
+    @Benchmark
+    public int lastOperation() throws Exception {
+        return call("GET", "v2/service_instances/" + INSTANCE_ID + "/last_operation?operation=provision&service_id="
+                + StubServiceAdapter.SERVICE_ID + "&plan_id=" + StubServiceAdapter.PLAN_ID, null).getStatus();
+    }
+
+    @Benchmark
+    public int bindingLastOperation() throws Exception {
+        return call("GET", "v2/service_instances/" + INSTANCE_ID + "/service_bindings/" + BINDING_ID
+                + "/last_operation?operation=bind&service_id=" + StubServiceAdapter.SERVICE_ID, null).getStatus();
+    }
+
+    private ContainerResponse provision(String instanceId) throws Exception {
+        return call("PUT", "v2/service_instances/" + instanceId + "?accepts_incomplete=true", PROVISION_BODY);
+    }
+
+    private ContainerResponse bind(String instanceId, String bindingId) throws Exception {
+        return call("PUT", "v2/service_instances/" + instanceId + "/service_bindings/" + bindingId
+                + "?accepts_incomplete=true", BIND_BODY);
+    }
+
+    private ContainerResponse call(String method, String path, byte[] body) throws Exception {
+        ContainerRequest request = new ContainerRequest(BASE_URI, BASE_URI.resolve(path), method, null,
+                new MapPropertiesDelegate(), null);
+        request.header(Constants.BROKER_API_VERSION_HEADER, Constants.CURRENT_API_VERSION);
+        request.header(Constants.IDENTITY_HEADER, IDENTITY);
+        if (body != null) {
+            request.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
+            request.setEntityStream(new ByteArrayInputStream(body));
+        }
+        return handler.apply(request).get();
+    }
+
+    private static void expectStatus(ContainerResponse response, int status) {
+        if (response.getStatus() != status) {
+            throw new IllegalStateException("Expected status " + status + " but was " + response.getStatus());
+        }
+    }
+}
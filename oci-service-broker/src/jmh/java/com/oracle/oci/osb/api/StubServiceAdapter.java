@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.api;
+
+import com.oracle.oci.osb.adapter.ServiceAdapter;
+import com.oracle.oci.osb.model.*;
+import com.oracle.oci.osb.store.BindingData;
+import com.oracle.oci.osb.store.ServiceData;
+
+import javax.ws.rs.core.Response;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ServiceAdapter that answers every request immediately without calling OCI, so that the benchmarks measure only
+ * the broker's own per request overhead.
+ */
+public class StubServiceAdapter implements ServiceAdapter {
+
+    public static final String SERVICE_ID = "0c8bde1e-3d1c-4f4b-8a8a-6a7c1f3b1d00";
+
+    public static final String PLAN_ID = "0c8bde1e-3d1c-4f4b-8a8a-6a7c1f3b1d01";
+
+    private final Catalog catalog;
+
+    public StubServiceAdapter() {
+        Plan plan = new Plan().id(PLAN_ID).name("standard").description("Stub plan").free(true);
+        Service service = new Service().id(SERVICE_ID).name("stub-service").description("Stub service")
+                .bindable(true).plans(Collections.singletonList(plan));
+        service.setAsyncProvision(true);
+        service.setAsyncBinding(true);
+        service.setAsyncDelete(true);
+        service.setAsyncUpdate(true);
+        service.setInstancesRetrievable(true);
+        service.setBindingsRetrievable(true);
+        catalog = new Catalog().services(Collections.singletonList(service));
+    }
+
+    @Override
+    public Catalog getCatalog() {
+        return catalog;
+    }
+
+    @Override
+    public ServiceInstanceStatus getOciServiceInstanceStatus(String instanceId,
+                                                             ServiceInstanceProvisionRequest body) {
+        return ServiceInstanceStatus.DOESNOTEXIST;
+    }
+
+    @Override
+    public ServiceInstanceProvision provisionServiceInstance(String instanceId, ServiceInstanceProvisionRequest body,
+                                                             Map<String, String> freeFormTags) {
+        ServiceInstanceProvision response = new ServiceInstanceProvision();
+        response.setStatusCode(Response.Status.ACCEPTED.getStatusCode());
+        response.setSvcData(newServiceData(instanceId));
+        return response;
+    }
+
+    @Override
+    public ServiceInstanceProvision provisionExistingServiceInstance(String instanceId,
+                                                                     ServiceInstanceProvisionRequest body) {
+        ServiceInstanceProvision response = new ServiceInstanceProvision();
+        response.setStatusCode(Response.Status.OK.getStatusCode());
+        response.setSvcData(newServiceData(instanceId));
+        return response;
+    }
+
+    @Override
+    public ServiceInstanceAsyncOperation updateServiceInstance(String instanceId, ServiceInstanceUpdateRequest body,
+                                                               ServiceData svcData) {
+        ServiceInstanceAsyncOperation response = new ServiceInstanceAsyncOperation();
+        response.setStatusCode(Response.Status.ACCEPTED.getStatusCode());
+        response.setSvcData(svcData);
+        return response;
+    }
+
+    @Override
+    public LastOperationResource getLastOperation(String instanceId, String serviceDefinitionId, String planId,
+                                                  String operation, ServiceData svcData) {
+        return succeeded();
+    }
+
+    @Override
+    public ServiceInstanceResource getServiceInstance(ServiceData svcData) {
+        ServiceInstanceResource response = new ServiceInstanceResource().serviceId(svcData.getServiceId())
+                .planId(svcData.getPlanId());
+        response.setStatusCode(Response.Status.OK.getStatusCode());
+        return response;
+    }
+
+    @Override
+    public AsyncOperation deleteServiceInstance(String instanceId, String serviceDefinitionId, String planId,
+                                                ServiceData svcData) {
+        AsyncOperation response = new AsyncOperation();
+        response.setStatusCode(Response.Status.OK.getStatusCode());
+        return response;
+    }
+
+    @Override
+    public ServiceBinding bindToService(String instanceId, String bindingId, ServiceBindingRequest request,
+                                        ServiceData svcData) {
+        BindingData bindingData = new BindingData();
+        bindingData.setInstanceId(instanceId);
+        bindingData.setBindingId(bindingId);
+        bindingData.setServiceId(svcData.getServiceId());
+        bindingData.setPlanId(svcData.getPlanId());
+
+        ServiceBinding response = new ServiceBinding().credentials(newCredentials());
+        response.setBindingData(bindingData);
+        response.setStatusCode(Response.Status.CREATED.getStatusCode());
+        return response;
+    }
+
+    @Override
+    public ServiceBindingResource getServiceBinding(String bindingId, ServiceData svcData) {
+        ServiceBindingResource response = new ServiceBindingResource().credentials(newCredentials());
+        response.setStatusCode(Response.Status.OK.getStatusCode());
+        return response;
+    }
+
+    @Override
+    public LastOperationResource getLastBindingOperation(String instanceId, String bindingId,
+                                                         String serviceDefinitionId, String planId,
+                                                         ServiceData svcData, BindingData bindingData) {
+        return succeeded();
+    }
+
+    @Override
+    public LastOperationResource deleteServiceBinding(String instanceId, String bindingId, String serviceDefinitionId,
+                                                      String planId, ServiceData svcData, BindingData bindingData) {
+        return succeeded();
+    }
+
+    private static ServiceData newServiceData(String instanceId) {
+        ServiceData svcData = new ServiceData();
+        svcData.setInstanceId(instanceId);
+        svcData.setServiceId(SERVICE_ID);
+        svcData.setPlanId(PLAN_ID);
+        svcData.setOcid("ocid1.stub.oc1..aaaaaaaastub");
+        svcData.setCompartmentId("ocid1.compartment.oc1..aaaaaaaastub");
+        return svcData;
+    }
+
+    private static Map<String, String> newCredentials() {
+        Map<String, String> credentials = new HashMap<>();
+        credentials.put("user_name", "admin");
+        credentials.put("password", "c3R1Yi1wYXNzd29yZA==");
+        return credentials;
+    }
+
+    private static LastOperationResource succeeded() {
+        LastOperationResource response = new LastOperationResource().state(LastOperationResource.StateEnum.SUCCEEDED);
+        response.setStatusCode(Response.Status.OK.getStatusCode());
+        return response;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.rest;
+
+import com.oracle.oci.osb.api.OSBV2API;
+import com.oracle.oci.osb.mbean.BrokerMetrics;
+import org.openjdk.jmh.annotations.*;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.UriInfo;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the classification of a request into the per operation metrics done by {@link MetricsResponseFilter},
+ * including the latency and per service and plan counts recorded for the resource method that handled it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsResponseFilterBenchmark {
+
+    @Param({
+            "PUT v2/service_instances/i1 serviceInstanceProvision",
+            "PUT v2/service_instances/i1/service_bindings/b1 serviceBindingBinding",
+            "GET v2/service_instances/i1/last_operation serviceInstanceLastOperationGet",
+            "GET v2/service_instances/i1/service_bindings/b1/last_operation serviceBindingLastOperationGet",
+            "DELETE v2/service_instances/i1 serviceInstanceDeprovision"
+    })
+    public String request;
+
+    private MetricsResponseFilter filter;
+
+    private ContainerRequestContext requestContext;
+
+    private ContainerResponseContext responseContext;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        filter = new MetricsResponseFilter(new BrokerMetrics());
+        String[] tokens = request.split(" ");
+        String method = tokens[0];
+        String path = tokens[1];
+        String resourceMethodName = tokens[2];
+
+        // the ResourceInfo Jersey injects into the filter, for the OSB API method that handles the request
+        Method resourceMethod = Arrays.stream(OSBV2API.class.getMethods())
+                .filter(m -> m.getName().equals(resourceMethodName)).findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(resourceMethodName));
+        Field resourceInfo = MetricsResponseFilter.class.getDeclaredField("resourceInfo");
+        resourceInfo.setAccessible(true);
+        resourceInfo.set(filter, proxy(ResourceInfo.class, "getResourceMethod", resourceMethod));
+
+        MultivaluedMap<String, String> query = new MultivaluedHashMap<>();
+        query.putSingle("service_id", "0c8bde1e-3d1c-4f4b-8a8a-6a7c1f3b1d00");
+        query.putSingle("plan_id", "0c8bde1e-3d1c-4f4b-8a8a-6a7c1f3b1d01");
+        UriInfo uriInfo = (UriInfo) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{UriInfo.class}, (p, m, args) -> {
+                    switch (m.getName()) {
+                        case "getPath":
+                            return path;
+                        case "getQueryParameters":
+                            return query;
+                        default:
+                            throw new UnsupportedOperationException(m.getName());
+                    }
+                });
+        // the start time the request filter records
+        long startTime = System.nanoTime();
+        requestContext = (ContainerRequestContext) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ContainerRequestContext.class}, (p, m, args) -> {
+                    switch (m.getName()) {
+                        case "getUriInfo":
+                            return uriInfo;
+                        case "getMethod":
+                            return method;
+                        case "getProperty":
+                            return startTime;
+                        default:
+                            throw new UnsupportedOperationException(m.getName());
+                    }
+                });
+        responseContext = proxy(ContainerResponseContext.class, "getStatus", 200);
+    }
+
+    @Benchmark
+    public void filter() throws IOException {
+        filter.filter(requestContext, responseContext);
+    }
+
+    private static <T> T proxy(Class<T> type, String method, Object value) {
+        return type.cast(Proxy.newProxyInstance(MetricsResponseFilterBenchmark.class.getClassLoader(),
+                new Class<?>[]{type}, (p, m, args) -> {
+                    if (m.getName().equals(method)) {
+                        return value;
+                    }
+                    throw new UnsupportedOperationException(m.getName());
+                }));
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.store;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oracle.bmc.objectstorage.ObjectStorage;
+import com.oracle.bmc.objectstorage.model.MultipartUpload;
+import com.oracle.bmc.objectstorage.requests.PutObjectRequest;
+import com.oracle.bmc.objectstorage.requests.UploadPartRequest;
+import com.oracle.bmc.objectstorage.responses.CommitMultipartUploadResponse;
+import com.oracle.bmc.objectstorage.responses.CreateMultipartUploadResponse;
+import com.oracle.bmc.objectstorage.responses.PutObjectResponse;
+import com.oracle.bmc.objectstorage.responses.UploadPartResponse;
+import com.oracle.bmc.objectstorage.transfer.UploadConfiguration;
+import com.oracle.bmc.objectstorage.transfer.UploadManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the JSON serialization of {@link ServiceData} and {@link BindingData} done by the remote stores, and the
+ * two {@link ObjectStorageStore} write paths, a single PutObject and the {@link UploadManager}, against an
+ * {@link ObjectStorage} client that consumes the request bodies without sending them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataStoreSerializationBenchmark {
+
+    private final ObjectMapper objMapper = new ObjectMapper();
+
+    private ServiceData svcData;
+
+    private BindingData bindingData;
+
+    private byte[] svcDataJson;
+
+    private byte[] bindingDataJson;
+
+    private ObjectStorage objectStorage;
+
+    private UploadManager uploadManager;
+
+    private UploadManager multipartUploadManager;
+
+    private byte[] largeValue;
+
+    @Setup
+    public void setup() throws IOException {
+        svcData = new ServiceData();
+        svcData.setInstanceId("4f6e6cf6-ffdd-425f-a2c7-3c9258ad2468");
+        svcData.setServiceId("0c8bde1e-3d1c-4f4b-8a8a-6a7c1f3b1d00");
+        svcData.setPlanId("0c8bde1e-3d1c-4f4b-8a8a-6a7c1f3b1d01");
+        svcData.setOcid("ocid1.autonomousdatabase.oc1.phx.abyhqljrgvttdjzvkwqpb7tqqd3gmhvhqr5lnxe6m6mqivd2prj5flsouxca");
+        svcData.setCompartmentId("ocid1.compartment.oc1..aaaaaaaaf7gvfbnkmnxrhkzxfz6ruq6iyajnk5kkvysh6cq5x5v6z5ln5mqa");
+        svcData.putMetadata("workloadType", "OLTP");
+
+        bindingData = new BindingData();
+        bindingData.setInstanceId(svcData.getInstanceId());
+        bindingData.setBindingId("8c6fd6e4-2b0a-4cd5-8d7e-5f3e8ab0d0f1");
+        bindingData.setServiceId(svcData.getServiceId());
+        bindingData.setPlanId(svcData.getPlanId());
+
+        svcDataJson = objMapper.writeValueAsBytes(svcData);
+        bindingDataJson = objMapper.writeValueAsBytes(bindingData);
+
+        objectStorage = stubObjectStorage();
+        // configured as by ObjectStorageStore, with the default multipart threshold of 8 MB
+        uploadManager = new UploadManager(objectStorage, UploadConfiguration.builder()
+                .minimumLengthForMultipartUpload(8).build());
+        multipartUploadManager = new UploadManager(objectStorage, UploadConfiguration.builder()
+                .minimumLengthForMultipartUpload(1).lengthPerUploadPart(1).build());
+        largeValue = new byte[2 * 1024 * 1024];
+    }
+
+    @Benchmark
+    public byte[] writeServiceData() throws IOException {
+        return objMapper.writeValueAsBytes(svcData);
+    }
+
+    @Benchmark
+    public ServiceData readServiceData() throws IOException {
+        return objMapper.readValue(svcDataJson, ServiceData.class);
+    }
+
+    @Benchmark
+    public byte[] writeBindingData() throws IOException {
+        return objMapper.writeValueAsBytes(bindingData);
+    }
+
+    @Benchmark
+    public BindingData readBindingData() throws IOException {
+        return objMapper.readValue(bindingDataJson, BindingData.class);
+    }
+
+    /**
+     * Path taken by ObjectStorageStore for values below the multipart threshold.
+     */
+    @Benchmark
+    public PutObjectResponse putObject() throws IOException {
+        byte[] value = objMapper.writeValueAsBytes(svcData);
+        return objectStorage.putObject(PutObjectRequest.builder().copy(putObjectRequest(svcData.getInstanceId()))
+                .contentLength((long) value.length)
+                .contentMD5(ObjectStorageStore.md5Base64(value))
+                .putObjectBody(new ByteArrayInputStream(value)).build());
+    }
+
+    /**
+     * Same value through the UploadManager, the path taken by ObjectStorageStore for values above the multipart
+     * threshold.
+     */
+    @Benchmark
+    public UploadManager.UploadResponse uploadManager() throws IOException {
+        byte[] value = objMapper.writeValueAsBytes(svcData);
+        return uploadManager.upload(UploadManager.UploadRequest.builder(new ByteArrayInputStream(value), value.length)
+                .allowOverwrite(true).build(putObjectRequest(svcData.getInstanceId())));
+    }
+
+    /**
+     * UploadManager splitting a 2 MB value in 1 MB parts.
+     */
+    @Benchmark
+    public UploadManager.UploadResponse multipartUpload() {
+        return multipartUploadManager.upload(UploadManager.UploadRequest.builder(
+                new ByteArrayInputStream(largeValue), largeValue.length)
+                .allowOverwrite(true).build(putObjectRequest(svcData.getInstanceId())));
+    }
+
+    private static PutObjectRequest putObjectRequest(String key) {
+        return PutObjectRequest.builder().bucketName("osb-bench").namespaceName("bench")
+                .objectName(key).contentType("application/json").build();
+    }
+
+    /**
+     * @return an ObjectStorage client answering the calls made by the write paths once it has read the request body.
+     */
+    private static ObjectStorage stubObjectStorage() {
+        return (ObjectStorage) Proxy.newProxyInstance(ObjectStorage.class.getClassLoader(),
+                new Class<?>[]{ObjectStorage.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "putObject":
+                            drain(((PutObjectRequest) args[0]).getPutObjectBody());
+                            return PutObjectResponse.builder().eTag("etag").build();
+                        case "createMultipartUpload":
+                            return CreateMultipartUploadResponse.builder().multipartUpload(MultipartUpload.builder()
+                                    .uploadId("upload").build()).build();
+                        case "uploadPart":
+                            drain(((UploadPartRequest) args[0]).getUploadPartBody());
+                            return UploadPartResponse.builder().eTag("etag").build();
+                        case "commitMultipartUpload":
+                            return CommitMultipartUploadResponse.builder().eTag("etag").build();
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    private static void drain(InputStream body) {
+        byte[] buffer = new byte[8192];
+        try (InputStream in = body) {
+            while (in.read(buffer) != -1) {
+                // discarded, as if sent
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
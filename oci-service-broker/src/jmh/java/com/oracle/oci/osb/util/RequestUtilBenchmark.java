@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the parsing of the provision request parameters done by the service adapters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestUtilBenchmark {
+
+    private Map<String, Object> parameters;
+
+    @Setup
+    public void setup() {
+        Map<String, Object> freeFormTags = new HashMap<>();
+        freeFormTags.put("team", "payments");
+        freeFormTags.put("env", "prod");
+
+        Map<String, Object> namespaceTags = new HashMap<>();
+        namespaceTags.put("costCenter", "1234");
+        Map<String, Object> definedTags = new HashMap<>();
+        definedTags.put("finance", namespaceTags);
+
+        parameters = new HashMap<>();
+        parameters.put("name", "osbdemo");
+        parameters.put("compartmentId", "ocid1.compartment.oc1..aaaaaaaaf7gvfbnkmnxrhkzxfz6ruq6iyajnk5kkvysh6cq5x5v6");
+        parameters.put("cpuCount", 1);
+        parameters.put("storageSizeTBs", "1");
+        parameters.put("licenseType", "BYOL");
+        parameters.put("autoScaling", "true");
+        parameters.put("freeFormTags", freeFormTags);
+        parameters.put("definedTags", definedTags);
+    }
+
+    @Benchmark
+    public String nonEmptyString() {
+        return RequestUtil.getNonEmptyStringParameter(parameters, "compartmentId");
+    }
+
+    @Benchmark
+    public Integer integerFromNumber() {
+        return RequestUtil.getIntegerParameter(parameters, "cpuCount", true);
+    }
+
+    @Benchmark
+    public Integer integerFromString() {
+        return RequestUtil.getIntegerParameter(parameters, "storageSizeTBs", true);
+    }
+
+    @Benchmark
+    public boolean booleanParameter() {
+        return RequestUtil.getBooleanParameterDefaultValueFalse(parameters, "autoScaling", false);
+    }
+
+    @Benchmark
+    public Map<String, String> mapParameter() {
+        return RequestUtil.getMapStringParameter(parameters, "freeFormTags", false);
+    }
+
+    @Benchmark
+    public Map<String, Map<String, Object>> mapOfMapParameter() {
+        return RequestUtil.getMapMapObjectParameter(parameters, "definedTags", false);
+    }
+}
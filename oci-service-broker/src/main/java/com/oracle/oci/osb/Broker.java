@@ -9,24 +9,31 @@ import com.oracle.bmc.Region;
 import com.oracle.bmc.auth.AuthenticationDetailsProvider;
 import com.oracle.bmc.identity.IdentityClient;
 import com.oracle.bmc.identity.requests.ListCompartmentsRequest;
+import com.oracle.oci.osb.adapter.AsyncServiceAdapter;
+import com.oracle.oci.osb.adapter.ServiceAdapter;
+import com.oracle.oci.osb.adapter.ServiceAdapters;
+import com.oracle.oci.osb.api.CommonTags;
+import com.oracle.oci.osb.audit.AuditLog;
 import com.oracle.oci.osb.ociclient.SystemPropsAuthProvider;
+import com.oracle.oci.osb.rest.JdkHttpContainer;
 import com.oracle.oci.osb.rest.OCIOSBApplication;
+import com.oracle.oci.osb.rest.RequestExecutor;
+import com.oracle.oci.osb.store.DataStoreFactory;
 import com.oracle.oci.osb.util.Constants;
 import com.oracle.oci.osb.util.Errors;
+import com.oracle.oci.osb.util.Startup;
 import com.oracle.oci.osb.util.Utils;
 import com.sun.net.httpserver.HttpServer;
 import com.sun.net.httpserver.HttpsConfigurator;
 import com.sun.net.httpserver.HttpsParameters;
 import com.sun.net.httpserver.HttpsServer;
-import org.glassfish.jersey.jdkhttp.JdkHttpServerFactory;
 
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLParameters;
-import javax.ws.rs.core.UriBuilder;
 import java.io.FileInputStream;
 import java.io.InputStream;
-import java.net.URI;
+import java.net.InetSocketAddress;
 import java.security.KeyStore;
 import java.util.logging.Handler;
 import java.util.logging.Level;
@@ -44,13 +51,16 @@ public class Broker {
 
     private static final String SYS_PROP_PORT = "port";
 
-    private static final String HTTPS_SERVER_URI = "https://localhost/";
-    private static final String HTTP_SERVER_URI = "http://localhost/";
+    private static final String CONTEXT_PATH = "/";
 
     private static final String SERVER_DEFAULT_PORT = "9998";
 
     private HttpServer httpServer;
 
+    private JdkHttpContainer container;
+
+    private RequestExecutor requestExecutor;
+
     private OCIOSBApplication application = new OCIOSBApplication();
 
     public static void main(String[] args) {
@@ -82,8 +92,9 @@ public class Broker {
         //Check OCI authentication details
         //No explicit api available to check authentication. Hence we are using  list compartments.
         try {
-            AuthenticationDetailsProvider auth = new SystemPropsAuthProvider().getAuthProvider();
-            IdentityClient identityClient = new IdentityClient(auth);
+            SystemPropsAuthProvider authProvider = SystemPropsAuthProvider.getInstance();
+            AuthenticationDetailsProvider auth = authProvider.getAuthProvider();
+            IdentityClient identityClient = authProvider.buildClient(IdentityClient.builder());
             identityClient.setRegion(Region.fromRegionId(System.getProperty(Constants.REGION_ID)));
             identityClient.listCompartments(ListCompartmentsRequest.builder()
                     .limit(1)
@@ -110,35 +121,31 @@ public class Broker {
         try {
             initializeLogger();
             LOGGER.info("Starting OCI Service Broker...");
-            checkOCIAuth();
+            // The steps below run in parallel while the server starts listening, the broker reports ready on
+            // /health/ready once they all complete.
+            Startup startup = Startup.getInstance();
+            startup.run("ociAuth", () -> {
+                checkOCIAuth();
+                return null;
+            });
+            startup.run("dataStore", DataStoreFactory::getDataStore);
+            startup.run("commonTags", CommonTags::get);
+            ServiceAdapters.load(ServiceAdapter.class, startup);
+            ServiceAdapters.load(AsyncServiceAdapter.class, startup);
             int port = Integer.parseInt(System.getProperty(SYS_PROP_PORT, SERVER_DEFAULT_PORT));
-            if (Boolean.getBoolean(Constants.TLS_ENABLED)) {
-                SSLContext sslContext = createSslContext();
-                String[] enabledCiphers = getEnabledCiphers();
-                String[] protocols = Constants.TLS_PROTOOLS.toArray(new String[0]);
-
-                URI baseUri = UriBuilder.fromUri(HTTPS_SERVER_URI).port(port).build();
-                httpServer = JdkHttpServerFactory.createHttpServer(baseUri, application, sslContext, false);
-
-                ((HttpsServer)httpServer).setHttpsConfigurator(new HttpsConfigurator(sslContext) {
-                    @Override
-                    public void configure(HttpsParameters params) {
-                        SSLParameters parameters = getSSLContext().getDefaultSSLParameters();
-                        parameters.setCipherSuites(enabledCiphers);
-                        parameters.setProtocols(protocols);
-                        params.setSSLParameters(parameters);
-                    }
-                });
-                httpServer.start();
-
-            } else {
-                LOGGER.warning("Insecure configuration found. TLS is not enabled. It is highly recommended to enable " +
-                        "TLS.");
-                URI baseUri = UriBuilder.fromUri(HTTP_SERVER_URI).port(port).build();
-                httpServer = JdkHttpServerFactory.createHttpServer(baseUri, application);
-            }
-
+            startup.runHere("httpServer", () -> {
+                startHttpServer(port);
+                return null;
+            });
             LOGGER.info("Started OCI Service Broker: listening in port " + port);
+            startup.finish().whenComplete((v, e) -> {
+                if (e != null) {
+                    LOGGER.log(Level.SEVERE, "Error starting Broker. Exiting application...", e);
+                    stop();
+                } else {
+                    LOGGER.info("OCI Service Broker is ready");
+                }
+            });
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE,"Error starting Broker. Exiting application...", e);
             LOGGER.severe(e.getMessage());
@@ -147,6 +154,37 @@ public class Broker {
         }
     }
 
+    private void startHttpServer(int port) throws Exception {
+        requestExecutor = RequestExecutor.create();
+        if (Boolean.getBoolean(Constants.TLS_ENABLED)) {
+            SSLContext sslContext = createSslContext();
+            String[] enabledCiphers = getEnabledCiphers();
+            String[] protocols = Constants.TLS_PROTOOLS.toArray(new String[0]);
+
+            httpServer = HttpsServer.create(new InetSocketAddress(port), 0);
+            ((HttpsServer)httpServer).setHttpsConfigurator(new HttpsConfigurator(sslContext) {
+                @Override
+                public void configure(HttpsParameters params) {
+                    SSLParameters parameters = getSSLContext().getDefaultSSLParameters();
+                    parameters.setCipherSuites(enabledCiphers);
+                    parameters.setProtocols(protocols);
+                    params.setSSLParameters(parameters);
+                }
+            });
+            httpServer.setExecutor(requestExecutor);
+        } else {
+            LOGGER.warning("Insecure configuration found. TLS is not enabled. It is highly recommended to enable " +
+                    "TLS.");
+            httpServer = HttpServer.create(new InetSocketAddress(port), 0);
+            httpServer.setExecutor(requestExecutor);
+        }
+        // Requests are handled by a container that lets OSBV2API complete them asynchronously.
+        container = new JdkHttpContainer(application);
+        httpServer.createContext(CONTEXT_PATH, container);
+        httpServer.start();
+        container.onServerStart();
+    }
+
     /**
      * Stop Service Broker
      */
@@ -158,6 +196,13 @@ public class Broker {
             if (httpServer != null) {
                 httpServer.stop(0);
             }
+            if (container != null) {
+                container.onServerStop();
+            }
+            if (requestExecutor != null) {
+                requestExecutor.shutdown();
+            }
+            AuditLog.shutdown();
         } catch(Exception x){
             //ignore error while stopping application
         }
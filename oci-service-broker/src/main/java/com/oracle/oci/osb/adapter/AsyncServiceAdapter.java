@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.adapter;
+
+import com.oracle.oci.osb.adapter.ServiceAdapter.ServiceInstanceStatus;
+import com.oracle.oci.osb.model.*;
+import com.oracle.oci.osb.store.BindingData;
+import com.oracle.oci.osb.store.ServiceData;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * AsyncServiceAdapter is the asynchronous counterpart of {@link ServiceAdapter}. Operations return a
+ * {@link CompletionStage} that completes with the result of the call to the service, so that no broker thread waits
+ * while the call is in progress. A failed operation completes the stage exceptionally with the exception the
+ * {@link ServiceAdapter} operation would have thrown.
+ * <p>
+ * Adapters implementing this interface are registered as services of {@code AsyncServiceAdapter}. The adapters
+ * implementing {@link ServiceAdapter} are run through a {@link ServiceAdapterBridge}.
+ */
+public interface AsyncServiceAdapter {
+
+    /**
+     * Fetch the Catalog containing the Service and Plan details.
+     *
+     * @return Catalog that contains services and plan details.
+     * @throws IOException exception reading catalog file.
+     */
+    Catalog getCatalog() throws IOException;
+
+    /**
+     * @see ServiceAdapter#getOciServiceInstanceStatus(String, ServiceInstanceProvisionRequest)
+     */
+    CompletionStage<ServiceInstanceStatus> getOciServiceInstanceStatus(String instanceId,
+                                                                       ServiceInstanceProvisionRequest body);
+
+    /**
+     * @see ServiceAdapter#provisionServiceInstance(String, ServiceInstanceProvisionRequest, Map)
+     */
+    CompletionStage<ServiceInstanceProvision> provisionServiceInstance(String instanceId,
+                                                                       ServiceInstanceProvisionRequest body,
+                                                                       Map<String, String> freeFormTags);
+
+    /**
+     * @see ServiceAdapter#provisionExistingServiceInstance(String, ServiceInstanceProvisionRequest)
+     */
+    CompletionStage<ServiceInstanceProvision> provisionExistingServiceInstance(String instanceId,
+                                                                               ServiceInstanceProvisionRequest body);
+
+    /**
+     * @see ServiceAdapter#updateServiceInstance(String, ServiceInstanceUpdateRequest, ServiceData)
+     */
+    CompletionStage<ServiceInstanceAsyncOperation> updateServiceInstance(String instanceId,
+                                                                         ServiceInstanceUpdateRequest body,
+                                                                         ServiceData svcData);
+
+    /**
+     * @see ServiceAdapter#getLastOperation(String, String, String, String, ServiceData)
+     */
+    CompletionStage<LastOperationResource> getLastOperation(String instanceId, String serviceDefinitionId,
+                                                            String planId, String operation, ServiceData svcData);
+
+    /**
+     * @see ServiceAdapter#getServiceInstance(ServiceData)
+     */
+    CompletionStage<ServiceInstanceResource> getServiceInstance(ServiceData svcData);
+
+    /**
+     * @see ServiceAdapter#deleteServiceInstance(String, String, String, ServiceData)
+     */
+    CompletionStage<AsyncOperation> deleteServiceInstance(String instanceId, String serviceDefinitionId,
+                                                          String planId, ServiceData svcData);
+
+    /**
+     * @see ServiceAdapter#bindToService(String, String, ServiceBindingRequest, ServiceData)
+     */
+    CompletionStage<ServiceBinding> bindToService(String instanceId, String bindingId, ServiceBindingRequest request,
+                                                  ServiceData svcData);
+
+    /**
+     * @see ServiceAdapter#getServiceBinding(String, ServiceData)
+     */
+    CompletionStage<ServiceBindingResource> getServiceBinding(String bindingId, ServiceData svcData);
+
+    /**
+     * @see ServiceAdapter#getLastBindingOperation(String, String, String, String, ServiceData, BindingData)
+     */
+    CompletionStage<LastOperationResource> getLastBindingOperation(String instanceId, String bindingId,
+                                                                   String serviceDefinitionId, String planId,
+                                                                   ServiceData svcData, BindingData bindingData);
+
+    /**
+     * @see ServiceAdapter#deleteServiceBinding(String, String, String, String, ServiceData, BindingData)
+     */
+    CompletionStage<LastOperationResource> deleteServiceBinding(String instanceId, String bindingId,
+                                                                String serviceDefinitionId, String planId,
+                                                                ServiceData svcData, BindingData bindingData);
+}
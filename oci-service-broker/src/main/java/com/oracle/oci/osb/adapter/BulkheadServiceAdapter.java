@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.adapter;
+
+import com.oracle.oci.osb.adapter.ServiceAdapter.ServiceInstanceStatus;
+import com.oracle.oci.osb.mbean.GaugeRegistry;
+import com.oracle.oci.osb.mbean.GaugeRegistry.Gauge;
+import com.oracle.oci.osb.model.*;
+import com.oracle.oci.osb.store.BindingData;
+import com.oracle.oci.osb.store.ServiceData;
+import com.oracle.oci.osb.util.Bulkhead;
+import com.oracle.oci.osb.util.Constants;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * BulkheadServiceAdapter is an {@link AsyncServiceAdapter} decorator that runs the operations of an adapter within
+ * its own {@link Bulkhead}, so that an OCI service slowing down only delays the requests for the services of that
+ * adapter. With {@link Constants#ADAPTER_BULKHEAD_PER_PLAN} set, each plan gets its own bulkhead instead.
+ * <p>
+ * The bulkheads are named after the first service of the adapter, and the plan for the per plan bulkheads, e.g.
+ * {@code atp-service} or {@code atp-service/standard}. Their settings can be given for a bulkhead by suffixing the
+ * property with its name, e.g. {@code -DadapterBulkhead.maxConcurrency.atp-service=8}.
+ */
+public class BulkheadServiceAdapter implements AsyncServiceAdapter {
+
+    private static final int DEFAULT_MIN_CONCURRENCY = 2;
+
+    private static final int DEFAULT_MAX_CONCURRENCY = 32;
+
+    private static final int DEFAULT_QUEUE_SIZE = 64;
+
+    static {
+        GaugeRegistry.register(Gauge.ADAPTER_REJECTED_OPERATIONS,
+                () -> Bulkhead.getBulkheads().stream().mapToLong(Bulkhead::getRejectedCount).sum());
+    }
+
+    private final AsyncServiceAdapter delegate;
+
+    private final Bulkhead bulkhead;
+
+    /**
+     * Bulkheads by plan id, empty unless the bulkheads are per plan.
+     */
+    private final Map<String, Bulkhead> planBulkheads;
+
+    public BulkheadServiceAdapter(AsyncServiceAdapter delegate, Catalog catalog) {
+        this.delegate = delegate;
+        String name = getName(catalog);
+        this.bulkhead = newBulkhead(name);
+        if (Boolean.parseBoolean(System.getProperty(Constants.ADAPTER_BULKHEAD_PER_PLAN, "false"))) {
+            planBulkheads = new HashMap<>();
+            for (Service service : catalog.getServices()) {
+                for (Plan plan : service.getPlans()) {
+                    planBulkheads.put(plan.getId(), newBulkhead(name + "/" + plan.getName()));
+                }
+            }
+        } else {
+            planBulkheads = Collections.emptyMap();
+        }
+    }
+
+    /**
+     * @param catalog catalog of an adapter.
+     * @return the name identifying the adapter in the settings and metrics.
+     */
+    public static String getName(Catalog catalog) {
+        List<Service> services = catalog.getServices();
+        return services.isEmpty() ? "adapter" : services.get(0).getName();
+    }
+
+    @Override
+    public Catalog getCatalog() throws IOException {
+        return delegate.getCatalog();
+    }
+
+    @Override
+    public CompletionStage<ServiceInstanceStatus> getOciServiceInstanceStatus(String instanceId,
+                                                                              ServiceInstanceProvisionRequest body) {
+        return bulkhead(body.getPlanId()).submit(() -> delegate.getOciServiceInstanceStatus(instanceId, body));
+    }
+
+    @Override
+    public CompletionStage<ServiceInstanceProvision> provisionServiceInstance(String instanceId,
+                                                                              ServiceInstanceProvisionRequest body,
+                                                                              Map<String, String> freeFormTags) {
+        return bulkhead(body.getPlanId()).submit(() -> delegate.provisionServiceInstance(instanceId, body,
+                freeFormTags));
+    }
+
+    @Override
+    public CompletionStage<ServiceInstanceProvision> provisionExistingServiceInstance(
+            String instanceId, ServiceInstanceProvisionRequest body) {
+        return bulkhead(body.getPlanId()).submit(() -> delegate.provisionExistingServiceInstance(instanceId, body));
+    }
+
+    @Override
+    public CompletionStage<ServiceInstanceAsyncOperation> updateServiceInstance(String instanceId,
+                                                                                ServiceInstanceUpdateRequest body,
+                                                                                ServiceData svcData) {
+        return bulkhead(svcData.getPlanId()).submit(() -> delegate.updateServiceInstance(instanceId, body,
+                svcData));
+    }
+
+    @Override
+    public CompletionStage<LastOperationResource> getLastOperation(String instanceId, String serviceDefinitionId,
+                                                                   String planId, String operation,
+                                                                   ServiceData svcData) {
+        return bulkhead(planId).submit(() -> delegate.getLastOperation(instanceId, serviceDefinitionId, planId,
+                operation, svcData));
+    }
+
+    @Override
+    public CompletionStage<ServiceInstanceResource> getServiceInstance(ServiceData svcData) {
+        return bulkhead(svcData.getPlanId()).submit(() -> delegate.getServiceInstance(svcData));
+    }
+
+    @Override
+    public CompletionStage<AsyncOperation> deleteServiceInstance(String instanceId, String serviceDefinitionId,
+                                                                 String planId, ServiceData svcData) {
+        return bulkhead(planId).submit(() -> delegate.deleteServiceInstance(instanceId, serviceDefinitionId, planId,
+                svcData));
+    }
+
+    @Override
+    public CompletionStage<ServiceBinding> bindToService(String instanceId, String bindingId,
+                                                         ServiceBindingRequest request, ServiceData svcData) {
+        return bulkhead(svcData.getPlanId()).submit(() -> delegate.bindToService(instanceId, bindingId, request,
+                svcData));
+    }
+
+    @Override
+    public CompletionStage<ServiceBindingResource> getServiceBinding(String bindingId, ServiceData svcData) {
+        return bulkhead(svcData.getPlanId()).submit(() -> delegate.getServiceBinding(bindingId, svcData));
+    }
+
+    @Override
+    public CompletionStage<LastOperationResource> getLastBindingOperation(String instanceId, String bindingId,
+                                                                          String serviceDefinitionId, String planId,
+                                                                          ServiceData svcData,
+                                                                          BindingData bindingData) {
+        return bulkhead(planId).submit(() -> delegate.getLastBindingOperation(instanceId, bindingId,
+                serviceDefinitionId, planId, svcData, bindingData));
+    }
+
+    @Override
+    public CompletionStage<LastOperationResource> deleteServiceBinding(String instanceId, String bindingId,
+                                                                       String serviceDefinitionId, String planId,
+                                                                       ServiceData svcData,
+                                                                       BindingData bindingData) {
+        return bulkhead(planId).submit(() -> delegate.deleteServiceBinding(instanceId, bindingId,
+                serviceDefinitionId, planId, svcData, bindingData));
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+
+    private Bulkhead bulkhead(String planId) {
+        Bulkhead planBulkhead = (planId != null) ? planBulkheads.get(planId) : null;
+        return (planBulkhead != null) ? planBulkhead : bulkhead;
+    }
+
+    /**
+     * @param name name of the adapter.
+     * @return the number of operations the bulkhead of the adapter lets run at the same time.
+     */
+    static int getMaxConcurrency(String name) {
+        return getSetting(Constants.ADAPTER_BULKHEAD_MAX_CONCURRENCY, name, DEFAULT_MAX_CONCURRENCY);
+    }
+
+    private static Bulkhead newBulkhead(String name) {
+        Bulkhead bulkhead = new Bulkhead(name,
+                getSetting(Constants.ADAPTER_BULKHEAD_MIN_CONCURRENCY, name, DEFAULT_MIN_CONCURRENCY),
+                getSetting(Constants.ADAPTER_BULKHEAD_MAX_CONCURRENCY, name, DEFAULT_MAX_CONCURRENCY),
+                getSetting(Constants.ADAPTER_BULKHEAD_QUEUE_SIZE, name, DEFAULT_QUEUE_SIZE));
+        Bulkhead.register(bulkhead);
+        return bulkhead;
+    }
+
+    private static int getSetting(String property, String name, int defaultValue) {
+        return Integer.getInteger(property + "." + name, Integer.getInteger(property, defaultValue));
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.adapter;
+
+import com.oracle.oci.osb.adapter.ServiceAdapter.ServiceInstanceStatus;
+import com.oracle.oci.osb.model.*;
+import com.oracle.oci.osb.ociclient.OCIRateLimiter;
+import com.oracle.oci.osb.store.BindingData;
+import com.oracle.oci.osb.store.ServiceData;
+import com.oracle.oci.osb.util.Constants;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * ServiceAdapterBridge runs a synchronous {@link ServiceAdapter} as an {@link AsyncServiceAdapter}. Each operation
+ * is run on the given executor, so the broker threads are released while the adapter waits for OCI and the number of
+ * operations in progress is bounded by the executor instead. The calls an operation makes to OCI are given up once
+ * the request has timed out, see {@link OCIRateLimiter#withDeadline(long, TimeUnit, Supplier)}.
+ */
+public class ServiceAdapterBridge implements AsyncServiceAdapter {
+
+    /**
+     * Default of {@link Constants#ASYNC_RESPONSE_TIMEOUT_SECONDS}, past which nobody waits for the operation anymore.
+     */
+    private static final int DEFAULT_DEADLINE_SECONDS = 300;
+
+    private final ServiceAdapter delegate;
+
+    private final Executor executor;
+
+    private final long deadlineNanos = TimeUnit.SECONDS.toNanos(Integer.getInteger(
+            Constants.ASYNC_RESPONSE_TIMEOUT_SECONDS, DEFAULT_DEADLINE_SECONDS));
+
+    public ServiceAdapterBridge(ServiceAdapter delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    /**
+     * Creates the executor a bridged adapter is run on: a pool of as many threads as the
+     * {@link BulkheadServiceAdapter} of the adapter lets operations run, see
+     * {@link Constants#ADAPTER_BULKHEAD_MAX_CONCURRENCY}. The queue of the executor is not bounded, the bulkhead
+     * rejects the operations in excess before they are submitted; only the operations of per plan bulkheads wait in
+     * it for a thread. Each adapter gets its own executor, so that the threads held up by a slow adapter are not
+     * taken from the others.
+     *
+     * @param name name of the adapter, used to name the threads.
+     * @return the executor.
+     */
+    public static ExecutorService newExecutor(String name) {
+        int threads = Math.max(1, BulkheadServiceAdapter.getMaxConcurrency(name));
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(r, "osb-adapter-" + name + "-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Override
+    public Catalog getCatalog() throws IOException {
+        return delegate.getCatalog();
+    }
+
+    @Override
+    public CompletionStage<ServiceInstanceStatus> getOciServiceInstanceStatus(String instanceId,
+                                                                              ServiceInstanceProvisionRequest body) {
+        return run(() -> delegate.getOciServiceInstanceStatus(instanceId, body));
+    }
+
+    @Override
+    public CompletionStage<ServiceInstanceProvision> provisionServiceInstance(String instanceId,
+                                                                              ServiceInstanceProvisionRequest body,
+                                                                              Map<String, String> freeFormTags) {
+        return run(() -> delegate.provisionServiceInstance(instanceId, body, freeFormTags));
+    }
+
+    @Override
+    public CompletionStage<ServiceInstanceProvision> provisionExistingServiceInstance(
+            String instanceId, ServiceInstanceProvisionRequest body) {
+        return run(() -> delegate.provisionExistingServiceInstance(instanceId, body));
+    }
+
+    @Override
+    public CompletionStage<ServiceInstanceAsyncOperation> updateServiceInstance(String instanceId,
+                                                                                ServiceInstanceUpdateRequest body,
+                                                                                ServiceData svcData) {
+        return run(() -> delegate.updateServiceInstance(instanceId, body, svcData));
+    }
+
+    @Override
+    public CompletionStage<LastOperationResource> getLastOperation(String instanceId, String serviceDefinitionId,
+                                                                   String planId, String operation,
+                                                                   ServiceData svcData) {
+        return run(() -> delegate.getLastOperation(instanceId, serviceDefinitionId, planId, operation, svcData));
+    }
+
+    @Override
+    public CompletionStage<ServiceInstanceResource> getServiceInstance(ServiceData svcData) {
+        return run(() -> delegate.getServiceInstance(svcData));
+    }
+
+    @Override
+    public CompletionStage<AsyncOperation> deleteServiceInstance(String instanceId, String serviceDefinitionId,
+                                                                 String planId, ServiceData svcData) {
+        return run(() -> delegate.deleteServiceInstance(instanceId, serviceDefinitionId, planId, svcData));
+    }
+
+    @Override
+    public CompletionStage<ServiceBinding> bindToService(String instanceId, String bindingId,
+                                                         ServiceBindingRequest request, ServiceData svcData) {
+        return run(() -> delegate.bindToService(instanceId, bindingId, request, svcData));
+    }
+
+    @Override
+    public CompletionStage<ServiceBindingResource> getServiceBinding(String bindingId, ServiceData svcData) {
+        return run(() -> delegate.getServiceBinding(bindingId, svcData));
+    }
+
+    @Override
+    public CompletionStage<LastOperationResource> getLastBindingOperation(String instanceId, String bindingId,
+                                                                          String serviceDefinitionId, String planId,
+                                                                          ServiceData svcData,
+                                                                          BindingData bindingData) {
+        return run(() -> delegate.getLastBindingOperation(instanceId, bindingId, serviceDefinitionId, planId,
+                svcData, bindingData));
+    }
+
+    @Override
+    public CompletionStage<LastOperationResource> deleteServiceBinding(String instanceId, String bindingId,
+                                                                       String serviceDefinitionId, String planId,
+                                                                       ServiceData svcData,
+                                                                       BindingData bindingData) {
+        return run(() -> delegate.deleteServiceBinding(instanceId, bindingId, serviceDefinitionId, planId,
+                svcData, bindingData));
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+
+    private <T> CompletionStage<T> run(Supplier<T> operation) {
+        long deadline = System.nanoTime() + deadlineNanos;
+        try {
+            return CompletableFuture.supplyAsync(() -> OCIRateLimiter.withDeadline(deadline - System.nanoTime(),
+                    TimeUnit.NANOSECONDS, operation), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
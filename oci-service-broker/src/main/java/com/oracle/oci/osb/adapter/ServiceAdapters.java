@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.adapter;
+
+import com.oracle.oci.osb.util.Startup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * ServiceAdapters loads the adapters registered as services. Each adapter is instantiated and reads its catalog in its
+ * own {@link Startup} phase, so that the OCI clients the adapters build are created in parallel, and while the broker
+ * is already listening when the loading is started on startup.
+ */
+public class ServiceAdapters {
+
+    private static final Map<Class<?>, CompletableFuture<? extends List<?>>> adapters = new ConcurrentHashMap<>();
+
+    /**
+     * Starts loading the adapters of a type, unless already started.
+     *
+     * @param type    type of the adapters, {@link ServiceAdapter} or {@link AsyncServiceAdapter}.
+     * @param startup startup the adapters are loaded in.
+     * @param <T>     type of the adapters.
+     * @return future completed with the adapters, in the order they are registered.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CompletableFuture<List<T>> load(Class<T> type, Startup startup) {
+        return (CompletableFuture<List<T>>) adapters.computeIfAbsent(type, t -> {
+            List<CompletableFuture<T>> loaded = new ArrayList<>();
+            ServiceLoader.load(type).stream().forEach(provider -> loaded.add(startup.run(
+                    "adapter " + provider.type().getSimpleName(), () -> {
+                        T adapter = provider.get();
+                        readCatalog(adapter);
+                        return adapter;
+                    })));
+            return CompletableFuture.allOf(loaded.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+                List<T> result = new ArrayList<>(loaded.size());
+                loaded.forEach(adapter -> result.add(adapter.join()));
+                return result;
+            });
+        });
+    }
+
+    /**
+     * Returns the adapters of a type, loading them if they were not loaded on startup.
+     *
+     * @param type type of the adapters, {@link ServiceAdapter} or {@link AsyncServiceAdapter}.
+     * @param <T>  type of the adapters.
+     * @return the adapters, in the order they are registered.
+     * @throws IOException exception reading the catalog of an adapter.
+     */
+    public static <T> List<T> get(Class<T> type) throws IOException {
+        try {
+            return load(type, Startup.getInstance()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Reads the catalog of an adapter, which the adapters keep once read.
+     */
+    private static void readCatalog(Object adapter) throws IOException {
+        if (adapter instanceof ServiceAdapter) {
+            ((ServiceAdapter) adapter).getCatalog();
+        } else if (adapter instanceof AsyncServiceAdapter) {
+            ((AsyncServiceAdapter) adapter).getCatalog();
+        }
+    }
+}
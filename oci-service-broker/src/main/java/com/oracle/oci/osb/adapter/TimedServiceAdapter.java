@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.adapter;
+
+import com.oracle.oci.osb.adapter.ServiceAdapter.ServiceInstanceStatus;
+import com.oracle.oci.osb.mbean.RequestScope;
+import com.oracle.oci.osb.mbean.RequestTimings;
+import com.oracle.oci.osb.model.*;
+import com.oracle.oci.osb.store.BindingData;
+import com.oracle.oci.osb.store.ServiceData;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * TimedServiceAdapter is an {@link AsyncServiceAdapter} decorator that adds the time spent in the adapter, which is
+ * mostly spent calling OCI, to the {@link RequestTimings} of the request that called it. The time of an operation runs
+ * until its stage completes, whichever thread completes it.
+ */
+public class TimedServiceAdapter implements AsyncServiceAdapter {
+
+    private final AsyncServiceAdapter delegate;
+
+    public TimedServiceAdapter(AsyncServiceAdapter delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Catalog getCatalog() throws IOException {
+        return delegate.getCatalog();
+    }
+
+    @Override
+    public CompletionStage<ServiceInstanceStatus> getOciServiceInstanceStatus(String instanceId,
+                                                                              ServiceInstanceProvisionRequest body) {
+        return timed(() -> delegate.getOciServiceInstanceStatus(instanceId, body));
+    }
+
+    @Override
+    public CompletionStage<ServiceInstanceProvision> provisionServiceInstance(String instanceId,
+                                                                              ServiceInstanceProvisionRequest body,
+                                                                              Map<String, String> freeFormTags) {
+        return timed(() -> delegate.provisionServiceInstance(instanceId, body, freeFormTags));
+    }
+
+    @Override
+    public CompletionStage<ServiceInstanceProvision> provisionExistingServiceInstance(
+            String instanceId, ServiceInstanceProvisionRequest body) {
+        return timed(() -> delegate.provisionExistingServiceInstance(instanceId, body));
+    }
+
+    @Override
+    public CompletionStage<ServiceInstanceAsyncOperation> updateServiceInstance(String instanceId,
+                                                                                ServiceInstanceUpdateRequest body,
+                                                                                ServiceData svcData) {
+        return timed(() -> delegate.updateServiceInstance(instanceId, body, svcData));
+    }
+
+    @Override
+    public CompletionStage<LastOperationResource> getLastOperation(String instanceId, String serviceDefinitionId,
+                                                                   String planId, String operation,
+                                                                   ServiceData svcData) {
+        return timed(() -> delegate.getLastOperation(instanceId, serviceDefinitionId, planId, operation, svcData));
+    }
+
+    @Override
+    public CompletionStage<ServiceInstanceResource> getServiceInstance(ServiceData svcData) {
+        return timed(() -> delegate.getServiceInstance(svcData));
+    }
+
+    @Override
+    public CompletionStage<AsyncOperation> deleteServiceInstance(String instanceId, String serviceDefinitionId,
+                                                                 String planId, ServiceData svcData) {
+        return timed(() -> delegate.deleteServiceInstance(instanceId, serviceDefinitionId, planId, svcData));
+    }
+
+    @Override
+    public CompletionStage<ServiceBinding> bindToService(String instanceId, String bindingId,
+                                                         ServiceBindingRequest request, ServiceData svcData) {
+        return timed(() -> delegate.bindToService(instanceId, bindingId, request, svcData));
+    }
+
+    @Override
+    public CompletionStage<ServiceBindingResource> getServiceBinding(String bindingId, ServiceData svcData) {
+        return timed(() -> delegate.getServiceBinding(bindingId, svcData));
+    }
+
+    @Override
+    public CompletionStage<LastOperationResource> getLastBindingOperation(String instanceId, String bindingId,
+                                                                          String serviceDefinitionId, String planId,
+                                                                          ServiceData svcData,
+                                                                          BindingData bindingData) {
+        return timed(() -> delegate.getLastBindingOperation(instanceId, bindingId, serviceDefinitionId, planId,
+                svcData, bindingData));
+    }
+
+    @Override
+    public CompletionStage<LastOperationResource> deleteServiceBinding(String instanceId, String bindingId,
+                                                                       String serviceDefinitionId, String planId,
+                                                                       ServiceData svcData,
+                                                                       BindingData bindingData) {
+        return timed(() -> delegate.deleteServiceBinding(instanceId, bindingId, serviceDefinitionId, planId,
+                svcData, bindingData));
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+
+    private static <T> CompletionStage<T> timed(Supplier<CompletionStage<T>> operation) {
+        RequestScope scope = RequestScope.current();
+        long start = System.nanoTime();
+        try {
+            return operation.get().whenComplete((result, e) -> {
+                long elapsed = System.nanoTime() - start;
+                scope.execute(() -> RequestTimings.addAdapterTime(elapsed));
+            });
+        } catch (RuntimeException e) {
+            RequestTimings.addAdapterTime(System.nanoTime() - start);
+            throw e;
+        }
+    }
+}
@@ -5,14 +5,12 @@
 
 package com.oracle.oci.osb.adapters.adb;
 
-import com.oracle.oci.osb.util.Utils;
-
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
@@ -22,48 +20,51 @@ import java.util.zip.ZipInputStream;
 
 public class ADBUtils {
 
+    /**
+     * Initial size of the buffer an entry is read into when the zip does not record its size up front.
+     */
+    private static final int DEFAULT_ENTRY_BUFFER_SIZE = 8192;
+
+    private static final int STREAM_BUFFER_SIZE = 16384;
+
     /**
      * generateCredentialsMap reads credential/configuration files for connecting to an ATP/ADW instance from passed
      * InputStream and builds and returns a MAP with filename as key and base64 encoded content of the
      * credential/configuration file as value.
+     * <p>
+     * The zip is decoded as it is read from the stream, nothing is written to disk. Each entry is read into a buffer
+     * reused across the entries, and encoded straight from it. The stream is closed once read.
      *
-     * @param dbName name of the database.
-     * @param in     inputStream of the Credentials Zip file.
+     * @param in inputStream of the Credentials Zip file.
      * @return Map with filename/attribute name as keys and filename/attribute base64 encoded contents as values.
      * @throws IOException if downloading credential zip file fails.
      */
-    public static Map<String, String> generateCredentialsMap(String dbName, InputStream in) throws IOException {
-        Path tempDir = Files.createTempDirectory(dbName);
-        Path tmpFile = Files.createTempFile(tempDir, dbName, ".zip");
-        FileOutputStream out = null;
-        try {
-            out = new FileOutputStream(tmpFile.toFile());
-            byte[] b = new byte[1024];
-            int count;
-            while ((count = in.read(b)) >= 0) {
-                out.write(b, 0, count);
-            }
-        } finally {
-            if (out != null) {
-                out.close();
-            }
-        }
-
+    public static Map<String, String> generateCredentialsMap(InputStream in) throws IOException {
         Map<String, String> credMap = new HashMap<>();
-        //unzip file
-        try (FileInputStream fip = new FileInputStream(tmpFile.toFile()); ZipInputStream zis = new ZipInputStream
-                (fip)) {
+        Base64.Encoder encoder = Base64.getEncoder();
+        byte[] buffer = new byte[DEFAULT_ENTRY_BUFFER_SIZE];
+        try (ZipInputStream zis = new ZipInputStream(new BufferedInputStream(in, STREAM_BUFFER_SIZE))) {
             ZipEntry ze = zis.getNextEntry();
             while (ze != null) {
-                byte[] data = Utils.toByteArray(zis);
-                String b64Data = Base64.getEncoder().encodeToString(data);
-                credMap.put(ze.getName(), b64Data);
+                long size = ze.getSize();
+                // one spare byte so that reading a whole entry of known size does not grow the buffer
+                if (size >= buffer.length && size < Integer.MAX_VALUE) {
+                    buffer = new byte[(int) size + 1];
+                }
+                int length = 0;
+                int read;
+                while ((read = zis.read(buffer, length, buffer.length - length)) != -1) {
+                    length += read;
+                    if (length == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    }
+                }
+                ByteBuffer encoded = encoder.encode(ByteBuffer.wrap(buffer, 0, length));
+                credMap.put(ze.getName(), new String(encoded.array(), 0, encoded.limit(),
+                        StandardCharsets.ISO_8859_1));
                 zis.closeEntry();
                 ze = zis.getNextEntry();
             }
-        } finally {
-            Files.delete(tmpFile);
-            Files.delete(tempDir);
         }
         return credMap;
     }
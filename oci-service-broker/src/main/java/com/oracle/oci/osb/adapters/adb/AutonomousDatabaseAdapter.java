@@ -7,7 +7,6 @@ package com.oracle.oci.osb.adapters.adb;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.oracle.bmc.auth.AuthenticationDetailsProvider;
 import com.oracle.bmc.database.model.CreateAutonomousDatabaseBase;
 import com.oracle.bmc.model.BmcException;
 import com.oracle.oci.osb.adapter.ServiceAdapter;
@@ -82,10 +81,16 @@ public abstract class AutonomousDatabaseAdapter implements ServiceAdapter {
 
     private final String ADB_INSTANCE_ID = getInstanceTypeString() + "-Id";
 
-    private AuthenticationDetailsProvider provider;
+    private final SystemPropsAuthProvider provider;
+
+    private final WalletCache walletCache = WalletCache.getInstance();
 
     public AutonomousDatabaseAdapter() {
-        provider = new SystemPropsAuthProvider().getAuthProvider();
+        provider = SystemPropsAuthProvider.getInstance();
+    }
+
+    private AutonomousDatabaseOCIClient getOCIClient() {
+        return AutonomousDatabaseOCIClient.getInstance(provider);
     }
 
     protected abstract String getInstanceTypeString();
@@ -117,17 +122,16 @@ public abstract class AutonomousDatabaseAdapter implements ServiceAdapter {
         String compartmentId = RequestUtil.getNonEmptyStringParameter(reqParams, REQ_PARAM_COMPARTMENT_ID);
         String name = RequestUtil.getNonEmptyStringParameter(reqParams, REQ_PARAM_NAME);
 
-        try (AutonomousDatabaseOCIClient adbServiceClient = new AutonomousDatabaseOCIClient(provider, compartmentId)) {
-            AutonomousDatabaseInstance autonomousDatabaseInstance = instanceExists(adbServiceClient
-                    .listInstances(compartmentId, name), instanceId);
-            if (autonomousDatabaseInstance == null) {
-                return ServiceInstanceStatus.DOESNOTEXIST;
+        AutonomousDatabaseOCIClient adbServiceClient = getOCIClient();
+        AutonomousDatabaseInstance autonomousDatabaseInstance = instanceExists(adbServiceClient
+                .findInstances(compartmentId, name, instanceId), instanceId);
+        if (autonomousDatabaseInstance == null) {
+            return ServiceInstanceStatus.DOESNOTEXIST;
+        } else {
+            if (isSameInstance(autonomousDatabaseInstance, reqParams)) {
+                return ServiceInstanceStatus.EXISTS;
             } else {
-                if (isSameInstance(autonomousDatabaseInstance, reqParams)) {
-                    return ServiceInstanceStatus.EXISTS;
-                } else {
-                    return ServiceInstanceStatus.CONFLICT;
-                }
+                return ServiceInstanceStatus.CONFLICT;
             }
         }
     }
@@ -140,13 +144,12 @@ public abstract class AutonomousDatabaseAdapter implements ServiceAdapter {
         }
         String compartmentId = RequestUtil.getNonEmptyStringParameter(reqParams, REQ_PARAM_COMPARTMENT_ID);
 
-        try (AutonomousDatabaseOCIClient adbServiceClient = new AutonomousDatabaseOCIClient(provider, compartmentId)) {
-            AutonomousDatabaseInstance autonomousDatabaseInstance = adbServiceClient.get(ocId);
-            if (autonomousDatabaseInstance == null) {
-                return ServiceInstanceStatus.DOESNOTEXIST;
-            } else {
-                return ServiceInstanceStatus.EXISTS;
-            }
+        AutonomousDatabaseOCIClient adbServiceClient = getOCIClient();
+        AutonomousDatabaseInstance autonomousDatabaseInstance = adbServiceClient.get(ocId);
+        if (autonomousDatabaseInstance == null) {
+            return ServiceInstanceStatus.DOESNOTEXIST;
+        } else {
+            return ServiceInstanceStatus.EXISTS;
         }
     }
 
@@ -163,42 +166,41 @@ public abstract class AutonomousDatabaseAdapter implements ServiceAdapter {
                 RequestUtil.getBooleanParameterDefaultValueTrue(reqParams, Constants.PROVISIONING, false);
         String compartmentId = RequestUtil.getNonEmptyStringParameter(reqParams, REQ_PARAM_COMPARTMENT_ID);
 
-        try (AutonomousDatabaseOCIClient adbServiceClient = new AutonomousDatabaseOCIClient(provider, compartmentId)) {
-
-            //Provision
-            String name = RequestUtil.getNonEmptyStringParameter(reqParams, REQ_PARAM_NAME);
-
-            ServiceData adbSvcData = new ServiceData();
-            adbSvcData.setServiceId(serviceId);
-            adbSvcData.setPlanId(planId);
-            adbSvcData.setCompartmentId(compartmentId);
-            adbSvcData.setProvisioning(isProvisioningRequired);
-
-            //Check oci and provision if instance doesn't exists already
-            if (isProvisioningRequired) {
-                AutonomousDatabaseInstance autonomousDatabaseInstance = instanceExists(adbServiceClient
-                        .listInstances(compartmentId, name), instanceId);
-
-                if (autonomousDatabaseInstance != null) {
-                    //instance already exists!
-                    adbSvcData.setOcid(autonomousDatabaseInstance.getId());
-                    adbSvcData.putMetadata(Constants.DB_WORKLOAD_TYPE, autonomousDatabaseInstance.getDbWorkloadType().toString());
-                    response.setSvcData(adbSvcData);
-                    if (autonomousDatabaseInstance.getLifecycleState() == AutonomousDatabaseInstance.LifecycleState.Available) {
-                        response.setStatusCode(Response.Status.OK.getStatusCode());
-                    } else {
-                        response.setStatusCode(Response.Status.ACCEPTED.getStatusCode());
-                    }
-                }
-            } else {
-                String ocId = RequestUtil.getNonEmptyStringParameter(reqParams, Constants.OCID);
-                adbSvcData.setOcid(ocId);
-                adbSvcData.putMetadata(Constants.DB_WORKLOAD_TYPE, getInstanceTypeString());
+        AutonomousDatabaseOCIClient adbServiceClient = getOCIClient();
+
+        //Provision
+        String name = RequestUtil.getNonEmptyStringParameter(reqParams, REQ_PARAM_NAME);
+
+        ServiceData adbSvcData = new ServiceData();
+        adbSvcData.setServiceId(serviceId);
+        adbSvcData.setPlanId(planId);
+        adbSvcData.setCompartmentId(compartmentId);
+        adbSvcData.setProvisioning(isProvisioningRequired);
+
+        //Check oci and provision if instance doesn't exists already
+        if (isProvisioningRequired) {
+            AutonomousDatabaseInstance autonomousDatabaseInstance = instanceExists(adbServiceClient
+                    .findInstances(compartmentId, name, instanceId), instanceId);
+
+            if (autonomousDatabaseInstance != null) {
+                //instance already exists!
+                adbSvcData.setOcid(autonomousDatabaseInstance.getId());
+                adbSvcData.putMetadata(Constants.DB_WORKLOAD_TYPE, autonomousDatabaseInstance.getDbWorkloadType().toString());
                 response.setSvcData(adbSvcData);
-                response.setStatusCode(Response.Status.OK.getStatusCode());
+                if (autonomousDatabaseInstance.getLifecycleState() == AutonomousDatabaseInstance.LifecycleState.Available) {
+                    response.setStatusCode(Response.Status.OK.getStatusCode());
+                } else {
+                    response.setStatusCode(Response.Status.ACCEPTED.getStatusCode());
+                }
             }
-            return response;
+        } else {
+            String ocId = RequestUtil.getNonEmptyStringParameter(reqParams, Constants.OCID);
+            adbSvcData.setOcid(ocId);
+            adbSvcData.putMetadata(Constants.DB_WORKLOAD_TYPE, getInstanceTypeString());
+            response.setSvcData(adbSvcData);
+            response.setStatusCode(Response.Status.OK.getStatusCode());
         }
+        return response;
     }
 
     /**
@@ -220,47 +222,46 @@ public abstract class AutonomousDatabaseAdapter implements ServiceAdapter {
         Map reqParams = RequestUtil.validateParamsExists(body.getParameters());
         String compartmentId = RequestUtil.getNonEmptyStringParameter(reqParams, REQ_PARAM_COMPARTMENT_ID);
 
-        try (AutonomousDatabaseOCIClient adbServiceClient = new AutonomousDatabaseOCIClient(provider, compartmentId)) {
-
-            //Provision
-            String name = RequestUtil.getNonEmptyStringParameter(reqParams, REQ_PARAM_NAME);
-            String dbName = RequestUtil.getNonEmptyStringParameter(reqParams, REQ_PARAM_DB_NAME);
-            Integer cpuCount = RequestUtil.getIntegerParameter(reqParams, REQ_PARAM_CPU_COUNT, true);
-            Integer storageSize = RequestUtil.getIntegerParameter(reqParams, REQ_PARAM_STORAGE_SIZE_TB, true);
-            String password = RequestUtil.getNonEmptyStringParameter(reqParams, REQ_PARAM_PASSWORD);
-            String licenseModelStr = RequestUtil.getNonEmptyStringParameter(reqParams, REQ_PARAM_LICENSE_MODEL);
-            boolean autoScalingEnabled = RequestUtil.getBooleanParameterDefaultValueFalse(reqParams,
-                    Constants.AUTOSCALING_ENABLED, false);
-            Map<String, Map<String, Object>> definedTags = RequestUtil.getMapMapObjectParameter(reqParams, Constants
-                    .DEFINED_TAGS, false);
-            if (!(LicenseModel.NEW.toString().equalsIgnoreCase(licenseModelStr) || LicenseModel.BYOL.toString()
-                    .equalsIgnoreCase(licenseModelStr))) {
-                LOGGER.severe("Invalid License Model : " + licenseModelStr);
-                throw Errors.invalidParameter(REQ_PARAM_LICENSE_MODEL);
-            }
+        AutonomousDatabaseOCIClient adbServiceClient = getOCIClient();
+
+        //Provision
+        String name = RequestUtil.getNonEmptyStringParameter(reqParams, REQ_PARAM_NAME);
+        String dbName = RequestUtil.getNonEmptyStringParameter(reqParams, REQ_PARAM_DB_NAME);
+        Integer cpuCount = RequestUtil.getIntegerParameter(reqParams, REQ_PARAM_CPU_COUNT, true);
+        Integer storageSize = RequestUtil.getIntegerParameter(reqParams, REQ_PARAM_STORAGE_SIZE_TB, true);
+        String password = RequestUtil.getNonEmptyStringParameter(reqParams, REQ_PARAM_PASSWORD);
+        String licenseModelStr = RequestUtil.getNonEmptyStringParameter(reqParams, REQ_PARAM_LICENSE_MODEL);
+        boolean autoScalingEnabled = RequestUtil.getBooleanParameterDefaultValueFalse(reqParams,
+                Constants.AUTOSCALING_ENABLED, false);
+        Map<String, Map<String, Object>> definedTags = RequestUtil.getMapMapObjectParameter(reqParams, Constants
+                .DEFINED_TAGS, false);
+        if (!(LicenseModel.NEW.toString().equalsIgnoreCase(licenseModelStr) || LicenseModel.BYOL.toString()
+                .equalsIgnoreCase(licenseModelStr))) {
+            LOGGER.severe("Invalid License Model : " + licenseModelStr);
+            throw Errors.invalidParameter(REQ_PARAM_LICENSE_MODEL);
+        }
 
-            LicenseModel licenseModel = LicenseModel.valueOf(licenseModelStr.toUpperCase());
-            boolean isLicenseIncluded = (licenseModel == LicenseModel.NEW);
+        LicenseModel licenseModel = LicenseModel.valueOf(licenseModelStr.toUpperCase());
+        boolean isLicenseIncluded = (licenseModel == LicenseModel.NEW);
 
-            ServiceData adbSvcData = new ServiceData();
-            adbSvcData.setServiceId(serviceId);
-            adbSvcData.setPlanId(planId);
-            adbSvcData.setCompartmentId(compartmentId);
-            adbSvcData.setProvisioning(true);
-            adbSvcData.putMetadata(Constants.DB_WORKLOAD_TYPE, getInstanceTypeString().toUpperCase());
+        ServiceData adbSvcData = new ServiceData();
+        adbSvcData.setServiceId(serviceId);
+        adbSvcData.setPlanId(planId);
+        adbSvcData.setCompartmentId(compartmentId);
+        adbSvcData.setProvisioning(true);
+        adbSvcData.putMetadata(Constants.DB_WORKLOAD_TYPE, getInstanceTypeString().toUpperCase());
 
-            AutonomousDatabaseInstance autonomousDatabaseInstance = adbServiceClient.create(name, dbName,
-                    getDBWorkload(getInstanceTypeString()), cpuCount, storageSize, freeFormTags, definedTags, password,
-                    isLicenseIncluded, autoScalingEnabled);
+        AutonomousDatabaseInstance autonomousDatabaseInstance = adbServiceClient.create(instanceId, compartmentId,
+                name, dbName, getDBWorkload(getInstanceTypeString()), cpuCount, storageSize, freeFormTags,
+                definedTags, password, isLicenseIncluded, autoScalingEnabled);
 
-            adbSvcData.setOcid(autonomousDatabaseInstance.getId());
-            response.setStatusCode(HTTP_ACCEPTED);
+        adbSvcData.setOcid(autonomousDatabaseInstance.getId());
+        response.setStatusCode(HTTP_ACCEPTED);
 
-            if (autonomousDatabaseInstance.getId() == null || "".equals(autonomousDatabaseInstance.getId().trim())) {
-                LOGGER.severe("OCID not  found in the create response!!!");
-            }
-            response.setSvcData(adbSvcData);
+        if (autonomousDatabaseInstance.getId() == null || "".equals(autonomousDatabaseInstance.getId().trim())) {
+            LOGGER.severe("OCID not  found in the create response!!!");
         }
+        response.setSvcData(adbSvcData);
 
         return response;
     }
@@ -279,7 +280,6 @@ public abstract class AutonomousDatabaseAdapter implements ServiceAdapter {
 
         LOGGER.finest("Update request received.");
         ServiceInstanceAsyncOperation response = new ServiceInstanceAsyncOperation();
-        String compartmentId = svcData.getCompartmentId();
 
         //Validate request
         if (body.getParameters() == null) {
@@ -317,7 +317,9 @@ public abstract class AutonomousDatabaseAdapter implements ServiceAdapter {
         Map<String, Map<String, Object>> definedTags = RequestUtil.getMapMapObjectParameter(params, Constants
                 .DEFINED_TAGS, false);
 
-        try (AutonomousDatabaseOCIClient adbServiceClient = new AutonomousDatabaseOCIClient(provider, compartmentId)) {
+        AutonomousDatabaseOCIClient adbServiceClient = getOCIClient();
+        walletCache.invalidate(svcData.getOcid());
+        try {
             adbServiceClient.update(svcData.getOcid(), name, password, cpuCount, storageSize, tags, definedTags, licenseModelStr, autoScalingEnabled);
             response.setStatusCode(HTTP_ACCEPTED);
         } catch(UpdateNotRequiredException ue) {
@@ -345,10 +347,9 @@ public abstract class AutonomousDatabaseAdapter implements ServiceAdapter {
         debugLog(LOGGER, "Delete request received. instanceId: %s", Level.FINER, instanceId);
         AsyncOperation response = new AsyncOperation();
 
-        //Check data store
-        String compartmentId = svcData.getCompartmentId();
-
-        try (AutonomousDatabaseOCIClient adbServiceClient = new AutonomousDatabaseOCIClient(provider, compartmentId)) {
+        AutonomousDatabaseOCIClient adbServiceClient = getOCIClient();
+        walletCache.invalidate(svcData.getOcid());
+        try {
             adbServiceClient.delete(svcData.getOcid());
             response.setStatusCode(HTTP_ACCEPTED);
         } catch (BmcException x) {
@@ -378,11 +379,11 @@ public abstract class AutonomousDatabaseAdapter implements ServiceAdapter {
                 operation);
 
         LastOperationResource response = new LastOperationResource();
-        String compartmentId = svcData.getCompartmentId();
         AutonomousDatabaseInstance autonomousDatabaseInstance;
 
         //Get instance details from OCI. If instance not found and it is delete operation then it is considered success.
-        try (AutonomousDatabaseOCIClient adbServiceClient = new AutonomousDatabaseOCIClient(provider, compartmentId)) {
+        AutonomousDatabaseOCIClient adbServiceClient = getOCIClient();
+        try {
             autonomousDatabaseInstance = adbServiceClient.get(svcData.getOcid());
         } catch (Exception x) {
             if ( x instanceof  BmcException && ((BmcException)  x).getStatusCode() == HTTP_NOT_FOUND && Constants
@@ -464,13 +465,16 @@ public abstract class AutonomousDatabaseAdapter implements ServiceAdapter {
         Map reqParams = RequestUtil.validateParamsExists(request.getParameters());
 
         String walletPassword = RequestUtil.getNonEmptyStringParameter(reqParams, BINDING_PARAM_WALLET_PASSWORD);
-        String compartmentId = svcData.getCompartmentId();
 
         AutonomousDatabaseInstance autonomousDatabaseInstance;
-        try (AutonomousDatabaseOCIClient adbServiceClient = new AutonomousDatabaseOCIClient(provider, compartmentId)) {
-            autonomousDatabaseInstance = adbServiceClient.get(svcData.getOcid());
-            Map<String, String> creds = adbServiceClient.getCredentials(autonomousDatabaseInstance
-                    .getId(), autonomousDatabaseInstance.getDbName(), walletPassword);
+        AutonomousDatabaseOCIClient adbServiceClient = getOCIClient();
+        try {
+            Map<String, String> creds = walletCache.get(svcData.getOcid(), walletPassword);
+            if (creds == null) {
+                autonomousDatabaseInstance = adbServiceClient.get(svcData.getOcid());
+                creds = adbServiceClient.getCredentials(autonomousDatabaseInstance.getId(), walletPassword);
+                walletCache.put(svcData.getOcid(), walletPassword, creds);
+            }
             creds.put(BINDING_RES_PARAM_USER_NAME, DEFAULT_DB_USER_NAME);
             response.setCredentials(creds);
         } catch (IOException e) {
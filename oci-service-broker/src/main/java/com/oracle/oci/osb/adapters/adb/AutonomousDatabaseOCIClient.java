@@ -6,11 +6,12 @@
 package com.oracle.oci.osb.adapters.adb;
 
 import com.oracle.bmc.Region;
-import com.oracle.bmc.auth.AuthenticationDetailsProvider;
 import com.oracle.bmc.database.DatabaseClient;
 import com.oracle.bmc.database.model.*;
 import com.oracle.bmc.database.requests.*;
 import com.oracle.bmc.database.responses.*;
+import com.oracle.oci.osb.ociclient.OCIRateLimiter;
+import com.oracle.oci.osb.ociclient.SystemPropsAuthProvider;
 import com.oracle.oci.osb.util.Constants;
 import com.oracle.oci.osb.util.RequestUtil;
 import com.oracle.oci.osb.util.Utils;
@@ -19,33 +20,69 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import static com.oracle.oci.osb.util.Utils.debugLog;
 import static com.oracle.oci.osb.util.Utils.getLogger;
 
-public class AutonomousDatabaseOCIClient implements AutoCloseable{
+/**
+ * AutonomousDatabaseOCIClient wraps the OCI {@link DatabaseClient}. The client is thread safe and long lived, a
+ * single instance is shared by all the requests made to a region so that the HTTP connections to OCI are reused.
+ */
+public class AutonomousDatabaseOCIClient {
 
     private static final Logger LOGGER = getLogger(AutonomousDatabaseOCIClient.class);
 
-    private DatabaseClient ociDBClient;
+    private static final ConcurrentMap<Region, AutonomousDatabaseOCIClient> clients = new ConcurrentHashMap<>();
 
-    private String compartmentId;
+    /**
+     * Number of Autonomous Databases requested per page when listing a compartment.
+     */
+    private static final int LIST_PAGE_SIZE = 1000;
 
-    AutonomousDatabaseOCIClient(AuthenticationDetailsProvider authProvider, String compartmentId) {
-        this(authProvider, compartmentId, Region.fromRegionId(System.getProperty(Constants.REGION_ID)));
-    }
+    private static final OCIRateLimiter READS = OCIRateLimiter.get("database", OCIRateLimiter.Kind.READ);
 
-    private AutonomousDatabaseOCIClient(AuthenticationDetailsProvider authProvider, String compartmentId, Region regionId) {
-        this.compartmentId = compartmentId;
-        ociDBClient = new DatabaseClient(authProvider);
+    private static final OCIRateLimiter WRITES = OCIRateLimiter.get("database", OCIRateLimiter.Kind.WRITE);
+
+    private final DatabaseClient ociDBClient;
+
+    private final CompartmentInventory inventory;
+
+    private AutonomousDatabaseOCIClient(SystemPropsAuthProvider authProvider, Region regionId) {
+        ociDBClient = authProvider.buildClient(DatabaseClient.builder());
         ociDBClient.setRegion(regionId);
+        inventory = new CompartmentInventory(this::listInstances);
+    }
+
+    /**
+     * Returns the client shared by all requests made to the region configured for the broker.
+     *
+     * @param authProvider authentication details used if the client has to be created.
+     * @return AutonomousDatabaseOCIClient
+     */
+    static AutonomousDatabaseOCIClient getInstance(SystemPropsAuthProvider authProvider) {
+        return getInstance(authProvider, Region.fromRegionId(System.getProperty(Constants.REGION_ID)));
+    }
+
+    /**
+     * Returns the client shared by all requests made to the given region.
+     *
+     * @param authProvider authentication details used if the client has to be created.
+     * @param region       OCI region.
+     * @return AutonomousDatabaseOCIClient
+     */
+    static AutonomousDatabaseOCIClient getInstance(SystemPropsAuthProvider authProvider, Region region) {
+        return clients.computeIfAbsent(region, r -> new AutonomousDatabaseOCIClient(authProvider, r));
     }
 
     /**
      * Create an AD instance. The instance will be provisioned asynchronously
      *
+     * @param instanceId  broker instance id, from which the retry token of the request is derived.
+     * @param compartmentId OCID of the compartment in which the instance is created.
      * @param displayName display name(mostly for console)
      * @param dbName      name of the database.
      * @param type        DBWorkload Type of the Database. OLTP or DW.
@@ -55,7 +92,8 @@ public class AutonomousDatabaseOCIClient implements AutoCloseable{
      * @param password    password to be set for the DB admin user.
      * @return AutonomousDatabase
      */
-    public AutonomousDatabaseInstance create(String displayName, String dbName, CreateAutonomousDatabaseBase.DbWorkload type,
+    public AutonomousDatabaseInstance create(String instanceId, String compartmentId, String displayName,
+                                             String dbName, CreateAutonomousDatabaseBase.DbWorkload type,
                                              int cpuCount, int StorageSize, Map<String, String> tags,
                                              Map<String, Map<String, Object>> definedTags, String password,
                                              boolean licenseIncluded, boolean autoScalingEnabled) {
@@ -74,10 +112,14 @@ public class AutonomousDatabaseOCIClient implements AutoCloseable{
                         .BringYourOwnLicense)
                 .isAutoScalingEnabled(autoScalingEnabled)
                 .build();
-        CreateAutonomousDatabaseResponse response = ociDBClient.createAutonomousDatabase
-                (CreateAutonomousDatabaseRequest.builder().createAutonomousDatabaseDetails(request).build());
+        CreateAutonomousDatabaseResponse response = WRITES.call(() -> ociDBClient.createAutonomousDatabase
+                (CreateAutonomousDatabaseRequest.builder().createAutonomousDatabaseDetails(request)
+                        .opcRetryToken(OCIRateLimiter.retryToken("createAutonomousDatabase", instanceId, request))
+                        .build()));
 
-        return buildADInstance(response.getAutonomousDatabase());
+        AutonomousDatabaseInstance instance = buildADInstance(response.getAutonomousDatabase());
+        inventory.add(compartmentId, instance);
+        return instance;
     }
 
     /**
@@ -157,10 +199,12 @@ public class AutonomousDatabaseOCIClient implements AutoCloseable{
         }
 
         UpdateAutonomousDatabaseDetails request = reqBuilder.build();
-        UpdateAutonomousDatabaseResponse response = ociDBClient.updateAutonomousDatabase
+        UpdateAutonomousDatabaseResponse response = WRITES.call(() -> ociDBClient.updateAutonomousDatabase
                 (UpdateAutonomousDatabaseRequest.builder().autonomousDatabaseId(adOCID)
-                        .updateAutonomousDatabaseDetails(request).build());
-        return buildADInstance(response.getAutonomousDatabase());
+                        .updateAutonomousDatabaseDetails(request).build()));
+        AutonomousDatabaseInstance instance = buildADInstance(response.getAutonomousDatabase());
+        inventory.replace(instance);
+        return instance;
     }
 
     /**
@@ -180,7 +224,8 @@ public class AutonomousDatabaseOCIClient implements AutoCloseable{
     public void delete(String adOCID) {
         DeleteAutonomousDatabaseRequest request = DeleteAutonomousDatabaseRequest.builder().autonomousDatabaseId
                 (adOCID).build();
-        ociDBClient.deleteAutonomousDatabase(request);
+        WRITES.call(() -> ociDBClient.deleteAutonomousDatabase(request));
+        inventory.remove(adOCID);
     }
 
     /**
@@ -192,8 +237,8 @@ public class AutonomousDatabaseOCIClient implements AutoCloseable{
     public AutonomousDatabaseInstance changePassword(String password) {
         UpdateAutonomousDatabaseDetails request = UpdateAutonomousDatabaseDetails.builder().adminPassword(password)
                 .build();
-        UpdateAutonomousDatabaseResponse response = ociDBClient.updateAutonomousDatabase
-                (UpdateAutonomousDatabaseRequest.builder().updateAutonomousDatabaseDetails(request).build());
+        UpdateAutonomousDatabaseResponse response = WRITES.call(() -> ociDBClient.updateAutonomousDatabase
+                (UpdateAutonomousDatabaseRequest.builder().updateAutonomousDatabaseDetails(request).build()));
         return buildADInstance(response.getAutonomousDatabase());
     }
 
@@ -201,55 +246,73 @@ public class AutonomousDatabaseOCIClient implements AutoCloseable{
      * Download the credential/configuration files for connecting to an AD
      * instance. The files are base64 encoded and converted as strings.
      *
-     * @param adID     OCID of the AD instance.
-     * @param dbName    name of the database.
+     * @param adID      OCID of the AD instance.
      * @param wPassword password to set for the Oracle wallet that is
      *                  created for this request.
      * @return Map with filename/attribute name as keys and filename/attribute
      * base64 encoded contents as values.
      * @throws IOException if downloading credential zip file fails.
      */
-    public Map<String, String> getCredentials(String adID, String dbName, String wPassword) throws IOException {
+    public Map<String, String> getCredentials(String adID, String wPassword) throws IOException {
         GenerateAutonomousDatabaseWalletDetails adbWalletDetails = GenerateAutonomousDatabaseWalletDetails.builder()
                 .password(wPassword).build();
-        GenerateAutonomousDatabaseWalletResponse adbWalletResponse = ociDBClient.generateAutonomousDatabaseWallet(
-                GenerateAutonomousDatabaseWalletRequest.builder()
+        // generating a wallet changes nothing in the database, it is retried as a read
+        GenerateAutonomousDatabaseWalletResponse adbWalletResponse = READS.call(() ->
+                ociDBClient.generateAutonomousDatabaseWallet(GenerateAutonomousDatabaseWalletRequest.builder()
                         .generateAutonomousDatabaseWalletDetails(adbWalletDetails)
                         .autonomousDatabaseId(adID)
-                        .build());
-        return ADBUtils.generateCredentialsMap(dbName, adbWalletResponse.getInputStream());
+                        .build()));
+        return ADBUtils.generateCredentialsMap(adbWalletResponse.getInputStream());
     }
 
     /**
      * Fetch the list of all AD with a specific display name in a given OCI
-     * compartment.
+     * compartment. All the pages of the listing are fetched.
      *
      * @param compartmentId OCID of the Compartment.
      * @param displayName   display name to filter the AD instances.
      * @return List of ADB instance details.
      */
     public List<AutonomousDatabaseInstance> listInstances(String compartmentId, String displayName) {
-        ListAutonomousDatabasesRequest.Builder reqBuilder = ListAutonomousDatabasesRequest.builder().compartmentId
-                (compartmentId);
-        if (displayName != null && !displayName.isEmpty()) {
-            reqBuilder.displayName(displayName);
-        }
-        ListAutonomousDatabasesRequest request = reqBuilder.build();
-        ListAutonomousDatabasesResponse response = ociDBClient.listAutonomousDatabases(request);
         List<AutonomousDatabaseInstance> autonomousDatabaseInstanceList = new ArrayList<>();
-        response.getItems().forEach((adwSummary) -> autonomousDatabaseInstanceList.add(buildADInstance(adwSummary)));
+        String page = null;
+        do {
+            ListAutonomousDatabasesRequest.Builder reqBuilder = ListAutonomousDatabasesRequest.builder().compartmentId
+                    (compartmentId).limit(LIST_PAGE_SIZE).page(page);
+            if (displayName != null && !displayName.isEmpty()) {
+                reqBuilder.displayName(displayName);
+            }
+            ListAutonomousDatabasesResponse response = READS.call(() -> ociDBClient.listAutonomousDatabases(
+                    reqBuilder.build()));
+            response.getItems().forEach((adwSummary) -> autonomousDatabaseInstanceList.add(buildADInstance(adwSummary)));
+            page = response.getOpcNextPage();
+        } while (page != null);
 
         return autonomousDatabaseInstanceList;
     }
 
-    public void close() {
-        ociDBClient.close();
+    /**
+     * Find the AD instances of a compartment that may have been created for a broker instance: the instances with the
+     * given display name if set, otherwise all the instances of the compartment. The instances with a display name
+     * are found in the inventory if it has one tagged with the broker instance id, otherwise they are listed.
+     *
+     * @param compartmentId OCID of the Compartment.
+     * @param displayName   display name to filter the AD instances.
+     * @param instanceId    broker instance id.
+     * @return List of ADB instance details.
+     */
+    public List<AutonomousDatabaseInstance> findInstances(String compartmentId, String displayName,
+                                                          String instanceId) {
+        if (displayName != null && !displayName.isEmpty()) {
+            return inventory.getByDisplayName(compartmentId, displayName, instanceId);
+        }
+        return listInstances(compartmentId, null);
     }
 
     private AutonomousDatabase getADInstance(String adOCID) {
         GetAutonomousDatabaseRequest request = GetAutonomousDatabaseRequest.builder().autonomousDatabaseId(adOCID)
                 .build();
-        GetAutonomousDatabaseResponse response = ociDBClient.getAutonomousDatabase(request);
+        GetAutonomousDatabaseResponse response = READS.call(() -> ociDBClient.getAutonomousDatabase(request));
         return response.getAutonomousDatabase();
     }
 
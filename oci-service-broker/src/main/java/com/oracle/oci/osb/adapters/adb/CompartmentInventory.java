@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.adapters.adb;
+
+import com.oracle.oci.osb.util.Constants;
+import com.oracle.oci.osb.util.SingleFlight;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.oracle.oci.osb.util.Utils.debugLog;
+import static com.oracle.oci.osb.util.Utils.getLogger;
+
+/**
+ * CompartmentInventory keeps the Autonomous Databases listed by display name in the compartments the broker
+ * provisions into, so that the existence checks repeated while provisioning an instance, e.g. by the platform
+ * retrying the request or polling it, are lookups rather than listings.
+ * <p>
+ * A lookup is answered from the inventory only if it finds a database tagged with the
+ * {@link Constants#OSB_INSTANCE_ID_LABEL} of the instance, listed less than
+ * {@link Constants#ADB_INVENTORY_TTL_SECONDS} ago. Otherwise the databases with the display name are listed again,
+ * as the database may have been created by another replica of the broker; concurrent lookups of the same display name
+ * share a single listing. The databases created, updated or deleted through the broker are applied to the inventory as
+ * soon as OCI returns them.
+ */
+class CompartmentInventory {
+
+    private static final Logger LOGGER = getLogger(CompartmentInventory.class);
+
+    private static final int DEFAULT_TTL_SECONDS = 30;
+
+    private final Map<String, Listing> listings = new ConcurrentHashMap<>();
+
+    private final SingleFlight<String, Listing> loads = new SingleFlight<>(0);
+
+    private final BiFunction<String, String, List<AutonomousDatabaseInstance>> lister;
+
+    private final long ttlNanos;
+
+    /**
+     * @param lister lists the Autonomous Databases of a compartment with a display name.
+     */
+    CompartmentInventory(BiFunction<String, String, List<AutonomousDatabaseInstance>> lister) {
+        this.lister = lister;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Integer.getInteger(Constants.ADB_INVENTORY_TTL_SECONDS,
+                DEFAULT_TTL_SECONDS));
+    }
+
+    /**
+     * Returns the databases of a compartment with the given display name, listing them unless the inventory has one
+     * tagged with the broker instance id.
+     *
+     * @param compartmentId OCID of the compartment.
+     * @param displayName   display name.
+     * @param instanceId    broker instance id.
+     * @return the matching databases, empty if none.
+     */
+    List<AutonomousDatabaseInstance> getByDisplayName(String compartmentId, String displayName, String instanceId) {
+        String key = key(compartmentId, displayName);
+        Listing listing = listings.get(key);
+        if (listing != null && System.nanoTime() - listing.listedAt < ttlNanos && listing.isTagged(instanceId)) {
+            return listing.instances;
+        }
+        return load(key, compartmentId, displayName).instances;
+    }
+
+    /**
+     * Adds a database created in a compartment.
+     */
+    void add(String compartmentId, AutonomousDatabaseInstance instance) {
+        if (instance != null && instance.getDisplayName() != null) {
+            listings.computeIfPresent(key(compartmentId, instance.getDisplayName()),
+                    (k, listing) -> listing.with(instance));
+        }
+    }
+
+    /**
+     * Replaces a database after it was updated, in whichever listing it is, or removes it from the listing if it was
+     * renamed.
+     */
+    void replace(AutonomousDatabaseInstance instance) {
+        if (instance == null) {
+            return;
+        }
+        String id = instance.getId();
+        for (String key : listings.keySet()) {
+            listings.computeIfPresent(key, (k, listing) -> {
+                AutonomousDatabaseInstance listed = listing.get(id);
+                if (listed == null) {
+                    return listing;
+                }
+                return Objects.equals(listed.getDisplayName(), instance.getDisplayName())
+                        ? listing.with(instance) : listing.without(id);
+            });
+        }
+    }
+
+    /**
+     * Removes a database after it was deleted, from whichever listing it is in.
+     */
+    void remove(String id) {
+        for (String key : listings.keySet()) {
+            listings.computeIfPresent(key, (k, listing) -> listing.contains(id) ? listing.without(id) : listing);
+        }
+    }
+
+    private Listing load(String key, String compartmentId, String displayName) {
+        try {
+            return loads.execute(key, () -> {
+                long now = System.nanoTime();
+                Listing loaded = new Listing(now, lister.apply(compartmentId, displayName));
+                listings.put(key, loaded);
+                // the listings of the display names no longer looked up are dropped as the others are loaded
+                listings.values().removeIf(listing -> now - listing.listedAt >= ttlNanos);
+                debugLog(LOGGER, "Listed %s Autonomous Databases named %s in compartment %s", Level.FINE,
+                        loaded.instances.size(), displayName, compartmentId);
+                return loaded;
+            });
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String key(String compartmentId, String displayName) {
+        return compartmentId + "/" + displayName;
+    }
+
+    /**
+     * Immutable list of the databases of a compartment with a display name.
+     */
+    private static class Listing {
+
+        private final long listedAt;
+
+        private final List<AutonomousDatabaseInstance> instances;
+
+        Listing(long listedAt, List<AutonomousDatabaseInstance> instances) {
+            this.listedAt = listedAt;
+            this.instances = Collections.unmodifiableList(new ArrayList<>(instances));
+        }
+
+        boolean contains(String id) {
+            return get(id) != null;
+        }
+
+        AutonomousDatabaseInstance get(String id) {
+            for (AutonomousDatabaseInstance instance : instances) {
+                if (instance.getId().equals(id)) {
+                    return instance;
+                }
+            }
+            return null;
+        }
+
+        boolean isTagged(String instanceId) {
+            for (AutonomousDatabaseInstance instance : instances) {
+                Map<String, String> tags = instance.getFreeformTags();
+                if (tags != null && instanceId.equals(tags.get(Constants.OSB_INSTANCE_ID_LABEL))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns a copy of the listing with the database added or replaced.
+         */
+        Listing with(AutonomousDatabaseInstance instance) {
+            List<AutonomousDatabaseInstance> copy = new ArrayList<>(instances.size() + 1);
+            for (AutonomousDatabaseInstance listed : instances) {
+                if (!listed.getId().equals(instance.getId())) {
+                    copy.add(listed);
+                }
+            }
+            copy.add(instance);
+            return new Listing(listedAt, copy);
+        }
+
+        /**
+         * Returns a copy of the listing without the database.
+         */
+        Listing without(String id) {
+            List<AutonomousDatabaseInstance> copy = new ArrayList<>(instances);
+            copy.removeIf(instance -> instance.getId().equals(id));
+            return new Listing(listedAt, copy);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.adapters.adb;
+
+import com.oracle.oci.osb.mbean.GaugeRegistry;
+import com.oracle.oci.osb.mbean.GaugeRegistry.Gauge;
+import com.oracle.oci.osb.util.Constants;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.oracle.oci.osb.util.Utils.getLogger;
+
+/**
+ * WalletCache keeps the credentials generated from the wallet of an Autonomous Database, so that binding the same
+ * database again with the same wallet password does not download a new wallet.
+ * <p>
+ * Entries are keyed by the OCID of the database and a salted SHA-256 hash of the wallet password, the password
+ * itself is never kept. The credentials are held encrypted with AES-GCM under a key generated when the broker starts
+ * and never stored. The cache is bounded to {@link Constants#ADB_WALLET_CACHE_MAX_ENTRIES} least recently used
+ * entries, each kept for {@link Constants#ADB_WALLET_CACHE_TTL_SECONDS}. The entries of a database are invalidated
+ * when it is updated or deleted through the broker.
+ */
+public class WalletCache {
+
+    private static final Logger LOGGER = getLogger(WalletCache.class);
+
+    private static final int DEFAULT_MAX_ENTRIES = 256;
+
+    private static final int DEFAULT_TTL_SECONDS = 600;
+
+    private static final String CIPHER = "AES/GCM/NoPadding";
+
+    private static final int KEY_BITS = 256;
+
+    private static final int IV_BYTES = 12;
+
+    private static final int TAG_BITS = 128;
+
+    private static final int SALT_BYTES = 16;
+
+    private static final WalletCache instance = new WalletCache();
+
+    static {
+        GaugeRegistry.register(Gauge.WALLET_CACHE_HITS, instance::getHitCount);
+        GaugeRegistry.register(Gauge.WALLET_CACHE_MISSES, instance::getMissCount);
+    }
+
+    private final boolean enabled;
+
+    private final long ttlNanos;
+
+    private final LinkedHashMap<String, CacheEntry> entries;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final byte[] salt = new byte[SALT_BYTES];
+
+    private final SecretKey key;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private WalletCache() {
+        int maxEntries = Integer.getInteger(Constants.ADB_WALLET_CACHE_MAX_ENTRIES, DEFAULT_MAX_ENTRIES);
+        ttlNanos = TimeUnit.SECONDS.toNanos(Integer.getInteger(Constants.ADB_WALLET_CACHE_TTL_SECONDS,
+                DEFAULT_TTL_SECONDS));
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        random.nextBytes(salt);
+        key = generateKey();
+        enabled = key != null && maxEntries > 0 && ttlNanos > 0
+                && Boolean.parseBoolean(System.getProperty(Constants.ADB_WALLET_CACHE_ENABLED, "true"));
+    }
+
+    /**
+     * @return the cache shared by the Autonomous Database adapters.
+     */
+    public static WalletCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns the credentials cached for a database and wallet password.
+     *
+     * @param adbId          OCID of the database.
+     * @param walletPassword password of the wallet.
+     * @return a copy of the cached credentials, null if not cached.
+     */
+    Map<String, String> get(String adbId, String walletPassword) {
+        if (!enabled) {
+            return null;
+        }
+        String cacheKey = cacheKey(adbId, walletPassword);
+        CacheEntry entry;
+        synchronized (this) {
+            entry = entries.get(cacheKey);
+            if (entry != null && System.nanoTime() - entry.cachedAt > ttlNanos) {
+                entries.remove(cacheKey);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        try {
+            Map<String, String> credentials = decrypt(entry);
+            hitCount.incrementAndGet();
+            return credentials;
+        } catch (GeneralSecurityException | IOException e) {
+            LOGGER.log(Level.WARNING, "Error reading cached wallet", e);
+            missCount.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Caches the credentials generated for a database and wallet password.
+     *
+     * @param adbId          OCID of the database.
+     * @param walletPassword password of the wallet.
+     * @param credentials    credentials generated from the wallet.
+     */
+    void put(String adbId, String walletPassword, Map<String, String> credentials) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            CacheEntry entry = encrypt(credentials);
+            synchronized (this) {
+                entries.put(cacheKey(adbId, walletPassword), entry);
+            }
+        } catch (GeneralSecurityException | IOException e) {
+            LOGGER.log(Level.WARNING, "Error caching wallet", e);
+        }
+    }
+
+    /**
+     * Discards the credentials cached for a database.
+     *
+     * @param adbId OCID of the database.
+     */
+    synchronized void invalidate(String adbId) {
+        String prefix = adbId + "/";
+        entries.keySet().removeIf(cacheKey -> cacheKey.startsWith(prefix));
+    }
+
+    /**
+     * @return the number of binds served from the cache.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the number of binds that downloaded a wallet.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    private String cacheKey(String adbId, String walletPassword) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(salt);
+            byte[] hash = digest.digest(walletPassword.getBytes(StandardCharsets.UTF_8));
+            return adbId + "/" + Base64.getEncoder().encodeToString(hash);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private CacheEntry encrypt(Map<String, String> credentials) throws GeneralSecurityException, IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(credentials.size());
+            for (Map.Entry<String, String> e : credentials.entrySet()) {
+                writeString(out, e.getKey());
+                writeString(out, e.getValue());
+            }
+        }
+        byte[] iv = new byte[IV_BYTES];
+        random.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+        return new CacheEntry(iv, cipher.doFinal(bytes.toByteArray()), System.nanoTime());
+    }
+
+    private Map<String, String> decrypt(CacheEntry entry) throws GeneralSecurityException, IOException {
+        Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, entry.iv));
+        byte[] plain = cipher.doFinal(entry.cipherText);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(plain))) {
+            int size = in.readInt();
+            Map<String, String> credentials = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                credentials.put(readString(in), readString(in));
+            }
+            return credentials;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] data = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] data = new byte[in.readInt()];
+        in.readFully(data);
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    private static SecretKey generateKey() {
+        try {
+            KeyGenerator generator = KeyGenerator.getInstance("AES");
+            generator.init(KEY_BITS);
+            return generator.generateKey();
+        } catch (GeneralSecurityException e) {
+            LOGGER.log(Level.WARNING, "AES is not available, wallets are not cached", e);
+            return null;
+        }
+    }
+
+    private static class CacheEntry {
+
+        private final byte[] iv;
+
+        private final byte[] cipherText;
+
+        private final long cachedAt;
+
+        CacheEntry(byte[] iv, byte[] cipherText, long cachedAt) {
+            this.iv = iv;
+            this.cipherText = cipherText;
+            this.cachedAt = cachedAt;
+        }
+    }
+}
@@ -13,9 +13,9 @@ import com.oracle.bmc.objectstorage.ObjectStorageClient;
 import com.oracle.bmc.objectstorage.model.*;
 import com.oracle.bmc.objectstorage.requests.*;
 import com.oracle.bmc.objectstorage.responses.CreatePreauthenticatedRequestResponse;
-import com.oracle.bmc.objectstorage.responses.ListPreauthenticatedRequestsResponse;
 import com.oracle.oci.osb.adapter.ServiceAdapter;
 import com.oracle.oci.osb.model.*;
+import com.oracle.oci.osb.ociclient.OCIRateLimiter;
 import com.oracle.oci.osb.ociclient.SystemPropsAuthProvider;
 import com.oracle.oci.osb.store.BindingData;
 import com.oracle.oci.osb.store.ServiceData;
@@ -46,16 +46,23 @@ public class ObjectStorageServiceAdapter implements ServiceAdapter {
     public static final String EXPIRY_TIME = "expiryTime";
     public static final String PRE_AUTH_ACCESS_URI = "preAuthAccessUri";
 
+    private static final OCIRateLimiter READS = OCIRateLimiter.get("objectstorage", OCIRateLimiter.Kind.READ);
+
+    private static final OCIRateLimiter WRITES = OCIRateLimiter.get("objectstorage", OCIRateLimiter.Kind.WRITE);
+
     private final ObjectStorageClient objectStorageClient;
 
+    private final PreauthenticatedRequestIndex preAuthIndex;
+
     private Catalog catalog = null;
 
     public ObjectStorageServiceAdapter() {
         super();
-        objectStorageClient = new ObjectStorageClient(
-                new SystemPropsAuthProvider().getAuthProvider());
+        objectStorageClient = SystemPropsAuthProvider.getInstance().buildClient(ObjectStorageClient.builder());
         objectStorageClient
                 .setRegion(Region.fromRegionId(System.getProperty(Constants.REGION_ID)));
+        preAuthIndex = new PreauthenticatedRequestIndex(request ->
+                READS.call(() -> objectStorageClient.listPreauthenticatedRequests(request)));
     }
 
     @Override
@@ -79,9 +86,9 @@ public class ObjectStorageServiceAdapter implements ServiceAdapter {
             String namespace = RequestUtil.getNonEmptyStringParameter(mapParameters, NAMESPACE);
             boolean isProvisioningRequired = RequestUtil.getBooleanParameterDefaultValueTrue(mapParameters, Constants.PROVISIONING, false);
 
-            Bucket bucket = objectStorageClient
+            Bucket bucket = READS.call(() -> objectStorageClient
                     .getBucket(GetBucketRequest.builder().bucketName(bucketName)
-                            .namespaceName(namespace).build()).getBucket();
+                            .namespaceName(namespace).build())).getBucket();
 
             if(!isProvisioningRequired) { // it's for just binding request where instance already provisioned so just verifying bucket
                 if (bucket != null) {
@@ -161,9 +168,10 @@ public class ObjectStorageServiceAdapter implements ServiceAdapter {
                     CreateBucketDetails.PublicAccessType.valueOf(publicAccessType));
         }
 
-        objectStorageClient.createBucket(CreateBucketRequest.builder()
+        // CreateBucket takes no retry token, a bucket created despite a 503 is found by the next provision request
+        WRITES.callUnlessUnavailable(() -> objectStorageClient.createBucket(CreateBucketRequest.builder()
                 .namespaceName(namespace)
-                .createBucketDetails(createBucketDetailsBuilder.build()).build());
+                .createBucketDetails(createBucketDetailsBuilder.build()).build()));
 
         response.setSvcData(getSvcData(instanceId, body, bucketName, compartmentId, namespace, true));
 
@@ -198,10 +206,10 @@ public class ObjectStorageServiceAdapter implements ServiceAdapter {
                     UpdateBucketDetails.PublicAccessType.valueOf(publicAccessType));
         }
 
-        objectStorageClient.updateBucket(UpdateBucketRequest.builder()
+        WRITES.call(() -> objectStorageClient.updateBucket(UpdateBucketRequest.builder()
                 .namespaceName(svcData.getMetadata(NAMESPACE))
                 .bucketName(svcData.getMetadata(BUCKET_NAME))
-                .updateBucketDetails(details.build()).build());
+                .updateBucketDetails(details.build()).build()));
 
         ServiceInstanceAsyncOperation response = new ServiceInstanceAsyncOperation();
         response.setStatusCode(Response.Status.OK.getStatusCode());
@@ -234,9 +242,10 @@ public class ObjectStorageServiceAdapter implements ServiceAdapter {
     public AsyncOperation deleteServiceInstance(String instanceId,
                                                 String serviceDefinitionId, String planId, ServiceData svcData) {
         AsyncOperation response = new AsyncOperation();
-        objectStorageClient.deleteBucket(DeleteBucketRequest.builder()
+        WRITES.call(() -> objectStorageClient.deleteBucket(DeleteBucketRequest.builder()
                 .bucketName(svcData.getMetadata(BUCKET_NAME))
-                .namespaceName(svcData.getMetadata(NAMESPACE)).build());
+                .namespaceName(svcData.getMetadata(NAMESPACE)).build()));
+        preAuthIndex.removeBucket(svcData.getMetadata(NAMESPACE), svcData.getMetadata(BUCKET_NAME));
         response.setStatusCode(Response.Status.OK.getStatusCode());
 
         return response;
@@ -263,28 +272,12 @@ public class ObjectStorageServiceAdapter implements ServiceAdapter {
                             false);
             if (preAuthRequired != null && Boolean.parseBoolean(preAuthRequired)) {
 
-                ListPreauthenticatedRequestsRequest listPreAuth = ListPreauthenticatedRequestsRequest
-                        .builder()
-                        .bucketName(svcData.getMetadata(BUCKET_NAME))
-                        .namespaceName(svcData.getMetadata(NAMESPACE)).build();
-
-                ListPreauthenticatedRequestsResponse listResp =
-                        objectStorageClient.listPreauthenticatedRequests(listPreAuth);
-
-                Optional<PreauthenticatedRequestSummary> existingRequest =
-                        listResp.getItems().stream()
-                                .filter(item -> item.getName().equals(bindingId)).findFirst();
-
-                if (existingRequest.isPresent()) {
+                String namespace = svcData.getMetadata(NAMESPACE);
+                String bucketName = svcData.getMetadata(BUCKET_NAME);
+                for (String existingId : preAuthIndex.getIds(namespace, bucketName, bindingId)) {
                     // if it exist in opc and not in our store, it means the response could not be sent
                     // before storing in DB, so we need to delete the existing one first
-                    objectStorageClient.deletePreauthenticatedRequest(
-                            DeletePreauthenticatedRequestRequest.builder()
-                                    .parId(existingRequest.get().getId())
-                                    .bucketName(svcData.getMetadata(BUCKET_NAME))
-                                    .namespaceName(svcData.getMetadata(NAMESPACE))
-                                    .build());
-
+                    deletePreauthenticatedRequest(namespace, bucketName, bindingId, existingId);
                 }
 
                 String expiryTimeStr = RequestUtil
@@ -310,17 +303,18 @@ public class ObjectStorageServiceAdapter implements ServiceAdapter {
 
                 bldrPreAuth.timeExpires(expiryTime);
                 CreatePreauthenticatedRequestResponse preAuthResponse =
-                        objectStorageClient.createPreauthenticatedRequest(
+                        WRITES.call(() -> objectStorageClient.createPreauthenticatedRequest(
                                 CreatePreauthenticatedRequestRequest.builder()
                                         .createPreauthenticatedRequestDetails(bldrPreAuth.build())
                                         .bucketName(svcData.getMetadata(BUCKET_NAME))
                                         .namespaceName(svcData.getMetadata(NAMESPACE))
-                                        .build());
+                                        .build()));
 
                 PreauthenticatedRequest preAuth = preAuthResponse
                         .getPreauthenticatedRequest();
                 preAuthToken = preAuth.getAccessUri();
                 preAuthId = preAuth.getId();
+                preAuthIndex.add(namespace, bucketName, bindingId, preAuthId);
             }
         }
 
@@ -356,16 +350,33 @@ public class ObjectStorageServiceAdapter implements ServiceAdapter {
 
         String preAuthId = bindingData.getMetadata(PRE_AUTH_ID);
         if (preAuthId != null) {
-            objectStorageClient.deletePreauthenticatedRequest(
-                    DeletePreauthenticatedRequestRequest.builder()
-                            .parId(preAuthId)
-                            .bucketName(svcData.getMetadata(BUCKET_NAME))
-                            .namespaceName(svcData.getMetadata(NAMESPACE)).build());
+            deletePreauthenticatedRequest(svcData.getMetadata(NAMESPACE), svcData.getMetadata(BUCKET_NAME),
+                    bindingId, preAuthId);
         }
         response.setStatusCode(Response.Status.OK.getStatusCode());
         return response;
     }
 
+    /**
+     * Deletes a pre-authenticated request of a binding and drops it from the index. A request already gone, e.g.
+     * deleted by another replica of the broker or expired, counts as deleted.
+     */
+    private void deletePreauthenticatedRequest(String namespace, String bucketName, String bindingId, String parId) {
+        try {
+            WRITES.call(() -> objectStorageClient.deletePreauthenticatedRequest(
+                    DeletePreauthenticatedRequestRequest.builder()
+                            .parId(parId)
+                            .bucketName(bucketName)
+                            .namespaceName(namespace)
+                            .build()));
+        } catch (BmcException e) {
+            if (e.getStatusCode() != Response.Status.NOT_FOUND.getStatusCode()) {
+                throw e;
+            }
+        }
+        preAuthIndex.remove(namespace, bucketName, bindingId, parId);
+    }
+
     private BindingData getBindingData(String instanceId,
                                  String bindingId,
                                  ServiceBindingRequest request,
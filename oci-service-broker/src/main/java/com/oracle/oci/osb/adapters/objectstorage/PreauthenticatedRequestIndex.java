@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.adapters.objectstorage;
+
+import com.oracle.bmc.objectstorage.model.PreauthenticatedRequestSummary;
+import com.oracle.bmc.objectstorage.requests.ListPreauthenticatedRequestsRequest;
+import com.oracle.bmc.objectstorage.responses.ListPreauthenticatedRequestsResponse;
+import com.oracle.oci.osb.mbean.GaugeRegistry;
+import com.oracle.oci.osb.mbean.GaugeRegistry.Gauge;
+import com.oracle.oci.osb.util.Constants;
+import com.oracle.oci.osb.util.SingleFlight;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.oracle.oci.osb.util.Utils.debugLog;
+import static com.oracle.oci.osb.util.Utils.getLogger;
+
+/**
+ * PreauthenticatedRequestIndex keeps the ids of the pre-authenticated requests of the buckets the broker binds to,
+ * indexed by name, which is the binding id of the requests created by the broker. A bind then looks up the requests
+ * left by an earlier attempt instead of listing the bucket.
+ * <p>
+ * A bucket is listed, following all the pages, on first use and once its listing is older than
+ * {@link Constants#OBJECT_STORAGE_PAR_INDEX_TTL_SECONDS}; concurrent binds to the same bucket share a single listing.
+ * The requests created and deleted through the broker are applied to the index as soon as OCI accepts the call.
+ * Requests left by another replica of the broker, or by a create that timed out before its response was received, are
+ * not in the index though, so a lookup that finds nothing lists the bucket again: an orphaned request would otherwise
+ * stay valid until it expires.
+ */
+public class PreauthenticatedRequestIndex {
+
+    private static final Logger LOGGER = getLogger(PreauthenticatedRequestIndex.class);
+
+    private static final int DEFAULT_TTL_SECONDS = 300;
+
+    private static final int LIST_PAGE_SIZE = 1000;
+
+    private static final LongAdder listCount = new LongAdder();
+
+    private static final LongAdder avoidedListCount = new LongAdder();
+
+    static {
+        GaugeRegistry.register(Gauge.PAR_INDEX_LISTS, PreauthenticatedRequestIndex::getListCount);
+        GaugeRegistry.register(Gauge.PAR_INDEX_LISTS_AVOIDED, PreauthenticatedRequestIndex::getAvoidedListCount);
+    }
+
+    private final Map<String, BucketIndex> buckets = new ConcurrentHashMap<>();
+
+    private final SingleFlight<String, BucketIndex> loads = new SingleFlight<>(0);
+
+    private final Function<ListPreauthenticatedRequestsRequest, ListPreauthenticatedRequestsResponse> lister;
+
+    private final long ttlNanos;
+
+    /**
+     * @param lister lists a page of the pre-authenticated requests of a bucket.
+     */
+    PreauthenticatedRequestIndex(
+            Function<ListPreauthenticatedRequestsRequest, ListPreauthenticatedRequestsResponse> lister) {
+        this.lister = lister;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Integer.getInteger(Constants.OBJECT_STORAGE_PAR_INDEX_TTL_SECONDS,
+                DEFAULT_TTL_SECONDS));
+    }
+
+    /**
+     * @return the total number of pre-authenticated request listings made to fill the indexes.
+     */
+    public static long getListCount() {
+        return listCount.sum();
+    }
+
+    /**
+     * @return the total number of binds that found pre-authenticated requests of the binding in the index instead of
+     * listing the bucket.
+     */
+    public static long getAvoidedListCount() {
+        return avoidedListCount.sum();
+    }
+
+    /**
+     * Returns the ids of the pre-authenticated requests of a bucket with the given name. If the index has none, the
+     * bucket is listed again unless its index was listed for this lookup.
+     *
+     * @param namespace  namespace of the bucket.
+     * @param bucketName name of the bucket.
+     * @param name       name of the pre-authenticated requests.
+     * @return the ids of the matching requests, empty if none.
+     */
+    List<String> getIds(String namespace, String bucketName, String name) {
+        String key = key(namespace, bucketName);
+        BucketIndex index = buckets.get(key);
+        if (index == null || System.nanoTime() - index.loadedAt >= ttlNanos) {
+            return ids(load(key, namespace, bucketName), name);
+        }
+        List<String> ids = ids(index, name);
+        if (!ids.isEmpty()) {
+            avoidedListCount.increment();
+            return ids;
+        }
+        return ids(load(key, namespace, bucketName), name);
+    }
+
+    /**
+     * Adds a pre-authenticated request created in a bucket.
+     */
+    void add(String namespace, String bucketName, String name, String id) {
+        BucketIndex index = buckets.get(key(namespace, bucketName));
+        if (index != null) {
+            index.add(name, id);
+        }
+    }
+
+    /**
+     * Removes a pre-authenticated request deleted from a bucket.
+     */
+    void remove(String namespace, String bucketName, String name, String id) {
+        BucketIndex index = buckets.get(key(namespace, bucketName));
+        if (index != null) {
+            index.idsByName.computeIfPresent(name, (n, ids) -> {
+                synchronized (ids) {
+                    ids.remove(id);
+                    return ids.isEmpty() ? null : ids;
+                }
+            });
+        }
+    }
+
+    /**
+     * Drops the index of a deleted bucket.
+     */
+    void removeBucket(String namespace, String bucketName) {
+        buckets.remove(key(namespace, bucketName));
+    }
+
+    private static List<String> ids(BucketIndex index, String name) {
+        List<String> ids = index.idsByName.get(name);
+        if (ids == null) {
+            return Collections.emptyList();
+        }
+        synchronized (ids) {
+            return new ArrayList<>(ids);
+        }
+    }
+
+    private BucketIndex load(String key, String namespace, String bucketName) {
+        try {
+            return loads.execute(key, () -> {
+                BucketIndex loaded = list(namespace, bucketName);
+                buckets.put(key, loaded);
+                return loaded;
+            });
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private BucketIndex list(String namespace, String bucketName) {
+        BucketIndex index = new BucketIndex(System.nanoTime());
+        int count = 0;
+        String page = null;
+        do {
+            ListPreauthenticatedRequestsResponse response = lister.apply(ListPreauthenticatedRequestsRequest.builder()
+                    .namespaceName(namespace)
+                    .bucketName(bucketName)
+                    .limit(LIST_PAGE_SIZE)
+                    .page(page)
+                    .build());
+            listCount.increment();
+            for (PreauthenticatedRequestSummary summary : response.getItems()) {
+                index.add(summary.getName(), summary.getId());
+                count++;
+            }
+            page = response.getOpcNextPage();
+        } while (page != null);
+        debugLog(LOGGER, "Listed %s pre-authenticated requests in bucket %s", Level.FINE, count, bucketName);
+        return index;
+    }
+
+    private static String key(String namespace, String bucketName) {
+        return namespace + "/" + bucketName;
+    }
+
+    /**
+     * Pre-authenticated requests of a bucket.
+     */
+    private static class BucketIndex {
+
+        private final long loadedAt;
+
+        private final Map<String, List<String>> idsByName = new ConcurrentHashMap<>();
+
+        BucketIndex(long loadedAt) {
+            this.loadedAt = loadedAt;
+        }
+
+        void add(String name, String id) {
+            if (name == null || id == null) {
+                return;
+            }
+            idsByName.compute(name, (n, ids) -> {
+                List<String> updated = (ids != null) ? ids : new ArrayList<>(1);
+                synchronized (updated) {
+                    if (!updated.contains(id)) {
+                        updated.add(id);
+                    }
+                }
+                return updated;
+            });
+        }
+    }
+}
@@ -10,6 +10,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.oracle.oci.osb.adapter.ServiceAdapter;
 import com.oracle.oci.osb.model.*;
 import com.oracle.oci.osb.model.Error;
+import com.oracle.oci.osb.ociclient.OCIRateLimiter;
 import com.oracle.oci.osb.ociclient.SystemPropsAuthProvider;
 import com.oracle.oci.osb.store.BindingData;
 import com.oracle.oci.osb.store.ServiceData;
@@ -17,6 +18,7 @@ import com.oracle.oci.osb.util.BrokerHttpException;
 import com.oracle.oci.osb.util.Constants;
 import com.oracle.oci.osb.util.Errors;
 import com.oracle.oci.osb.util.RequestUtil;
+import com.oracle.bmc.model.BmcException;
 import com.oracle.bmc.streaming.StreamAdminClient;
 import com.oracle.bmc.streaming.model.CreateStreamDetails;
 import com.oracle.bmc.streaming.model.Stream;
@@ -24,14 +26,17 @@ import com.oracle.bmc.streaming.model.StreamSummary;
 import com.oracle.bmc.streaming.model.UpdateStreamDetails;
 import com.oracle.bmc.streaming.requests.*;
 import com.oracle.bmc.streaming.responses.CreateStreamResponse;
-import com.oracle.bmc.streaming.responses.ListStreamsResponse;
+import com.oracle.bmc.streaming.responses.UpdateStreamResponse;
 
 import javax.ws.rs.core.Response;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Predicate;
 import java.util.logging.Logger;
 
 import static com.oracle.oci.osb.util.Utils.getLogger;
@@ -48,15 +53,22 @@ public class OSSServiceAdapter implements ServiceAdapter {
     private static final String STREAM_ID = "streamId";
     private static final String MESSAGE_ENDPOINT = "messageEndpoint";
 
+    private static final OCIRateLimiter READS = OCIRateLimiter.get("streaming", OCIRateLimiter.Kind.READ);
+
+    private static final OCIRateLimiter WRITES = OCIRateLimiter.get("streaming", OCIRateLimiter.Kind.WRITE);
+
     private StreamAdminClient streamAdminClient;
 
+    private final StreamInventory inventory;
+
     private Catalog catalog = null;
 
 
     public OSSServiceAdapter() {
         super();
-        streamAdminClient = StreamAdminClient.builder().build(new SystemPropsAuthProvider().getAuthProvider());
+        streamAdminClient = SystemPropsAuthProvider.getInstance().buildClient(StreamAdminClient.builder());
         streamAdminClient.setRegion(System.getProperty(Constants.REGION_ID));
+        inventory = new StreamInventory(request -> READS.call(() -> streamAdminClient.listStreams(request)));
     }
 
     @Override
@@ -74,8 +86,8 @@ public class OSSServiceAdapter implements ServiceAdapter {
         String ocID = RequestUtil.getNonEmptyStringParameter(mapParameters, Constants.OCID);
         Stream stream = null;
         try {
-            stream = streamAdminClient
-                    .getStream(GetStreamRequest.builder().streamId(ocID).build())
+            stream = READS.call(() -> streamAdminClient
+                    .getStream(GetStreamRequest.builder().streamId(ocID).build()))
                     .getStream();
         } catch (Exception e) {
             return ServiceInstanceStatus.DOESNOTEXIST;
@@ -93,10 +105,8 @@ public class OSSServiceAdapter implements ServiceAdapter {
     private ServiceInstanceStatus getOciServiceInstanceStatusForProvisioning(String instanceId, Map mapParameters ) {
         String streamName = RequestUtil.getNonEmptyStringParameter(mapParameters, Constants.NAME);
         String compartmentId = RequestUtil.getNonEmptyStringParameter(mapParameters, Constants.COMPARTMENT_ID);
-        ListStreamsResponse listResponse = streamAdminClient.listStreams(ListStreamsRequest.builder()
-                .compartmentId(compartmentId).build());
-        Optional<StreamSummary> summary = listResponse.getItems().stream()
-                .filter(item -> item.getName().equals(streamName) && item.getLifecycleState() != StreamSummary.LifecycleState.Deleted).findFirst();
+        Optional<StreamSummary> summary = findStream(inventory.getByName(compartmentId, streamName), compartmentId,
+                streamName, item -> true);
         if (summary.isPresent()) {
             StreamSummary stream = summary.get();
             Map<String, String> freeFormTagsExisting = stream.getFreeformTags();
@@ -137,22 +147,21 @@ public class OSSServiceAdapter implements ServiceAdapter {
             String compartmentId = RequestUtil
                     .getNonEmptyStringParameter(mapParameters, Constants.COMPARTMENT_ID);
 
-            ListStreamsResponse listResponse = streamAdminClient.listStreams(ListStreamsRequest.builder()
-                    .compartmentId(compartmentId).build());
-            Optional<StreamSummary> summary = listResponse.getItems().stream()
-                    .filter(item -> item.getName().equals(streamName)).findFirst();
+            StreamSummary stream = findStream(inventory.getByInstanceId(compartmentId, instanceId), compartmentId,
+                    streamName, item -> item.getFreeformTags() != null
+                            && instanceId.equals(item.getFreeformTags().get(Constants.OSB_INSTANCE_ID_LABEL)))
+                    .orElseThrow(Errors::instanceDoesNotExistException);
 
-            StreamSummary stream = summary.get();
             int statusCode = stream.getLifecycleState() == StreamSummary.LifecycleState.Active
                     ? Response.Status.OK.getStatusCode()
                     : Response.Status.ACCEPTED.getStatusCode();
             response.setStatusCode(statusCode);
-            response.setSvcData(getSvcData(instanceId, body, compartmentId, summary.get().getId(), isProvisioningRequired));
+            response.setSvcData(getSvcData(instanceId, body, compartmentId, stream.getId(), isProvisioningRequired));
             return response;
         } else {
             String ocID = RequestUtil.getNonEmptyStringParameter(mapParameters, Constants.OCID);
-            Stream stream = streamAdminClient
-                    .getStream(GetStreamRequest.builder().streamId(ocID).build())
+            Stream stream = READS.call(() -> streamAdminClient
+                    .getStream(GetStreamRequest.builder().streamId(ocID).build()))
                     .getStream();
             int statusCode = stream.getLifecycleState() == Stream.LifecycleState.Active
                     ? Response.Status.OK.getStatusCode()
@@ -198,9 +207,13 @@ public class OSSServiceAdapter implements ServiceAdapter {
             createStreamBuilder.compartmentId(compartmentId);
         }
 
-        CreateStreamResponse createResponse = streamAdminClient.createStream(CreateStreamRequest.builder()
-                .createStreamDetails(createStreamBuilder.build()).build());
+        CreateStreamDetails createStreamDetails = createStreamBuilder.build();
+        CreateStreamResponse createResponse = WRITES.call(() -> streamAdminClient.createStream(
+                CreateStreamRequest.builder().createStreamDetails(createStreamDetails)
+                        .opcRetryToken(OCIRateLimiter.retryToken("createStream", instanceId, createStreamDetails))
+                        .build()));
 
+        inventory.put(createResponse.getStream());
         response.setSvcData(getSvcData(instanceId, body, compartmentId, createResponse.getStream().getId(), true));
 
         response.setStatusCode(Response.Status.ACCEPTED.getStatusCode());
@@ -223,8 +236,10 @@ public class OSSServiceAdapter implements ServiceAdapter {
         UpdateStreamDetails updateStreamDetails =
                 UpdateStreamDetails.builder().definedTags(definedTags).freeformTags(freeFormTags).build();
 
-        streamAdminClient.updateStream(UpdateStreamRequest.builder().updateStreamDetails(updateStreamDetails)
-                .streamId(svcData.getOcid()).build());
+        UpdateStreamResponse updateResponse = WRITES.call(() -> streamAdminClient.updateStream(
+                UpdateStreamRequest.builder().updateStreamDetails(updateStreamDetails).streamId(svcData.getOcid())
+                        .build()));
+        inventory.put(updateResponse.getStream());
 
         ServiceInstanceAsyncOperation response = new ServiceInstanceAsyncOperation();
         response.setStatusCode(Response.Status.OK.getStatusCode());
@@ -240,8 +255,8 @@ public class OSSServiceAdapter implements ServiceAdapter {
         LastOperationResource response = new LastOperationResource();
         if (operation.equals(Constants.PROVISION_OPERATION)) {
             String streamOcid = svcData.getOcid();
-            Stream stream = streamAdminClient
-                    .getStream(GetStreamRequest.builder().streamId(streamOcid).build())
+            Stream stream = READS.call(() -> streamAdminClient
+                    .getStream(GetStreamRequest.builder().streamId(streamOcid).build()))
                     .getStream();
             switch (stream.getLifecycleState()) {
                 case Active:
@@ -260,8 +275,8 @@ public class OSSServiceAdapter implements ServiceAdapter {
 
         } else if (operation.equals(Constants.DELETE_OPERATION)) {
             String streamOcid = svcData.getOcid();
-            Stream stream = streamAdminClient
-                    .getStream(GetStreamRequest.builder().streamId(streamOcid).build())
+            Stream stream = READS.call(() -> streamAdminClient
+                    .getStream(GetStreamRequest.builder().streamId(streamOcid).build()))
                     .getStream();
             switch (stream.getLifecycleState()) {
                 case Deleted:
@@ -299,7 +314,8 @@ public class OSSServiceAdapter implements ServiceAdapter {
                 DeleteStreamRequest.builder()
                         .streamId(ocid)
                         .build();
-        streamAdminClient.deleteStream(deleteStreamRequest);
+        WRITES.call(() -> streamAdminClient.deleteStream(deleteStreamRequest));
+        inventory.remove(ocid);
         AsyncOperation response = new AsyncOperation();
         response.setStatusCode(Response.Status.ACCEPTED.getStatusCode());
         response.setOperation(Constants.DELETE_OPERATION);
@@ -378,6 +394,60 @@ public class OSSServiceAdapter implements ServiceAdapter {
     }
 
 
+    /**
+     * Finds a stream with the given name among the streams found in the inventory, once confirmed with OCI. If none
+     * is, the streams with the name are listed, as the stream may have been created by another replica of the broker
+     * since the inventory was listed.
+     *
+     * @param listed        streams found in the inventory.
+     * @param compartmentId OCID of the compartment of the stream.
+     * @param streamName    name of the stream.
+     * @param match         condition the stream must meet besides its name.
+     * @return the stream, empty if none.
+     */
+    private Optional<StreamSummary> findStream(List<StreamSummary> listed, String compartmentId, String streamName,
+                                               Predicate<StreamSummary> match) {
+        Optional<StreamSummary> stream = listed.stream()
+                .filter(item -> streamName.equals(item.getName()) && match.test(item)
+                        && item.getLifecycleState() != StreamSummary.LifecycleState.Deleted)
+                .map(this::confirm).filter(Objects::nonNull).findFirst();
+        if (stream.isPresent()) {
+            return stream;
+        }
+        return inventory.listByName(compartmentId, streamName).stream()
+                .filter(item -> match.test(item)
+                        && item.getLifecycleState() != StreamSummary.LifecycleState.Deleting
+                        && item.getLifecycleState() != StreamSummary.LifecycleState.Deleted)
+                .findFirst();
+    }
+
+    /**
+     * Reads again a stream found in the inventory, as it may have been deleted or updated by another replica of the
+     * broker since it was listed. The inventory is updated with the stream read.
+     *
+     * @param listed stream found in the inventory.
+     * @return the stream, null if it is gone or being deleted.
+     */
+    private StreamSummary confirm(StreamSummary listed) {
+        Stream stream;
+        try {
+            stream = READS.call(() -> streamAdminClient.getStream(GetStreamRequest.builder()
+                    .streamId(listed.getId()).build())).getStream();
+        } catch (BmcException e) {
+            if (e.getStatusCode() == Response.Status.NOT_FOUND.getStatusCode()) {
+                inventory.remove(listed.getId());
+                return null;
+            }
+            throw e;
+        }
+        inventory.put(stream);
+        if (stream.getLifecycleState() == Stream.LifecycleState.Deleting
+                || stream.getLifecycleState() == Stream.LifecycleState.Deleted) {
+            return null;
+        }
+        return StreamInventory.toSummary(stream);
+    }
+
     private boolean sameInstance(StreamSummary stream, Map mapParameters) {
         Integer partitions = RequestUtil.getIntegerParameter(mapParameters, PARTITIONS, true);
         if (!stream.getPartitions().equals(partitions)) {
@@ -387,7 +457,8 @@ public class OSSServiceAdapter implements ServiceAdapter {
     }
 
     private void getStreamMessageEndpoint(String ocid, Map<String, String> credMap) {
-        Stream stream = streamAdminClient.getStream(GetStreamRequest.builder().streamId(ocid).build()).getStream();
+        Stream stream = READS.call(() -> streamAdminClient.getStream(GetStreamRequest.builder().streamId(ocid)
+                .build())).getStream();
         if (stream != null) {
             credMap.put(MESSAGE_ENDPOINT, stream.getMessagesEndpoint());
         }
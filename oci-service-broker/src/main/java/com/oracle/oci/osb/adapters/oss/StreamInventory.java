@@ -0,0 +1,306 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.adapters.oss;
+
+import com.oracle.bmc.streaming.model.Stream;
+import com.oracle.bmc.streaming.model.StreamSummary;
+import com.oracle.bmc.streaming.requests.ListStreamsRequest;
+import com.oracle.bmc.streaming.responses.ListStreamsResponse;
+import com.oracle.oci.osb.util.Constants;
+import com.oracle.oci.osb.util.SingleFlight;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.oracle.oci.osb.util.Utils.debugLog;
+import static com.oracle.oci.osb.util.Utils.getLogger;
+
+/**
+ * StreamInventory keeps the streams of the compartments the broker provisions into, indexed by name and by the
+ * {@link Constants#OSB_INSTANCE_ID_LABEL} tag, so that the existence checks made on provision are lookups rather than
+ * listings of the compartment.
+ * <p>
+ * A compartment is listed in full, following all the pages, on first use and once its listing is older than
+ * {@link Constants#OSS_INVENTORY_FULL_REFRESH_SECONDS}. In between, once the inventory is older than
+ * {@link Constants#OSS_INVENTORY_TTL_SECONDS}, only the streams created since the last listing are fetched, newest
+ * first, stopping at the first page reaching back before the last listing. Concurrent requests for the same
+ * compartment share a single listing. The streams created, updated or deleted through the broker are applied to the
+ * inventory as soon as OCI accepts the call. Other replicas of the broker do not update this inventory, so the
+ * streams found in it are read again before being relied on, and a stream not found in it is looked up by name.
+ */
+class StreamInventory {
+
+    private static final Logger LOGGER = getLogger(StreamInventory.class);
+
+    private static final int DEFAULT_TTL_SECONDS = 30;
+
+    private static final int DEFAULT_FULL_REFRESH_SECONDS = 600;
+
+    private static final int LIST_PAGE_SIZE = 50;
+
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    private final SingleFlight<String, Snapshot> loads = new SingleFlight<>(0);
+
+    private final Function<ListStreamsRequest, ListStreamsResponse> lister;
+
+    private final long ttlNanos;
+
+    private final long fullRefreshNanos;
+
+    /**
+     * @param lister lists a page of streams.
+     */
+    StreamInventory(Function<ListStreamsRequest, ListStreamsResponse> lister) {
+        this.lister = lister;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Integer.getInteger(Constants.OSS_INVENTORY_TTL_SECONDS,
+                DEFAULT_TTL_SECONDS));
+        this.fullRefreshNanos = TimeUnit.SECONDS.toNanos(Integer.getInteger(
+                Constants.OSS_INVENTORY_FULL_REFRESH_SECONDS, DEFAULT_FULL_REFRESH_SECONDS));
+    }
+
+    /**
+     * Returns the streams of a compartment with the given name.
+     *
+     * @param compartmentId OCID of the compartment.
+     * @param name          name of the stream.
+     * @return the matching streams, empty if none.
+     */
+    List<StreamSummary> getByName(String compartmentId, String name) {
+        return get(compartmentId).byName.getOrDefault(name, Collections.emptyList());
+    }
+
+    /**
+     * Returns the streams of a compartment tagged with the given broker instance id.
+     *
+     * @param compartmentId OCID of the compartment.
+     * @param instanceId    broker instance id.
+     * @return the matching streams, empty if none.
+     */
+    List<StreamSummary> getByInstanceId(String compartmentId, String instanceId) {
+        return get(compartmentId).byInstanceId.getOrDefault(instanceId, Collections.emptyList());
+    }
+
+    /**
+     * Lists the streams of a compartment with the given name, for a lookup that found none in the inventory. The
+     * streams listed are applied to the inventory.
+     *
+     * @param compartmentId OCID of the compartment.
+     * @param name          name of the stream.
+     * @return the matching streams, empty if none.
+     */
+    List<StreamSummary> listByName(String compartmentId, String name) {
+        List<StreamSummary> streams = new ArrayList<>();
+        String page = null;
+        do {
+            ListStreamsResponse response = lister.apply(ListStreamsRequest.builder()
+                    .compartmentId(compartmentId)
+                    .name(name)
+                    .limit(LIST_PAGE_SIZE)
+                    .page(page)
+                    .build());
+            streams.addAll(response.getItems());
+            page = response.getOpcNextPage();
+        } while (page != null);
+        for (StreamSummary stream : streams) {
+            snapshots.computeIfPresent(compartmentId, (c, snapshot) -> snapshot.with(stream));
+        }
+        return streams;
+    }
+
+    /**
+     * Adds a stream created through the broker, or replaces it after it was updated.
+     */
+    void put(Stream stream) {
+        if (stream == null || stream.getCompartmentId() == null) {
+            return;
+        }
+        StreamSummary summary = toSummary(stream);
+        snapshots.computeIfPresent(stream.getCompartmentId(), (c, snapshot) -> snapshot.with(summary));
+    }
+
+    /**
+     * Removes a stream deleted through the broker, from whichever compartment it was listed in.
+     */
+    void remove(String streamId) {
+        for (String compartmentId : snapshots.keySet()) {
+            snapshots.computeIfPresent(compartmentId, (c, snapshot) ->
+                    snapshot.byId.containsKey(streamId) ? snapshot.without(streamId) : snapshot);
+        }
+    }
+
+    private Snapshot get(String compartmentId) {
+        Snapshot snapshot = snapshots.get(compartmentId);
+        long now = System.nanoTime();
+        if (snapshot != null && now - snapshot.refreshedAt < ttlNanos) {
+            return snapshot;
+        }
+        try {
+            return loads.execute(compartmentId, () -> {
+                Snapshot current = snapshots.get(compartmentId);
+                Snapshot loaded = (current == null || System.nanoTime() - current.listedAt >= fullRefreshNanos)
+                        ? list(compartmentId) : refresh(compartmentId, current);
+                snapshots.put(compartmentId, loaded);
+                return loaded;
+            });
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Snapshot list(String compartmentId) {
+        long now = System.nanoTime();
+        Map<String, StreamSummary> byId = new HashMap<>();
+        int pages = 0;
+        String page = null;
+        do {
+            ListStreamsResponse response = lister.apply(newRequest(compartmentId, page));
+            for (StreamSummary stream : response.getItems()) {
+                byId.put(stream.getId(), stream);
+            }
+            page = response.getOpcNextPage();
+            pages++;
+        } while (page != null);
+        debugLog(LOGGER, "Listed %s streams in compartment %s in %s pages", Level.FINE, byId.size(), compartmentId,
+                pages);
+        return new Snapshot(now, now, newestCreated(byId.values(), null), byId);
+    }
+
+    /**
+     * Fetches the streams created since the snapshot was listed.
+     */
+    private Snapshot refresh(String compartmentId, Snapshot snapshot) {
+        long now = System.nanoTime();
+        Map<String, StreamSummary> byId = new HashMap<>(snapshot.byId);
+        List<StreamSummary> fetched = new ArrayList<>();
+        String page = null;
+        do {
+            ListStreamsResponse response = lister.apply(newRequest(compartmentId, page));
+            boolean reachedKnown = false;
+            for (StreamSummary stream : response.getItems()) {
+                byId.put(stream.getId(), stream);
+                fetched.add(stream);
+                if (snapshot.newestCreated != null && stream.getTimeCreated() != null
+                        && stream.getTimeCreated().before(snapshot.newestCreated)) {
+                    reachedKnown = true;
+                }
+            }
+            page = reachedKnown ? null : response.getOpcNextPage();
+        } while (page != null);
+        debugLog(LOGGER, "Refreshed %s streams in compartment %s", Level.FINE, fetched.size(), compartmentId);
+        return new Snapshot(snapshot.listedAt, now, newestCreated(fetched, snapshot.newestCreated), byId);
+    }
+
+    private static Date newestCreated(Iterable<StreamSummary> streams, Date newest) {
+        for (StreamSummary stream : streams) {
+            Date created = stream.getTimeCreated();
+            if (created != null && (newest == null || created.after(newest))) {
+                newest = created;
+            }
+        }
+        return newest;
+    }
+
+    private static ListStreamsRequest newRequest(String compartmentId, String page) {
+        return ListStreamsRequest.builder()
+                .compartmentId(compartmentId)
+                .sortBy(ListStreamsRequest.SortBy.Timecreated)
+                .sortOrder(ListStreamsRequest.SortOrder.Desc)
+                .limit(LIST_PAGE_SIZE)
+                .page(page)
+                .build();
+    }
+
+    static StreamSummary toSummary(Stream stream) {
+        return StreamSummary.builder()
+                .id(stream.getId())
+                .name(stream.getName())
+                .partitions(stream.getPartitions())
+                .compartmentId(stream.getCompartmentId())
+                .streamPoolId(stream.getStreamPoolId())
+                .messagesEndpoint(stream.getMessagesEndpoint())
+                .freeformTags(stream.getFreeformTags())
+                .definedTags(stream.getDefinedTags())
+                .lifecycleState((stream.getLifecycleState() != null)
+                        ? StreamSummary.LifecycleState.valueOf(stream.getLifecycleState().name()) : null)
+                .timeCreated(stream.getTimeCreated())
+                .build();
+    }
+
+    /**
+     * Immutable view of the streams of a compartment.
+     */
+    private static class Snapshot {
+
+        /**
+         * When the compartment was last listed in full.
+         */
+        private final long listedAt;
+
+        /**
+         * When the streams created since the last listing were last fetched.
+         */
+        private final long refreshedAt;
+
+        private final Map<String, StreamSummary> byId;
+
+        private final Map<String, List<StreamSummary>> byName = new HashMap<>();
+
+        private final Map<String, List<StreamSummary>> byInstanceId = new HashMap<>();
+
+        /**
+         * Creation time of the newest stream listed, the streams created by the broker since are not counted as they
+         * may have been created after streams not listed yet.
+         */
+        private final Date newestCreated;
+
+        Snapshot(long listedAt, long refreshedAt, Date newestCreated, Map<String, StreamSummary> byId) {
+            this.listedAt = listedAt;
+            this.refreshedAt = refreshedAt;
+            this.newestCreated = newestCreated;
+            this.byId = byId;
+            for (StreamSummary stream : byId.values()) {
+                Map<String, String> tags = stream.getFreeformTags();
+                String instanceId = (tags != null) ? tags.get(Constants.OSB_INSTANCE_ID_LABEL) : null;
+                if (instanceId != null) {
+                    byInstanceId.computeIfAbsent(instanceId, k -> new ArrayList<>(1)).add(stream);
+                }
+                if (stream.getName() != null) {
+                    byName.computeIfAbsent(stream.getName(), k -> new ArrayList<>(1)).add(stream);
+                }
+            }
+        }
+
+        /**
+         * Returns a copy of the snapshot with the stream added or replaced.
+         */
+        Snapshot with(StreamSummary stream) {
+            Map<String, StreamSummary> copy = new HashMap<>(byId);
+            copy.put(stream.getId(), stream);
+            return new Snapshot(listedAt, refreshedAt, newestCreated, copy);
+        }
+
+        /**
+         * Returns a copy of the snapshot without the stream.
+         */
+        Snapshot without(String streamId) {
+            Map<String, StreamSummary> copy = new HashMap<>(byId);
+            copy.remove(streamId);
+            return new Snapshot(listedAt, refreshedAt, newestCreated, copy);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oracle.oci.osb.util.Constants;
+import com.oracle.oci.osb.util.Utils;
+import org.glassfish.jersey.SslConfigurator;
+
+import javax.net.ssl.SSLContext;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.KeyStore;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import static com.oracle.oci.osb.util.Utils.getLogger;
+
+/**
+ * CommonTags are the free-form tags added by the adapters to every service they provision: the tags given as
+ * {@link Constants#SERVICE_TAG} system properties, the broker as creator and, when the broker runs in OKE, the id of
+ * the cluster read from the Kubernetes node API. The node API is called once, on the first call to {@link #get()},
+ * which the broker makes while starting up.
+ */
+public class CommonTags {
+
+    private static final Logger LOGGER = getLogger(CommonTags.class);
+
+    private static volatile Map<String, String> commonTags;
+
+    /**
+     * @return the common tags.
+     */
+    public static Map<String, String> get() {
+        Map<String, String> tags = commonTags;
+        if (tags == null) {
+            synchronized (CommonTags.class) {
+                tags = commonTags;
+                if (tags == null) {
+                    tags = Collections.unmodifiableMap(build());
+                    commonTags = tags;
+                }
+            }
+        }
+        return tags;
+    }
+
+    //Build Common Tags that should be added by adapters for Service they provision.
+    private static Map<String, String> build() {
+        Map<String, String> commonTags = new HashMap<>(System.getProperties().entrySet().stream()
+                .filter(e -> ((String) e.getKey()).startsWith(Constants.SERVICE_TAG))
+                .collect(Collectors.toMap(
+                        e -> ((String) e.getKey()).substring(Constants.SERVICE_TAG.length()),
+                        e -> (String) e.getValue())));
+        commonTags.put(Constants.CREATED_BY, Constants.OCI_OSB_BROKER);
+
+        String clusterId = commonTags.get(Constants.CLUSTER_ID_TAG);
+
+        // only get the label from kubernetes if all the required parameters are present
+        if (!commonTags.containsKey(Constants.CLUSTER_ID_TAG)) {
+
+            String tokenFile = System.getProperty(Constants.KUBERNETES_BEARER_API_TOKEN_FILE);
+            String apiHost = System.getenv(Constants.KUBERNETES_SERVICE_HOST);
+            String port = System.getenv(Constants.KUBERNETES_SERVICE_PORT);
+            String nodeName = System.getenv(Constants.NODE_NAME);
+            String apiCaCert = System.getProperty(Constants.API_SERVER_CA_CERT);
+            if (tokenFile != null && apiHost != null &&  port != null && nodeName != null && !Utils
+                    .isNullOrEmptyString(apiCaCert) && Files.isReadable(Paths.get(apiCaCert))){
+                try {
+                    SslConfigurator sslConfig = SslConfigurator.newInstance();
+                    sslConfig.trustStore(getTrustStoreWithApiCaCerts(apiCaCert));
+                    SSLContext sslContext = sslConfig.createSSLContext();
+                    Client client = ClientBuilder.newBuilder().sslContext(sslContext).build();
+
+                    WebTarget webTarget
+                            = client.target(String.format(Constants.NODE_API, apiHost, port, nodeName));
+                    Invocation.Builder invocationBuilder =
+                            webTarget.request(MediaType.APPLICATION_JSON);
+                    String bearerToken = new String(Files.readAllBytes(
+                            Paths.get(tokenFile)),
+                            Constants.CHARSET_UTF8);
+                    invocationBuilder.header(Constants.AUTHORIZATION_HEADER,
+                            Constants.AUTHORIZATION_BEARER + " " + bearerToken);
+                    Response response = invocationBuilder.get();
+                    String entity = response.readEntity(String.class);
+                    ObjectMapper objMapper = new ObjectMapper();
+                    Map responseMap = objMapper.readValue(entity, Map.class);
+                    String nodeDisplayName = ((String) ((Map) ((Map) responseMap.get(Constants.K8S_METADATA))
+                            .get(Constants.K8S_LABELS))
+                            .get(Constants.K8S_DISPLAYNAME));
+
+                    if (nodeDisplayName.startsWith(Constants.OKE_PREFIX)) {
+                        clusterId = nodeDisplayName.split("-")[1];
+                        commonTags.put(Constants.CLUSTER_ID_TAG, clusterId);
+                    }
+                } catch (Exception e) {
+                    LOGGER.log(Level.WARNING, "Exception occurred while getting cluster id for OKE", e);
+                }
+            }
+        }
+        if(clusterId != null){
+            System.setProperty(Constants.CLUSTER_ID_TAG, clusterId);
+        }
+        return commonTags;
+    }
+
+    private static KeyStore getTrustStoreWithApiCaCerts(String apiServerCaCert) throws Exception {
+        BufferedInputStream caCertStream = new BufferedInputStream(new FileInputStream(apiServerCaCert));
+        X509Certificate caCert = (X509Certificate) CertificateFactory.getInstance("X.509")
+                .generateCertificate(caCertStream);
+        KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+        keyStore.load(null, null);
+        keyStore.setCertificateEntry("apicacert", caCert);
+        return keyStore;
+    }
+}
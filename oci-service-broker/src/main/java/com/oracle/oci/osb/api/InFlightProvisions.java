@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.oracle.oci.osb.model.AbstractResponse;
+import com.oracle.oci.osb.model.ServiceInstanceProvision;
+import com.oracle.oci.osb.model.ServiceInstanceProvisionRequest;
+import com.oracle.oci.osb.store.DataStore;
+import com.oracle.oci.osb.store.Lease;
+import com.oracle.oci.osb.store.ServiceData;
+import com.oracle.oci.osb.util.Constants;
+import com.oracle.oci.osb.util.Errors;
+import com.oracle.oci.osb.util.SingleFlight;
+
+import javax.ws.rs.core.Response;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.oracle.oci.osb.util.Utils.debugLog;
+import static com.oracle.oci.osb.util.Utils.getLogger;
+
+/**
+ * InFlightProvisions keeps a provision request retried by the platform from being processed again while the original
+ * request is still in progress. Requests are identified by the instance id and a hash of the request body:
+ * <ul>
+ * <li>a duplicate of a request in progress on this broker joins it and gets the same response;</li>
+ * <li>each request holds a {@link Lease} on the instance in the {@link DataStore} while in progress, so a duplicate
+ * received by another broker sharing the store waits for the lease to be released, and then answers from the
+ * instance stored by the original request, or processes the request itself if the original failed;</li>
+ * <li>a request for an instance with a provision of different parameters in progress is rejected with 409
+ * (Conflict).</li>
+ * </ul>
+ * The lease expires after {@link Constants#PROVISION_DEDUP_LEASE_SECONDS}, so a broker that stopped while processing
+ * a request does not block its retries for longer.
+ */
+class InFlightProvisions {
+
+    private static final Logger LOGGER = getLogger(InFlightProvisions.class);
+
+    private static final int DEFAULT_LEASE_SECONDS = 300;
+
+    private static final long LEASE_POLL_MILLIS = 1000;
+
+    private static final String LEASE_PREFIX = "provision-";
+
+    /**
+     * Polls the leases held by the other brokers.
+     */
+    private static final ScheduledExecutorService leasePolls = createLeasePollScheduler();
+
+    private final SingleFlight<String, AbstractResponse> provisions = new SingleFlight<>(0);
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    private final DataStore dataStore;
+
+    /**
+     * Identifies this broker as the owner of the leases it takes.
+     */
+    private final String owner;
+
+    private final long leaseMillis;
+
+    InFlightProvisions(DataStore dataStore) {
+        this.dataStore = dataStore;
+        String podName = System.getenv(Constants.POD_NAME);
+        this.owner = ((podName != null) ? podName + "-" : "") + UUID.randomUUID();
+        this.leaseMillis = TimeUnit.SECONDS.toMillis(Integer.getInteger(Constants.PROVISION_DEDUP_LEASE_SECONDS,
+                DEFAULT_LEASE_SECONDS));
+    }
+
+    /**
+     * Processes a provision request, unless the same request is already in progress.
+     *
+     * @param instanceId        instance to provision.
+     * @param body              provision request.
+     * @param acceptsIncomplete whether the client accepts an asynchronous provision.
+     * @param asyncProvision    whether the service provisions asynchronously.
+     * @param provision         processes the request.
+     * @param executor          runs the request continuations in the scope of the request.
+     * @return stage completed with the response to the request.
+     */
+    CompletionStage<AbstractResponse> execute(String instanceId, ServiceInstanceProvisionRequest body,
+                                              boolean acceptsIncomplete, boolean asyncProvision,
+                                              Callable<CompletionStage<? extends AbstractResponse>> provision,
+                                              Executor executor) {
+        String token;
+        try {
+            token = hash(body);
+        } catch (JsonProcessingException e) {
+            LOGGER.log(Level.WARNING, "Provision request of instance " + instanceId + " cannot be hashed", e);
+            return call(provision);
+        }
+        return provisions.executeAsync(instanceId + "/" + token,
+                () -> leased(instanceId, token, acceptsIncomplete, asyncProvision, provision, executor));
+    }
+
+    private CompletionStage<AbstractResponse> leased(String instanceId, String token, boolean acceptsIncomplete,
+                                                     boolean asyncProvision,
+                                                     Callable<CompletionStage<? extends AbstractResponse>> provision,
+                                                     Executor executor) {
+        String name = LEASE_PREFIX + instanceId;
+        Lease lease = new Lease(owner, token, System.currentTimeMillis() + leaseMillis);
+        Lease holder;
+        try {
+            holder = dataStore.acquireLease(name, lease);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Provision lease of instance " + instanceId + " could not be acquired", e);
+            return call(provision);
+        }
+        if (holder == lease) {
+            return call(provision).whenComplete((response, e) -> release(name, lease));
+        }
+        if (!token.equals(holder.getToken())) {
+            return CompletableFuture.failedFuture(Errors.provisionInProgressWithDifferentParameters());
+        }
+        debugLog(LOGGER, "Provision of instance %s is in progress on %s", Level.FINE, instanceId, holder.getOwner());
+        return awaitRelease(name, holder).thenComposeAsync(released -> {
+            ServiceData svcData = dataStore.getServiceData(instanceId);
+            if (svcData == null) {
+                // the original request failed, process this one
+                return leased(instanceId, token, acceptsIncomplete, asyncProvision, provision, executor);
+            }
+            if (asyncProvision && !acceptsIncomplete) {
+                return CompletableFuture.<AbstractResponse>failedFuture(Errors.asyncRequired());
+            }
+            // answered as the original request was: accepted by an asynchronous service, done by a synchronous one
+            ServiceInstanceProvision response = new ServiceInstanceProvision();
+            if (asyncProvision) {
+                response.setStatusCode(Response.Status.ACCEPTED.getStatusCode());
+                response.setOperation(Constants.PROVISION_OPERATION);
+            } else {
+                response.setStatusCode(Response.Status.OK.getStatusCode());
+            }
+            response.setSvcData(svcData);
+            return CompletableFuture.<AbstractResponse>completedFuture(response);
+        }, executor);
+    }
+
+    /**
+     * @return stage completed once the lease is released or taken over, or has expired.
+     */
+    private CompletionStage<Void> awaitRelease(String name, Lease holder) {
+        CompletableFuture<Void> released = new CompletableFuture<>();
+        pollLease(name, holder, released);
+        return released;
+    }
+
+    private void pollLease(String name, Lease holder, CompletableFuture<Void> released) {
+        leasePolls.schedule(() -> {
+            try {
+                if (holder.isSameAs(dataStore.getLease(name))) {
+                    pollLease(name, holder, released);
+                } else {
+                    released.complete(null);
+                }
+            } catch (RuntimeException e) {
+                released.completeExceptionally(e);
+            }
+        }, LEASE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void release(String name, Lease lease) {
+        try {
+            dataStore.releaseLease(name, lease);
+        } catch (RuntimeException e) {
+            // the lease expires by itself
+            LOGGER.log(Level.WARNING, "Lease " + name + " could not be released", e);
+        }
+    }
+
+    private String hash(ServiceInstanceProvisionRequest body) throws JsonProcessingException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    digest.digest(objectMapper.writeValueAsBytes(body)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompletionStage<AbstractResponse> call(
+            Callable<CompletionStage<? extends AbstractResponse>> provision) {
+        try {
+            return (CompletionStage<AbstractResponse>) provision.call();
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static ScheduledExecutorService createLeasePollScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "osb-provision-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+}
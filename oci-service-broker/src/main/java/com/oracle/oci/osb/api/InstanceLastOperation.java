@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.api;
+
+import com.oracle.oci.osb.model.LastOperationResource;
+import com.oracle.oci.osb.store.ServiceData;
+
+/**
+ * State of the last operation of a service instance, along with the instance data it was looked up for. Shared by
+ * the last_operation polls that are answered by the same lookup.
+ */
+class InstanceLastOperation {
+
+    private final ServiceData svcData;
+
+    private final LastOperationResource response;
+
+    InstanceLastOperation(ServiceData svcData, LastOperationResource response) {
+        this.svcData = svcData;
+        this.response = response;
+    }
+
+    ServiceData getSvcData() {
+        return svcData;
+    }
+
+    LastOperationResource getResponse() {
+        return response;
+    }
+}
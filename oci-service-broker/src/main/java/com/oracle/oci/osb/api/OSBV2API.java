@@ -5,44 +5,53 @@
 
 package com.oracle.oci.osb.api;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.oracle.bmc.model.BmcException;
+import com.oracle.oci.osb.adapter.AsyncServiceAdapter;
+import com.oracle.oci.osb.adapter.BulkheadServiceAdapter;
 import com.oracle.oci.osb.adapter.ServiceAdapter;
+import com.oracle.oci.osb.adapter.ServiceAdapterBridge;
+import com.oracle.oci.osb.adapter.ServiceAdapters;
+import com.oracle.oci.osb.adapter.TimedServiceAdapter;
+import com.oracle.oci.osb.audit.AuditLog;
+import com.oracle.oci.osb.audit.AuditRecord;
+import com.oracle.oci.osb.jackson.OSBObjectMapperProvider;
+import com.oracle.oci.osb.mbean.RequestLabels;
+import com.oracle.oci.osb.mbean.RequestScope;
+import com.oracle.oci.osb.mbean.RequestTimings;
 import com.oracle.oci.osb.model.*;
 import com.oracle.oci.osb.rest.OSBAPI;
+import com.oracle.oci.osb.store.AsyncDataStore;
 import com.oracle.oci.osb.store.BindingData;
 import com.oracle.oci.osb.store.DataStore;
 import com.oracle.oci.osb.store.DataStoreFactory;
+import com.oracle.oci.osb.store.InstanceAndBinding;
 import com.oracle.oci.osb.store.ServiceData;
+import com.oracle.oci.osb.store.TimedDataStore;
 import com.oracle.oci.osb.util.*;
-import org.glassfish.jersey.SslConfigurator;
 
 import javax.inject.Singleton;
-import javax.net.ssl.SSLContext;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.*;
-import javax.ws.rs.client.Client;
-import javax.ws.rs.client.ClientBuilder;
-import javax.ws.rs.client.Invocation;
-import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
-import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
-import java.io.BufferedInputStream;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.security.KeyStore;
-import java.security.cert.CertificateFactory;
-import java.security.cert.X509Certificate;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 import static com.oracle.oci.osb.util.Utils.*;
 
@@ -53,7 +62,16 @@ public class OSBV2API {
 
     private static final Logger LOGGER = getLogger(OSBV2API.class);
 
-    private static final Map<String, String> commonTags = new HashMap<>();
+    private static final long DEFAULT_LAST_OPERATION_CACHE_MILLIS = 1000;
+
+    private static final int DEFAULT_ASYNC_RESPONSE_TIMEOUT_SECONDS = 300;
+
+    private static final int DEFAULT_RETRY_AFTER_SECONDS = 5;
+
+    /**
+     * Runs the continuations of the last_operation polls made by the tracker on the thread completing them.
+     */
+    private static final Executor DIRECT = Runnable::run;
 
     private enum RequestType {
         PROVISION("Provision"),
@@ -74,109 +92,114 @@ public class OSBV2API {
         }
     }
 
-    //Build Common Tags that should be added by adapters for Service they provision.
-    static {
-        commonTags.putAll(System.getProperties().entrySet().stream()
-                .filter(e -> ((String) e.getKey()).startsWith(Constants.SERVICE_TAG))
-                .collect(Collectors.toMap(
-                        e -> ((String) e.getKey()).substring(Constants.SERVICE_TAG.length()),
-                        e -> (String) e.getValue())));
-        commonTags.put(Constants.CREATED_BY, Constants.OCI_OSB_BROKER);
-
-        String clusterId = commonTags.get(Constants.CLUSTER_ID_TAG);
-
-        // only get the label from kubernetes if all the required parameters are present
-        if (!commonTags.containsKey(Constants.CLUSTER_ID_TAG)) {
-
-            String tokenFile = System.getProperty(Constants.KUBERNETES_BEARER_API_TOKEN_FILE);
-            String apiHost = System.getenv(Constants.KUBERNETES_SERVICE_HOST);
-            String port = System.getenv(Constants.KUBERNETES_SERVICE_PORT);
-            String nodeName = System.getenv(Constants.NODE_NAME);
-            String apiCaCert = System.getProperty(Constants.API_SERVER_CA_CERT);
-            if (tokenFile != null && apiHost != null &&  port != null && nodeName != null && !Utils
-                    .isNullOrEmptyString(apiCaCert) && Files.isReadable(Paths.get(apiCaCert))){
-                try {
-                    SslConfigurator sslConfig = SslConfigurator.newInstance();
-                    sslConfig.trustStore(getTrustStoreWithApiCaCerts(apiCaCert));
-                    SSLContext sslContext = sslConfig.createSSLContext();
-                    Client client = ClientBuilder.newBuilder().sslContext(sslContext).build();
-
-                    WebTarget webTarget
-                            = client.target(String.format(Constants.NODE_API, apiHost, port, nodeName));
-                    Invocation.Builder invocationBuilder =
-                            webTarget.request(MediaType.APPLICATION_JSON);
-                    String bearerToken = new String(Files.readAllBytes(
-                            Paths.get(tokenFile)),
-                            Constants.CHARSET_UTF8);
-                    invocationBuilder.header(Constants.AUTHORIZATION_HEADER,
-                            Constants.AUTHORIZATION_BEARER + " " + bearerToken);
-                    Response response = invocationBuilder.get();
-                    String entity = response.readEntity(String.class);
-                    ObjectMapper objMapper = new ObjectMapper();
-                    Map responseMap = objMapper.readValue(entity, Map.class);
-                    String nodeDisplayName = ((String) ((Map) ((Map) responseMap.get(Constants.K8S_METADATA))
-                            .get(Constants.K8S_LABELS))
-                            .get(Constants.K8S_DISPLAYNAME));
-
-                    if (nodeDisplayName.startsWith(Constants.OKE_PREFIX)) {
-                        clusterId = nodeDisplayName.split("-")[1];
-                        commonTags.put(Constants.CLUSTER_ID_TAG, clusterId);
-                    }
-                } catch (Exception e) {
-                    LOGGER.log(Level.WARNING, "Exception occurred while getting cluster id for OKE", e);
-                }
-            }
-        }
-        if(clusterId != null){
-            System.setProperty(Constants.CLUSTER_ID_TAG, clusterId);
-        }
-    }
-
-    private static KeyStore getTrustStoreWithApiCaCerts(String apiServerCaCert) throws Exception {
-        BufferedInputStream caCertStream = new BufferedInputStream(new FileInputStream(apiServerCaCert));
-        X509Certificate caCert = (X509Certificate) CertificateFactory.getInstance("X.509")
-                .generateCertificate(caCertStream);
-        KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
-        keyStore.load(null, null);
-        keyStore.setCertificateEntry("apicacert", caCert);
-        return keyStore;
-    }
-
     private Catalog catalog;
 
-    private Map<String, ServiceAdapter> mapServiceToAdapters;
+    /**
+     * The catalog as written in the catalog responses, rebuilt whenever the services offered change.
+     */
+    private volatile SerializedCatalog serializedCatalog;
 
-    private Map<String, ServiceAdapter> mapPlanToAdapters;
+    private Map<String, AsyncServiceAdapter> mapServiceToAdapters;
+
+    private Map<String, AsyncServiceAdapter> mapPlanToAdapters;
 
     private Map<String, Service> mapServices;
 
     private final DataStore dataStore;
 
+    /**
+     * The store as an {@link AsyncDataStore}, null if the store does not support asynchronous operations.
+     */
+    private final AsyncDataStore asyncDataStore;
+
+    /**
+     * Coalesces the concurrent last_operation polls for the same instance and operation.
+     */
+    private final SingleFlight<String, InstanceLastOperation> lastOperations = new SingleFlight<>(
+            Long.getLong(Constants.LAST_OPERATION_CACHE_MILLIS, DEFAULT_LAST_OPERATION_CACHE_MILLIS));
+
+    /**
+     * Follows the accepted asynchronous operations, null if disabled.
+     */
+    private final OperationTracker operationTracker = Boolean.parseBoolean(
+            System.getProperty(Constants.OPERATION_TRACKER_ENABLED, "true")) ? new OperationTracker() : null;
+
+    /**
+     * Deduplicates the provision requests retried while in progress, null if disabled.
+     */
+    private final InFlightProvisions inFlightProvisions;
+
+    private final long asyncResponseTimeoutSeconds = Integer.getInteger(Constants.ASYNC_RESPONSE_TIMEOUT_SECONDS,
+            DEFAULT_ASYNC_RESPONSE_TIMEOUT_SECONDS);
+
+    private final int retryAfterSeconds = Integer.getInteger(Constants.REQUEST_EXECUTOR_RETRY_AFTER,
+            DEFAULT_RETRY_AFTER_SECONDS);
+
     public OSBV2API() throws IOException {
-        dataStore = DataStoreFactory.getDataStore();
+        this(DataStoreFactory.getDataStore(), ServiceAdapters.get(ServiceAdapter.class),
+                ServiceAdapters.get(AsyncServiceAdapter.class));
+    }
+
+    /**
+     * Creates the API with the given store and adapters instead of the configured store and the adapters
+     * registered as services.
+     *
+     * @param dataStore       store for service and binding metadata.
+     * @param serviceAdapters adapters implementing the services offered by the broker.
+     * @throws IOException exception reading the catalog of an adapter.
+     */
+    public OSBV2API(DataStore dataStore, Iterable<ServiceAdapter> serviceAdapters) throws IOException {
+        this(dataStore, serviceAdapters, Collections.emptyList());
+    }
+
+    /**
+     * Creates the API with the given store, synchronous and asynchronous adapters.
+     *
+     * @param dataStore            store for service and binding metadata.
+     * @param serviceAdapters      synchronous adapters, run through a {@link ServiceAdapterBridge}.
+     * @param asyncServiceAdapters asynchronous adapters.
+     * @throws IOException exception reading the catalog of an adapter.
+     */
+    public OSBV2API(DataStore dataStore, Iterable<ServiceAdapter> serviceAdapters,
+                    Iterable<AsyncServiceAdapter> asyncServiceAdapters) throws IOException {
+        CommonTags.get();
+        this.dataStore = new TimedDataStore(dataStore);
+        this.asyncDataStore = (dataStore instanceof AsyncDataStore) ? (AsyncDataStore) dataStore : null;
+        this.inFlightProvisions = Boolean.parseBoolean(System.getProperty(Constants.PROVISION_DEDUP_ENABLED, "true"))
+                ? new InFlightProvisions(this.dataStore) : null;
         catalog = new Catalog();
         mapServiceToAdapters = new HashMap<>();
         mapPlanToAdapters = new HashMap<>();
         mapServices = new HashMap<>();
-        ServiceLoader<ServiceAdapter> serviceAdapterLoader = ServiceLoader
-                .load(ServiceAdapter.class);
-        for (ServiceAdapter adapter : serviceAdapterLoader) {
-            List<Service> services = adapter.getCatalog().getServices();
+        List<AsyncServiceAdapter> adapters = new ArrayList<>();
+        for (ServiceAdapter serviceAdapter : serviceAdapters) {
+            String name = BulkheadServiceAdapter.getName(serviceAdapter.getCatalog());
+            adapters.add(new ServiceAdapterBridge(serviceAdapter, ServiceAdapterBridge.newExecutor(name)));
+        }
+        asyncServiceAdapters.forEach(adapters::add);
+        for (AsyncServiceAdapter serviceAdapter : adapters) {
+            Catalog adapterCatalog = serviceAdapter.getCatalog();
+            AsyncServiceAdapter adapter = new TimedServiceAdapter(new BulkheadServiceAdapter(serviceAdapter,
+                    adapterCatalog));
+            List<Service> services = adapterCatalog.getServices();
             for (Service service : services) {
                 if (mapServiceToAdapters.containsKey(service.getId())) {
                     throw Errors.serviceWithSameId();
                 }
                 mapServiceToAdapters.put(service.getId(), adapter);
                 mapServices.put(service.getId(), service);
+                RequestLabels.addCatalogId(service.getId());
                 for (Plan plan : service.getPlans()) {
                     if (mapPlanToAdapters.containsKey(plan.getId())) {
                         throw Errors.planWithSameId();
                     }
                     mapPlanToAdapters.put(plan.getId(), adapter);
+                    RequestLabels.addCatalogId(plan.getId());
                 }
             }
             catalog.getServices().addAll(services);
         }
+        serializedCatalog = new SerializedCatalog(catalog, new OSBObjectMapperProvider().getContext(Catalog.class));
         debugLog(LOGGER, "ServiceAdapter Map:  %s", Level.FINE, mapServiceToAdapters);
     }
 
@@ -184,31 +207,35 @@ public class OSBV2API {
     @Path("/catalog")
     @Produces({"application/json"})
     public Response catalogGet(
-            @HeaderParam("X-ServiceAdapter-API-Version") @NotNull String xBrokerAPIVersion) {
-        return Response.ok().entity(catalog).build();
+            @HeaderParam("X-ServiceAdapter-API-Version") @NotNull String xBrokerAPIVersion,
+            @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch,
+            @HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding) {
+        return serializedCatalog.toResponse(ifNoneMatch, acceptEncoding);
     }
 
     @PUT
     @Path("/service_instances/{instance_id}/service_bindings/{binding_id}")
     @Produces({"application/json"})
-    public Response serviceBindingBinding(
+    public void serviceBindingBinding(
             @HeaderParam("X-ServiceAdapter-API-Version") @NotNull String xBrokerAPIVersion,
             @PathParam("instance_id") String instanceId,
             @PathParam("binding_id") String bindingId,
             @Valid ServiceBindingRequest body,
             @QueryParam("accepts_incomplete") Boolean acceptsIncomplete,
-            @Context UriInfo uriInfo) {
-        try {
+            @Context UriInfo uriInfo,
+            @Suspended AsyncResponse asyncResponse) {
+        executeAsync(asyncResponse, scope -> {
             Service svc = mapServices.get(body.getServiceId());
-            ServiceData svcData = dataStore.getServiceData(instanceId);
+            InstanceAndBinding instanceAndBinding = dataStore.getInstanceAndBinding(instanceId, bindingId);
+            ServiceData svcData = instanceAndBinding.getServiceData();
 
-            Response opsResponse = executeAndReturnResponse(() -> {
+            return executeAndReturnResponseAsync(() -> {
                 if (svcData == null) {
                     throw Errors.instanceDoesNotExistException();
                 }
 
                 // check if binding already exists to a different instance
-                BindingData bindingData = dataStore.getBindingData(bindingId);
+                BindingData bindingData = instanceAndBinding.getBindingData();
 
                 String bodySvcId = body.getServiceId();
                 String bodyPlanId = body.getPlanId();
@@ -220,47 +247,48 @@ public class OSBV2API {
                     throw Errors.bindingWithSameIdExists();
                 }
 
-                ServiceAdapter serviceAdapter = validateAndGetAdapter(body.getServiceId());
+                AsyncServiceAdapter serviceAdapter = validateAndGetAdapter(body.getServiceId());
                 validateServiceAndPlanId(bodyPlanId, svcData.getPlanId(), bodySvcId, svcData.getServiceId(), true);
 
                 //If binding already existing(with same attributes) then we need to delete and recreate the binding
                 // as we
                 //don't store the binding and hence can not return the binding data without creating a new binding.
                 //Note: Attribute check is already done and hence we are just checking if binding exists or not
-                if (bindingData != null) {
-                    serviceAdapter.deleteServiceBinding(bindingData.getInstanceId(), bindingData.getBindingId(),
-                            bindingData.getServiceId(), bindingData.getPlanId(), svcData, bindingData);
-                }
-
-                // check if async provision is required
-                Boolean asyncProvision = svc.isAsyncBinding();
-                if (asyncProvision != null && asyncProvision && (acceptsIncomplete == null || !acceptsIncomplete)) {
-                    throw Errors.asyncRequired();
-                }
-
-                // check if service is bindable
-                Boolean isBindable = svc.isBindable();
-                if (isBindable != null && !isBindable) {
-                    throw Errors.unbindable();
-                }
-
-                ServiceBinding response = serviceAdapter.bindToService(instanceId, bindingId, body, svcData);
+                CompletionStage<?> existingBindingDeleted = (bindingData != null)
+                        ? serviceAdapter.deleteServiceBinding(bindingData.getInstanceId(), bindingData.getBindingId(),
+                                bindingData.getServiceId(), bindingData.getPlanId(), svcData, bindingData)
+                        : CompletableFuture.completedFuture(null);
+
+                return existingBindingDeleted.thenComposeAsync(deleted -> {
+                    // check if async provision is required
+                    Boolean asyncProvision = svc.isAsyncBinding();
+                    if (asyncProvision != null && asyncProvision
+                            && (acceptsIncomplete == null || !acceptsIncomplete)) {
+                        throw new CompletionException(Errors.asyncRequired());
+                    }
 
-                bindingData = response.getBindingData();
-                if (bindingData == null) {
-                    throw Errors.bindingDataMissing();
-                }
+                    // check if service is bindable
+                    Boolean isBindable = svc.isBindable();
+                    if (isBindable != null && !isBindable) {
+                        throw new CompletionException(Errors.unbindable());
+                    }
 
-                dataStore.storeBinding(bindingId, bindingData);
-                debugLog(LOGGER, "Service Binding response: %s", Level.FINER, response);
-                return response;
-            });
+                    return serviceAdapter.bindToService(instanceId, bindingId, body, svcData);
+                }, scope).thenApplyAsync(response -> {
+                    BindingData newBindingData = response.getBindingData();
+                    if (newBindingData == null) {
+                        throw new CompletionException(Errors.bindingDataMissing());
+                    }
 
-            auditLog(RequestType.BIND, bindingId, svc, opsResponse, svcData);
-            return opsResponse;
-        } catch (Exception e) {
-            return logAndGetErrorResponse(e);
-        }
+                    dataStore.storeBinding(bindingId, newBindingData);
+                    debugLog(LOGGER, "Service Binding response: %s", Level.FINER, response);
+                    return response;
+                }, scope);
+            }, scope).thenApplyAsync(opsResponse -> {
+                auditLog(RequestType.BIND, instanceId, bindingId, svc, opsResponse, svcData);
+                return opsResponse;
+            }, scope);
+        });
     }
 
     @GET
@@ -285,12 +313,12 @@ public class OSBV2API {
                     throw Errors.bindingNotRetrievable();
                 }
 
-                ServiceAdapter serviceAdapter = validateAndGetAdapter(svcData.getServiceId());
-                return serviceAdapter.getServiceBinding(bindingId, svcData);
+                AsyncServiceAdapter serviceAdapter = validateAndGetAdapter(svcData.getServiceId());
+                return await(serviceAdapter.getServiceBinding(bindingId, svcData));
             });
 
             Service svc = (svcData != null) ? mapServices.get(svcData.getServiceId()) : null;
-            auditLog(RequestType.GET_BINDING, bindingId, svc, opsResponse, svcData);
+            auditLog(RequestType.GET_BINDING, instanceId, bindingId, svc, opsResponse, svcData);
             return opsResponse;
         } catch (Exception e) {
             return logAndGetErrorResponse(e);
@@ -328,7 +356,11 @@ public class OSBV2API {
                 throw Errors.operationParameterNotProvided();
             }
 
-            ServiceData svcData = dataStore.getServiceData(instanceId);
+            // fetch the instance and the binding concurrently
+            CompletableFuture<ServiceData> svcDataFuture = getServiceDataAsync(instanceId);
+            CompletableFuture<BindingData> bindingDataFuture = getBindingDataAsync(bindingId);
+
+            ServiceData svcData = join(svcDataFuture);
             if (svcData == null) {
                 if (Constants.DELETE_OPERATION.equals(operation)) {
                     throw Errors.instanceDeletedError();
@@ -337,7 +369,7 @@ public class OSBV2API {
                 }
             }
 
-            ServiceAdapter serviceAdapter = validateAndGetAdapter(serviceId);
+            AsyncServiceAdapter serviceAdapter = validateAndGetAdapter(serviceId);
             validateServiceAndPlanId(planId, svcData.getPlanId(), serviceId, svcData.getServiceId(), false);
 
             Service svc = mapServices.get(serviceId);
@@ -350,7 +382,7 @@ public class OSBV2API {
                 throw Errors.bindingSynchronousError();
             }
 
-            BindingData bindingData = dataStore.getBindingData(bindingId);
+            BindingData bindingData = join(bindingDataFuture);
             if (bindingData == null) {
                 if (Constants.DELETE_OPERATION.equals(operation)) {
                     throw Errors.bindingDeletedError();
@@ -368,8 +400,8 @@ public class OSBV2API {
             }
 
 
-            LastOperationResource response = serviceAdapter
-                    .getLastBindingOperation(instanceId, bindingId, serviceId, svcData.getPlanId(), svcData, bindingData);
+            LastOperationResource response = await(serviceAdapter.getLastBindingOperation(instanceId, bindingId,
+                    serviceId, svcData.getPlanId(), svcData, bindingData));
 
             if (operation.equals(Constants.DELETE_OPERATION) &&
                     response.getState() == LastOperationResource.StateEnum.SUCCEEDED) {
@@ -385,18 +417,20 @@ public class OSBV2API {
     @DELETE
     @Path("/service_instances/{instance_id}/service_bindings/{binding_id}")
     @Produces({"application/json"})
-    public Response serviceBindingUnbinding(
+    public void serviceBindingUnbinding(
             @HeaderParam("X-ServiceAdapter-API-Version") @NotNull String xBrokerAPIVersion,
             @PathParam("instance_id") String instanceId,
             @PathParam("binding_id") String bindingId,
             @QueryParam("service_id") @NotNull String serviceId,
             @QueryParam("plan_id") @NotNull String planId,
             @QueryParam("accepts_incomplete") Boolean acceptsIncomplete,
-            @Context UriInfo uriInfo) {
-        try {
-            ServiceData svcData = dataStore.getServiceData(instanceId);
-            BindingData bindingData = dataStore.getBindingData(bindingId);
-            Response opsResponse = executeAndReturnResponse(() -> {
+            @Context UriInfo uriInfo,
+            @Suspended AsyncResponse asyncResponse) {
+        executeAsync(asyncResponse, scope -> {
+            InstanceAndBinding instanceAndBinding = dataStore.getInstanceAndBinding(instanceId, bindingId);
+            ServiceData svcData = instanceAndBinding.getServiceData();
+            BindingData bindingData = instanceAndBinding.getBindingData();
+            return executeAndReturnResponseAsync(() -> {
                 if (bindingData == null) {
                     throw Errors.bindingDoesNotExistError();
                 }
@@ -405,49 +439,49 @@ public class OSBV2API {
                     throw Errors.instanceDoesNotExistException();
                 }
 
-                ServiceAdapter serviceAdapter = validateAndGetAdapter(serviceId);
+                AsyncServiceAdapter serviceAdapter = validateAndGetAdapter(serviceId);
                 validateServiceAndPlanId(planId, svcData.getPlanId(), serviceId, svcData.getServiceId(), true);
 
-                LastOperationResource response = serviceAdapter.deleteServiceBinding(instanceId, bindingId, serviceId,
-                        planId, svcData, bindingData);
-
-                if (response.getStatusCode() == Response.Status.OK.getStatusCode()) {
-                    dataStore.removeBindingData(bindingId);
-                }
+                return serviceAdapter.deleteServiceBinding(instanceId, bindingId, serviceId, planId, svcData,
+                        bindingData).thenApplyAsync(response -> {
+                    if (response.getStatusCode() == Response.Status.OK.getStatusCode()) {
+                        dataStore.removeBindingData(bindingId);
+                    }
 
-                debugLog(LOGGER, "Service Unbinding response: %s", Level.FINE, response);
-                return response;
-            });
-            auditLog(RequestType.DELETE_BINDING, bindingId, mapServices.get(serviceId), opsResponse, svcData);
-            return opsResponse;
-        } catch (Exception e) {
-            return logAndGetErrorResponse(e);
-        }
+                    debugLog(LOGGER, "Service Unbinding response: %s", Level.FINE, response);
+                    return response;
+                }, scope);
+            }, scope).thenApplyAsync(opsResponse -> {
+                auditLog(RequestType.DELETE_BINDING, instanceId, bindingId, mapServices.get(serviceId), opsResponse,
+                        svcData);
+                return opsResponse;
+            }, scope);
+        });
     }
 
     @DELETE
     @Path("/service_instances/{instance_id}")
     @Produces({"application/json"})
-    public Response serviceInstanceDeprovision(
+    public void serviceInstanceDeprovision(
             @HeaderParam("X-ServiceAdapter-API-Version") @NotNull String xBrokerAPIVersion,
             @PathParam("instance_id") String instanceId,
             @QueryParam("service_id") @NotNull String serviceId,
             @QueryParam("plan_id") @NotNull String planId,
             @QueryParam("accepts_incomplete") Boolean acceptsIncomplete,
-            @Context UriInfo uriInfo) {
-        try {
+            @Context UriInfo uriInfo,
+            @Suspended AsyncResponse asyncResponse) {
+        executeAsync(asyncResponse, scope -> {
             Service svc = mapServices.get(serviceId);
             ServiceData svcData = dataStore.getServiceData(instanceId);
 
-            Response opsResponse = executeAndReturnResponse(() -> {
-                ServiceAdapter serviceAdapter = validateAndGetAdapter(serviceId);
+            return executeAndReturnResponseAsync(() -> {
+                AsyncServiceAdapter serviceAdapter = validateAndGetAdapter(serviceId);
 
                 if (svcData == null) {
                     throw new BrokerHttpException(Response.Status.GONE.getStatusCode(),
                             "The service instance does not exist", "InstanceDoesNotExist");
                 }
 
-                AsyncOperation response = null;
                 Boolean asyncDelete = svc.isAsyncDelete();
                 if (asyncDelete != null && asyncDelete && (acceptsIncomplete == null || !acceptsIncomplete)) {
                     throw Errors.asyncRequired();
@@ -458,27 +492,28 @@ public class OSBV2API {
                 Boolean isProvisioning = svcData.getProvisioning();
                 if(!isProvisioning) {
                     dataStore.removeServiceData(instanceId);
-                    response = new AsyncOperation();
+                    AsyncOperation response = new AsyncOperation();
                     response.setStatusCode(Response.Status.OK.getStatusCode());
                     response.setOperation(Constants.DELETE_OPERATION);
                     debugLog(LOGGER, "Actual Service Instance is not deleted as it's binding only request.: %s", Level.FINE, response);
-                }
-                else {
-                    response = serviceAdapter.deleteServiceInstance(instanceId, serviceId, planId, svcData);
-                    if (response.getStatusCode() == Response.Status.OK.getStatusCode() ||
-                            response.getStatusCode() == Response.Status.GONE.getStatusCode()) {
-                        dataStore.removeServiceData(instanceId);
-                    }
-                    debugLog(LOGGER, "Service Delete response: %s", Level.FINE, response);
-                }
-                return response;
-
-            });
-            auditLog(RequestType.DELETE, instanceId, svc, opsResponse, svcData);
-            return opsResponse;
-        } catch (Exception e) {
-            return logAndGetErrorResponse(e);
-        }
+                    return CompletableFuture.completedFuture(response);
+                }
+                return serviceAdapter.deleteServiceInstance(instanceId, serviceId, planId, svcData)
+                        .thenApplyAsync(response -> {
+                            if (response.getStatusCode() == Response.Status.OK.getStatusCode() ||
+                                    response.getStatusCode() == Response.Status.GONE.getStatusCode()) {
+                                dataStore.removeServiceData(instanceId);
+                            }
+                            debugLog(LOGGER, "Service Delete response: %s", Level.FINE, response);
+                            return response;
+                        }, scope);
+            }, scope).thenApplyAsync(opsResponse -> {
+                auditLog(RequestType.DELETE, instanceId, null, svc, opsResponse, svcData);
+                invalidateLastOperations(instanceId);
+                trackOperation(opsResponse, instanceId, Constants.DELETE_OPERATION, svcData);
+                return opsResponse;
+            }, scope);
+        });
     }
 
     @GET
@@ -502,12 +537,12 @@ public class OSBV2API {
                     throw Errors.bindingNotRetrievable();
                 }
 
-                ServiceAdapter serviceAdapter = validateAndGetAdapter(svcData.getServiceId());
-                return serviceAdapter.getServiceInstance(svcData);
+                AsyncServiceAdapter serviceAdapter = validateAndGetAdapter(svcData.getServiceId());
+                return await(serviceAdapter.getServiceInstance(svcData));
             });
 
             Service svc = (svcData != null) ? mapServices.get(svcData.getServiceId()) : null;
-            auditLog(RequestType.GET, instanceId, svc, opsResponse, svcData);
+            auditLog(RequestType.GET, instanceId, null, svc, opsResponse, svcData);
             return opsResponse;
         } catch (Exception e) {
             return logAndGetErrorResponse(e);
@@ -517,13 +552,14 @@ public class OSBV2API {
     @GET
     @Path("/service_instances/{instance_id}/last_operation")
     @Produces({"application/json"})
-    public Response serviceInstanceLastOperationGet(
+    public void serviceInstanceLastOperationGet(
             @HeaderParam("X-ServiceAdapter-API-Version") @NotNull String xBrokerAPIVersion,
             @PathParam("instance_id") String instanceId,
             @QueryParam("service_id") String serviceId,
             @QueryParam("plan_id") String planId,
-            @QueryParam("operation") String operation) {
-        return executeAndReturnResponse(() -> {
+            @QueryParam("operation") String operation,
+            @Suspended AsyncResponse asyncResponse) {
+        executeAsync(asyncResponse, scope -> executeAndReturnResponseAsync(() -> {
             //service_id is not a mandatory param
             if(serviceId != null && mapServices.get(serviceId) != null) {
                 Service svc = mapServices.get(serviceId);
@@ -537,41 +573,89 @@ public class OSBV2API {
                         "The operation parameter is not provided", "OperationNotProvided");
             }
 
-            ServiceData svcData = dataStore.getServiceData(instanceId);
-            if (svcData == null) {
-                if (Constants.DELETE_OPERATION.equals(operation)) {
-                    throw Errors.instanceDeletedError();
-                } else {
-                    throw Errors.instanceDoesNotExistException();
-                }
-            }
-
-            validateServiceAndPlanId(planId, svcData.getPlanId(), serviceId, svcData.getServiceId(),false);
-
-            ServiceAdapter serviceAdapter = validateAndGetAdapter(svcData.getServiceId());
+            // Operations accepted by this broker are followed by the tracker. Otherwise, as platforms poll the same
+            // operation from many controllers, share one store and OCI lookup between the concurrent polls.
+            InstanceLastOperation trackedOperation = (operationTracker != null)
+                    ? operationTracker.get(instanceId, operation) : null;
+            CompletionStage<InstanceLastOperation> lastOperation = (trackedOperation != null)
+                    ? CompletableFuture.completedFuture(trackedOperation)
+                    : lastOperations.executeAsync(lastOperationKey(instanceId, operation),
+                            () -> fetchLastOperation(instanceId, operation, scope));
+            return lastOperation.thenApply(result -> {
+                ServiceData svcData = result.getSvcData();
+                validateServiceAndPlanId(planId, svcData.getPlanId(), serviceId, svcData.getServiceId(),false);
+
+                LastOperationResource response = result.getResponse();
+                debugLog(LOGGER, "Service Get  last_operation response: %s", Level.FINE, response);
+                return response;
+            });
+        }, scope));
+    }
 
-            Service svc = mapServices.get(svcData.getServiceId());
-            if (svc.isAsyncProvision() == null || !svc.isAsyncProvision()) {
-                throw Errors.provisionSynchronousError();
+    /**
+     * Fetches the state of the last operation of an instance from its adapter.
+     *
+     * @param executor runs the steps that follow the call to the adapter.
+     */
+    private CompletionStage<InstanceLastOperation> fetchLastOperation(String instanceId, String operation,
+                                                                      Executor executor) {
+        ServiceData svcData = dataStore.getServiceData(instanceId);
+        if (svcData == null) {
+            if (Constants.DELETE_OPERATION.equals(operation)) {
+                throw Errors.instanceDeletedError();
+            } else {
+                throw Errors.instanceDoesNotExistException();
             }
+        }
 
-            LastOperationResource response = serviceAdapter
-                    .getLastOperation(instanceId, svcData.getServiceId(), svcData.getPlanId(), operation, svcData);
+        AsyncServiceAdapter serviceAdapter = validateAndGetAdapter(svcData.getServiceId());
 
+        Service svc = mapServices.get(svcData.getServiceId());
+        if (svc.isAsyncProvision() == null || !svc.isAsyncProvision()) {
+            throw Errors.provisionSynchronousError();
+        }
+
+        return serviceAdapter.getLastOperation(instanceId, svcData.getServiceId(), svcData.getPlanId(), operation,
+                svcData).thenApplyAsync(response -> {
             if (operation.equals(Constants.DELETE_OPERATION) &&
                     response.getState() == LastOperationResource.StateEnum.SUCCEEDED) {
                 dataStore.removeServiceData(instanceId);
             }
-            debugLog(LOGGER, "Service Get  last_operation response: %s", Level.FINE, response);
-            return response;
-        });
+            return new InstanceLastOperation(svcData, response);
+        }, executor);
+    }
+
+    private static String lastOperationKey(String instanceId, String operation) {
+        return instanceId + "/" + operation;
+    }
+
+    /**
+     * Discards the last_operation results kept for the instance, as a new operation has been requested.
+     */
+    private void invalidateLastOperations(String instanceId) {
+        String prefix = instanceId + "/";
+        lastOperations.invalidateIf(key -> key.startsWith(prefix));
+        if (operationTracker != null) {
+            operationTracker.forget(instanceId);
+        }
+    }
+
+    /**
+     * Tracks the operation if it was accepted to complete asynchronously.
+     */
+    private void trackOperation(Response opsResponse, String instanceId, String operation, ServiceData svcData) {
+        if (operationTracker != null && svcData != null
+                && opsResponse.getStatus() == Response.Status.ACCEPTED.getStatusCode()) {
+            operationTracker.track(instanceId, operation, svcData,
+                    () -> await(fetchLastOperation(instanceId, operation, DIRECT)));
+        }
     }
 
     @PUT
     @Path("/service_instances/{instance_id}")
     @Consumes({"application/json"})
     @Produces({"application/json"})
-    public Response serviceInstanceProvision(
+    public void serviceInstanceProvision(
             @HeaderParam("X-ServiceAdapter-API-Version") @NotNull
                     String xBrokerAPIVersion,
             @PathParam("instance_id")
@@ -579,103 +663,115 @@ public class OSBV2API {
             @Valid ServiceInstanceProvisionRequest body,
             @QueryParam("accepts_incomplete")
                     Boolean acceptsIncomplete,
-            @Context UriInfo uriInfo) {
-        try {
+            @Context UriInfo uriInfo,
+            @Suspended AsyncResponse asyncResponse) {
+        executeAsync(asyncResponse, scope -> {
 
             Service svc = (body != null) ? mapServices.get(body.getServiceId()) : null;
 
-            Response opsResponse = executeAndReturnResponse(() -> {
+            Callable<CompletionStage<? extends AbstractResponse>> provision = () -> {
 
-               ServiceAdapter serviceAdapter = validateAndGetAdapter(body.getServiceId());
+               AsyncServiceAdapter serviceAdapter = validateAndGetAdapter(body.getServiceId());
 
                boolean isProvisioningRequired = RequestUtil.getBooleanParameterDefaultValueTrue(
                         (Map<String, Object>) body.getParameters(), Constants.PROVISIONING, false);
 
-                ServiceAdapter planBroker = mapPlanToAdapters.get(body.getPlanId());
+                AsyncServiceAdapter planBroker = mapPlanToAdapters.get(body.getPlanId());
                 if (planBroker == null) throw Errors.planDoesNotExistError();
 
                 //Check data store to see if instance already exists.
-                ServiceData svcData = dataStore.getServiceData(instanceId);
-                if (svcData != null) {
-                    validateServiceAndPlanId(body.getPlanId(), svcData.getPlanId(), body.getServiceId(),
-                            svcData.getServiceId(), true);
+                ServiceData existingSvcData = dataStore.getServiceData(instanceId);
+                if (existingSvcData != null) {
+                    validateServiceAndPlanId(body.getPlanId(), existingSvcData.getPlanId(), body.getServiceId(),
+                            existingSvcData.getServiceId(), true);
                 }
                 Boolean asyncProvision = svc.isAsyncProvision();
                 if (asyncProvision != null && asyncProvision && (acceptsIncomplete == null || !acceptsIncomplete)) {
                     throw Errors.asyncRequired();
                 }
 
-                ServiceAdapter.ServiceInstanceStatus serviceInstanceStatus = serviceAdapter
-                        .getOciServiceInstanceStatus(instanceId, body);
-
-                if (serviceInstanceStatus == ServiceAdapter.ServiceInstanceStatus.CONFLICT) {
-                    throw new BrokerHttpException(Response.Status.CONFLICT.getStatusCode(),
-                            "A Conflicting service with same ID or parameters already exists", "ServiceExists");
-                } else if (serviceInstanceStatus == ServiceAdapter.ServiceInstanceStatus.EXISTS) {
-                    ServiceInstanceProvision response = serviceAdapter.provisionExistingServiceInstance(instanceId, body);
-                    if (response.getStatusCode() == Response.Status.ACCEPTED.getStatusCode()) {
-                        response.setOperation(Constants.PROVISION_OPERATION);
+                return serviceAdapter.getOciServiceInstanceStatus(instanceId, body)
+                        .thenComposeAsync(serviceInstanceStatus -> {
+                    if (serviceInstanceStatus == ServiceAdapter.ServiceInstanceStatus.CONFLICT) {
+                        throw new BrokerHttpException(Response.Status.CONFLICT.getStatusCode(),
+                                "A Conflicting service with same ID or parameters already exists", "ServiceExists");
+                    } else if (serviceInstanceStatus == ServiceAdapter.ServiceInstanceStatus.EXISTS) {
+                        return serviceAdapter.provisionExistingServiceInstance(instanceId, body)
+                                .thenApplyAsync(response -> {
+                            if (response.getStatusCode() == Response.Status.ACCEPTED.getStatusCode()) {
+                                response.setOperation(Constants.PROVISION_OPERATION);
+                            }
+                            dataStore.storeServiceData(instanceId, response.getSvcData());
+                            debugLog(LOGGER, "Service Provision of existing service response: %s", Level.FINE,
+                                    response);
+                            return response;
+                        }, scope);
+                    } else if (!isProvisioningRequired
+                            && serviceInstanceStatus == ServiceAdapter.ServiceInstanceStatus.DOESNOTEXIST) {
+                        // it's just for binding request.
+                        // If instance does not exist and provisioning flag set false we need to throw error.
+                        throw Errors.serviceDoesNotExistError();
                     }
-                    dataStore.storeServiceData(instanceId, response.getSvcData());
-                    debugLog(LOGGER, "Service Provision of existing service response: %s", Level.FINE, response);
-                    return response;
-                } else if (!isProvisioningRequired && serviceInstanceStatus == ServiceAdapter.ServiceInstanceStatus.DOESNOTEXIST) {
-                    // it's just for binding request.
-                    // If instance does not exist and provisioning flag set false we need to throw error.
-                    throw Errors.serviceDoesNotExistError();
-                }
-
-                Map<String, String> freeFormTags;
-                if (body.getParameters() != null && body.getParameters() instanceof Map) {
-                    Map mapParameters = (Map) body.getParameters();
-                    freeFormTags = RequestUtil
-                            .getMapStringParameter(mapParameters, Constants.FREE_FORM_TAGS, false);
-                } else {
-                    freeFormTags = new HashMap<>();
-                }
-                freeFormTags.put(Constants.OSB_INSTANCE_ID_LABEL, instanceId);
-                freeFormTags.put(Constants.CREATED_ON_BEHALF, OriginatingIdentity.getUserName());
-                freeFormTags.putAll(commonTags);
-
-                ServiceInstanceProvision response = serviceAdapter.provisionServiceInstance(instanceId, body,
-                        Collections
-                        .unmodifiableMap(freeFormTags));
-                svcData = response.getSvcData();
-                if (svcData == null) {
-                    throw Errors.svcDataMissing();
-                }
 
-                if (response.getStatusCode() == Response.Status.ACCEPTED.getStatusCode()) {
-                    response.setOperation(Constants.PROVISION_OPERATION);
-                }
-
-                dataStore.storeServiceData(instanceId, svcData);
-                debugLog(LOGGER, "Service Provision response: %s", Level.FINE, response);
-                return response;
-            });
-
-            auditLog(RequestType.PROVISION, instanceId, svc, opsResponse, dataStore.getServiceData(instanceId));
-            return opsResponse;
-        } catch (Exception e) {
-            return logAndGetErrorResponse(e);
-        }
+                    Map<String, String> freeFormTags;
+                    if (body.getParameters() != null && body.getParameters() instanceof Map) {
+                        Map mapParameters = (Map) body.getParameters();
+                        freeFormTags = RequestUtil
+                                .getMapStringParameter(mapParameters, Constants.FREE_FORM_TAGS, false);
+                    } else {
+                        freeFormTags = new HashMap<>();
+                    }
+                    freeFormTags.put(Constants.OSB_INSTANCE_ID_LABEL, instanceId);
+                    freeFormTags.put(Constants.CREATED_ON_BEHALF, OriginatingIdentity.getUserName());
+                    freeFormTags.putAll(CommonTags.get());
+
+                    return serviceAdapter.provisionServiceInstance(instanceId, body,
+                            Collections.unmodifiableMap(freeFormTags)).thenApplyAsync(response -> {
+                        ServiceData svcData = response.getSvcData();
+                        if (svcData == null) {
+                            throw new CompletionException(Errors.svcDataMissing());
+                        }
+
+                        if (response.getStatusCode() == Response.Status.ACCEPTED.getStatusCode()) {
+                            response.setOperation(Constants.PROVISION_OPERATION);
+                        }
+
+                        dataStore.storeServiceData(instanceId, svcData);
+                        debugLog(LOGGER, "Service Provision response: %s", Level.FINE, response);
+                        return response;
+                    }, scope);
+                }, scope);
+            };
+
+            return executeAndReturnResponseAsync(() -> (inFlightProvisions != null)
+                    ? inFlightProvisions.execute(instanceId, body, Boolean.TRUE.equals(acceptsIncomplete),
+                    Boolean.TRUE.equals(svc.isAsyncProvision()), provision, scope)
+                    : provision.call(), scope).thenApplyAsync(opsResponse -> {
+                ServiceData svcData = dataStore.getServiceData(instanceId);
+                auditLog(RequestType.PROVISION, instanceId, null, svc, opsResponse, svcData);
+                invalidateLastOperations(instanceId);
+                trackOperation(opsResponse, instanceId, Constants.PROVISION_OPERATION, svcData);
+                return opsResponse;
+            }, scope);
+        });
     }
 
     @PATCH
     @Path("/service_instances/{instance_id}")
     @Consumes({"application/json"})
     @Produces({"application/json"})
-    public Response serviceInstanceUpdate(
+    public void serviceInstanceUpdate(
             @HeaderParam("X-ServiceAdapter-API-Version") @NotNull String xBrokerAPIVersion,
             @PathParam("instance_id") String instanceId,
             @Valid ServiceInstanceUpdateRequest body,
             @QueryParam("accepts_incomplete") Boolean acceptsIncomplete,
-            @Context UriInfo uriInfo) {
-        try {
+            @Context UriInfo uriInfo,
+            @Suspended AsyncResponse asyncResponse) {
+        executeAsync(asyncResponse, scope -> {
             ServiceData svcData = dataStore.getServiceData(instanceId);
             Service svc = mapServices.get(body.getServiceId());
 
-            Response opsResponse = executeAndReturnResponse(() -> {
+            return executeAndReturnResponseAsync(() -> {
                 String existingServiceId = body.getServiceId();
                 String existingPlanId = body.getPlanId();
 
@@ -696,7 +792,7 @@ public class OSBV2API {
                 // if there is an update, we should not check if the new plan matches exiting plan
                 validateServiceAndPlanId(null, null, body.getServiceId(), svcData.getServiceId(), false);
 
-                ServiceAdapter serviceAdapter = validateAndGetAdapter(body.getServiceId());
+                AsyncServiceAdapter serviceAdapter = validateAndGetAdapter(body.getServiceId());
                 Boolean asyncUpdate = svc.isAsyncUpdate();
                 if (asyncUpdate != null && asyncUpdate && (acceptsIncomplete == null || !acceptsIncomplete)) {
                     throw Errors.asyncRequired();
@@ -712,25 +808,28 @@ public class OSBV2API {
                 if (newPlanId != null && mapPlanToAdapters.get(newPlanId) == null) {
                     throw Errors.planDoesNotExistError();
                 }
-                ServiceInstanceAsyncOperation response = serviceAdapter.updateServiceInstance(instanceId, body,
-                        svcData);
-                if (response.getSvcData() != null) {
-                    dataStore.storeServiceData(instanceId, response.getSvcData());
-                }
-                debugLog(LOGGER, "Service Update response: %s", Level.FINE, response);
-                return response;
-            });
-
-            auditLog(RequestType.UPDATE, instanceId, svc, opsResponse, svcData);
-            return opsResponse;
-        } catch (Exception e) {
-            return logAndGetErrorResponse(e);
-        }
-
+                return serviceAdapter.updateServiceInstance(instanceId, body, svcData).thenApplyAsync(response -> {
+                    if (response.getSvcData() != null) {
+                        dataStore.storeServiceData(instanceId, response.getSvcData());
+                    }
+                    debugLog(LOGGER, "Service Update response: %s", Level.FINE, response);
+                    return response;
+                }, scope);
+            }, scope).thenApplyAsync(opsResponse -> {
+                auditLog(RequestType.UPDATE, instanceId, null, svc, opsResponse, svcData);
+                invalidateLastOperations(instanceId);
+                if (opsResponse.getStatus() == Response.Status.ACCEPTED.getStatusCode()) {
+                    // the update may have changed the plan of the instance
+                    trackOperation(opsResponse, instanceId, Constants.UPDATE_OPERATION,
+                            dataStore.getServiceData(instanceId));
+                }
+                return opsResponse;
+            }, scope);
+        });
     }
 
-    private ServiceAdapter validateAndGetAdapter(String serviceId) {
-        ServiceAdapter serviceAdapter = mapServiceToAdapters.get(serviceId);
+    private AsyncServiceAdapter validateAndGetAdapter(String serviceId) {
+        AsyncServiceAdapter serviceAdapter = mapServiceToAdapters.get(serviceId);
 
         if (serviceAdapter == null) {
             throw Errors.serviceDoesNotExistError();
@@ -751,21 +850,123 @@ public class OSBV2API {
         }
     }
 
+    private CompletableFuture<ServiceData> getServiceDataAsync(String instanceId) {
+        if (asyncDataStore != null) {
+            return asyncDataStore.getServiceDataAsync(instanceId);
+        }
+        return CompletableFuture.completedFuture(dataStore.getServiceData(instanceId));
+    }
+
+    private CompletableFuture<BindingData> getBindingDataAsync(String bindingId) {
+        if (asyncDataStore != null) {
+            return asyncDataStore.getBindingDataAsync(bindingId);
+        }
+        return CompletableFuture.completedFuture(dataStore.getBindingData(bindingId));
+    }
+
+    /**
+     * Waits for a DataStore operation and rethrows its failure unwrapped.
+     */
+    private static <T> T join(CompletableFuture<T> future) {
+        long start = System.nanoTime();
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        } finally {
+            RequestTimings.addDataStoreTime(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Waits for an adapter operation and rethrows its failure unwrapped.
+     */
+    private static <T> T await(CompletionStage<T> stage) throws Exception {
+        try {
+            return stage.toCompletableFuture().get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static Exception unwrap(Throwable e) {
+        while ((e instanceof CompletionException || e instanceof ExecutionException) && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return (e instanceof Exception) ? (Exception) e : new RuntimeException(e);
+    }
+
+    /**
+     * Processes a request asynchronously: the handler runs on the calling thread in the scope of the request and the
+     * request is resumed, in its scope, by the thread that completes the response. Until then no server thread is
+     * held by the request.
+     */
+    private void executeAsync(AsyncResponse asyncResponse, Function<RequestScope, CompletionStage<Response>> handler) {
+        RequestScope scope = RequestScope.detach();
+        if (asyncResponseTimeoutSeconds > 0) {
+            asyncResponse.setTimeout(asyncResponseTimeoutSeconds, TimeUnit.SECONDS);
+        }
+        scope.execute(() -> {
+            CompletionStage<Response> response;
+            try {
+                response = handler.apply(scope);
+            } catch (Exception e) {
+                response = CompletableFuture.completedFuture(logAndGetErrorResponse(e));
+            }
+            response.whenComplete((r, e) -> scope.execute(
+                    () -> asyncResponse.resume((e == null) ? r : logAndGetErrorResponse(unwrap(e)))));
+        });
+    }
+
     private Response executeAndReturnResponse(Callable<AbstractResponse> callable) {
         try {
-            AbstractResponse abstractResponse = callable.call();
-            return Response.status(abstractResponse.getStatusCode()).entity(abstractResponse).build();
-        } catch (BrokerHttpException e) {
+            return toResponse(callable.call());
+        } catch (Exception e) {
+            return toErrorResponse(e);
+        }
+    }
+
+    /**
+     * Asynchronous variant of {@link #executeAndReturnResponse(Callable)}, the callable starts the operation.
+     *
+     * @param executor runs the conversion of the result to the response.
+     */
+    private CompletionStage<Response> executeAndReturnResponseAsync(
+            Callable<CompletionStage<? extends AbstractResponse>> callable, Executor executor) {
+        CompletionStage<? extends AbstractResponse> operation;
+        try {
+            operation = callable.call();
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(toErrorResponse(e));
+        }
+        return operation.handleAsync((response, e) -> (e == null) ? toResponse(response) : toErrorResponse(unwrap(e)),
+                executor);
+    }
+
+    private static Response toResponse(AbstractResponse abstractResponse) {
+        return Response.status(abstractResponse.getStatusCode()).entity(abstractResponse).build();
+    }
+
+    private Response toErrorResponse(Exception e) {
+        if (e instanceof BrokerHttpException) {
+            BrokerHttpException brokerException = (BrokerHttpException) e;
             LOGGER.log(Level.SEVERE, "Exception occurred while executing OSB Request", e);
-            return Response.status(e.getResponse().getStatus())
-                    .entity(new ErrorResponse(e.getErrorCode(), e.getMessage())).build();
-        } catch (BmcException e) {
+            return Response.status(brokerException.getResponse().getStatus())
+                    .entity(new ErrorResponse(brokerException.getErrorCode(), brokerException.getMessage())).build();
+        } else if (e instanceof BmcException) {
+            BmcException bmcException = (BmcException) e;
             LOGGER.log(Level.SEVERE,"Exception occurred while executing OSB Request", e);
-            return Response.status(e.getStatusCode())
-                    .entity(new ErrorResponse(e.getServiceCode(), e.getMessage())).build();
-        } catch (Exception e) {
-            return logAndGetErrorResponse(e);
+            return Response.status(bmcException.getStatusCode())
+                    .entity(new ErrorResponse(bmcException.getServiceCode(), bmcException.getMessage())).build();
+        } else if (e instanceof RejectedExecutionException) {
+            // all the adapter threads are busy and their queue is full
+            LOGGER.log(Level.WARNING, "Adapter operation rejected", e);
+            return Errors.brokerOverloaded(retryAfterSeconds);
         }
+        return logAndGetErrorResponse(e);
     }
 
     private Response logAndGetErrorResponse(Exception e) {
@@ -774,25 +975,23 @@ public class OSBV2API {
                 .entity(new ErrorResponse("InternalServerError", e.getMessage())).build();
     }
 
-    private void auditLog(RequestType requestType, String identifier, Service svc, Response
+    private void auditLog(RequestType requestType, String instanceId, String bindingId, Service svc, Response
             response, ServiceData svcData) {
+       // Label the request metrics with the service and plan the request was made against.
+       RequestLabels.set((svc != null) ? svc.getId() : null, (svcData != null) ? svcData.getPlanId() : null);
        try {
-           String user = OriginatingIdentity.getUserName();
-           StringBuilder sb = new StringBuilder();
-           ///Audit Log format: <Timestmap>|<LogLevel>|<ClassName>|Audit|<RequestSource>|<On-Behalf-User>|<ServiceName>
-           // <InstanceId/BindingId>|<RequestType>|<ServiceData>
-           String serviceName = (svc != null) ? svc.getName() : "UNKNOWN";
-           String responseCode = (response != null) ? Integer.toString(response.getStatus()) : "UNKNOWN";
-           sb.append("Audit||")
-                   .append(user).append("|")
-                   .append(serviceName).append("|")
-                   .append(identifier).append("|")
-                   .append(requestType.getType()).append("|")
-                   .append(responseCode).append("|");
-           if (svcData != null) {
-               sb.append(serializeToJson(svcData));
-           }
-           LOGGER.info(sb.toString());
+           // The record is serialized and written by the audit writer thread, off the request path.
+           AuditLog.getInstance().log(AuditRecord.builder()
+                   .operation(requestType.getType())
+                   .status((response != null) ? response.getStatus() : null)
+                   .user(OriginatingIdentity.getUserName())
+                   .serviceId((svc != null) ? svc.getId() : null)
+                   .serviceName((svc != null) ? svc.getName() : null)
+                   .planId((svcData != null) ? svcData.getPlanId() : null)
+                   .instanceId(instanceId)
+                   .bindingId(bindingId)
+                   .serviceData(svcData)
+                   .build());
        } catch(Exception e){
            //Make sure any exception in logging doesn't propagate.
            LOGGER.log(Level.SEVERE, "Error logging Audit message!", e);
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.api;
+
+import com.oracle.oci.osb.model.LastOperationResource;
+import com.oracle.oci.osb.store.ServiceData;
+import com.oracle.oci.osb.util.BrokerHttpException;
+import com.oracle.oci.osb.util.Constants;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.oracle.oci.osb.util.Utils.debugLog;
+import static com.oracle.oci.osb.util.Utils.getLogger;
+
+/**
+ * OperationTracker follows the asynchronous operations accepted by the broker until they complete, so that
+ * last_operation requests are answered from memory rather than with a call to OCI.
+ * <p>
+ * Each tracked operation is polled on its own schedule: the interval starts at
+ * {@link Constants#OPERATION_TRACKER_MIN_INTERVAL_SECONDS}, doubles while the state of the resource does not change,
+ * up to {@link Constants#OPERATION_TRACKER_MAX_INTERVAL_SECONDS}, and is reset when it changes. The maximum defaults to
+ * about the interval platforms poll last_operation at, so that an operation is not reported in progress much longer
+ * than it is. A single scheduler thread, shared by all the service adapters, hands the due polls to a bounded pool of
+ * {@link Constants#OPERATION_TRACKER_WORKERS} workers, so the calls made to OCI grow with the number of operations in
+ * progress and not with the number of clients polling them.
+ * <p>
+ * The outcome of a completed operation is reported to the first last_operation request that reads it and then
+ * dropped, or dropped after {@link Constants#OPERATION_TRACKER_RETENTION_SECONDS} if none reads it. It is not kept
+ * any longer as the platform may have read the outcome from another replica of the broker and requested a new
+ * operation of the same kind there, which this replica would not know about.
+ */
+class OperationTracker {
+
+    private static final Logger LOGGER = getLogger(OperationTracker.class);
+
+    private static final int DEFAULT_WORKERS = 4;
+
+    private static final int DEFAULT_MIN_INTERVAL_SECONDS = 5;
+
+    private static final int DEFAULT_MAX_INTERVAL_SECONDS = 15;
+
+    private static final int DEFAULT_RETENTION_SECONDS = 60;
+
+    private static final int WORKER_QUEUE_SIZE = 1024;
+
+    private static final int HTTP_OK = 200;
+
+    private static final int HTTP_GONE = 410;
+
+    private final Map<String, TrackedOperation> operations = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler;
+
+    private final ThreadPoolExecutor workers;
+
+    private final long minIntervalMillis;
+
+    private final long maxIntervalMillis;
+
+    private final long retentionMillis;
+
+    OperationTracker() {
+        int workerCount = Integer.getInteger(Constants.OPERATION_TRACKER_WORKERS, DEFAULT_WORKERS);
+        minIntervalMillis = TimeUnit.SECONDS.toMillis(Integer.getInteger(
+                Constants.OPERATION_TRACKER_MIN_INTERVAL_SECONDS, DEFAULT_MIN_INTERVAL_SECONDS));
+        maxIntervalMillis = Math.max(minIntervalMillis, TimeUnit.SECONDS.toMillis(Integer.getInteger(
+                Constants.OPERATION_TRACKER_MAX_INTERVAL_SECONDS, DEFAULT_MAX_INTERVAL_SECONDS)));
+        retentionMillis = TimeUnit.SECONDS.toMillis(Integer.getInteger(
+                Constants.OPERATION_TRACKER_RETENTION_SECONDS, DEFAULT_RETENTION_SECONDS));
+        ScheduledThreadPoolExecutor scheduledExecutor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "osb-operation-tracker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduledExecutor.setRemoveOnCancelPolicy(true);
+        scheduler = scheduledExecutor;
+        workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(WORKER_QUEUE_SIZE), r -> {
+            Thread thread = new Thread(r, "osb-operation-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts tracking an operation accepted for an instance.
+     *
+     * @param instanceId instance the operation was requested for.
+     * @param operation  operation requested.
+     * @param svcData    instance data once the operation was accepted.
+     * @param poller     looks up the current state of the operation.
+     */
+    void track(String instanceId, String operation, ServiceData svcData, Callable<InstanceLastOperation> poller) {
+        LastOperationResource inProgress = new LastOperationResource();
+        inProgress.setState(LastOperationResource.StateEnum.IN_PROGRESS);
+        inProgress.setStatusCode(HTTP_OK);
+        TrackedOperation tracked = new TrackedOperation(key(instanceId, operation), poller,
+                new InstanceLastOperation(svcData, inProgress));
+        operations.put(tracked.key, tracked);
+        tracked.schedule(minIntervalMillis);
+        debugLog(LOGGER, "Tracking operation %s of instance %s", Level.FINE, operation, instanceId);
+    }
+
+    /**
+     * Returns the last known state of an operation. Once the operation completed, its outcome is returned only once.
+     *
+     * @param instanceId instance the operation was requested for.
+     * @param operation  operation requested.
+     * @return the last known state, null if the operation is not tracked.
+     * @throws BrokerHttpException the error the last poll of the operation ended with.
+     */
+    InstanceLastOperation get(String instanceId, String operation) {
+        TrackedOperation tracked = operations.get(key(instanceId, operation));
+        if (tracked == null) {
+            return null;
+        }
+        // of the concurrent polls reading a completed operation, only the one removing it reports its outcome
+        if (tracked.completed && !operations.remove(tracked.key, tracked)) {
+            return null;
+        }
+        if (tracked.failure != null) {
+            throw tracked.failure;
+        }
+        return tracked.lastOperation;
+    }
+
+    /**
+     * Stops tracking the operations of an instance, as a new operation was requested for it.
+     *
+     * @param instanceId instance to stop tracking.
+     */
+    void forget(String instanceId) {
+        String prefix = instanceId + "/";
+        operations.values().removeIf(tracked -> {
+            if (tracked.key.startsWith(prefix)) {
+                tracked.cancelled = true;
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private static String key(String instanceId, String operation) {
+        return instanceId + "/" + operation;
+    }
+
+    private class TrackedOperation {
+
+        private final String key;
+
+        private final Callable<InstanceLastOperation> poller;
+
+        private volatile InstanceLastOperation lastOperation;
+
+        private volatile BrokerHttpException failure;
+
+        private volatile boolean cancelled;
+
+        private volatile boolean completed;
+
+        /**
+         * Only accessed by the poll in progress, the polls of an operation never overlap.
+         */
+        private long intervalMillis;
+
+        TrackedOperation(String key, Callable<InstanceLastOperation> poller, InstanceLastOperation initial) {
+            this.key = key;
+            this.poller = poller;
+            this.lastOperation = initial;
+        }
+
+        void schedule(long delayMillis) {
+            intervalMillis = delayMillis;
+            // up to 10% jitter spreads the polls of operations accepted together
+            long jitter = ThreadLocalRandom.current().nextLong(delayMillis / 10 + 1);
+            scheduler.schedule(this::submit, delayMillis + jitter, TimeUnit.MILLISECONDS);
+        }
+
+        private void submit() {
+            if (cancelled) {
+                return;
+            }
+            try {
+                workers.execute(this::poll);
+            } catch (RejectedExecutionException e) {
+                LOGGER.warning("Operation tracker workers are busy, delaying poll of " + key);
+                schedule(intervalMillis);
+            }
+        }
+
+        private void poll() {
+            if (cancelled) {
+                return;
+            }
+            String previousDescription = lastOperation.getResponse().getDescription();
+            try {
+                InstanceLastOperation current = poller.call();
+                lastOperation = current;
+                LastOperationResource response = current.getResponse();
+                if (response.getStatusCode() == HTTP_GONE
+                        || response.getState() == LastOperationResource.StateEnum.SUCCEEDED
+                        || response.getState() == LastOperationResource.StateEnum.FAILED) {
+                    complete();
+                    return;
+                }
+                if (response.getDescription() != null && !response.getDescription().equals(previousDescription)) {
+                    schedule(minIntervalMillis);
+                } else {
+                    schedule(Math.min(intervalMillis * 2, maxIntervalMillis));
+                }
+            } catch (BrokerHttpException e) {
+                failure = e;
+                complete();
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Error polling operation " + key, e);
+                schedule(Math.min(intervalMillis * 2, maxIntervalMillis));
+            }
+        }
+
+        private void complete() {
+            debugLog(LOGGER, "Operation %s completed", Level.FINE, key);
+            completed = true;
+            scheduler.schedule(() -> operations.remove(key, this), retentionMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+}
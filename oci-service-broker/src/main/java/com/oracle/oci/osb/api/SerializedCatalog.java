@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oracle.oci.osb.model.Catalog;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * SerializedCatalog holds the catalog serialized once, as is and gzip compressed, so that catalog requests are
+ * answered by writing the bytes out. Each representation has a strong ETag derived from its content, so that
+ * platforms polling the catalog get a 304 (Not Modified) when they already have it.
+ */
+class SerializedCatalog {
+
+    private static final String GZIP = "gzip";
+
+    private final byte[] json;
+
+    private final byte[] gzip;
+
+    private final String etag;
+
+    private final String gzipEtag;
+
+    SerializedCatalog(Catalog catalog, ObjectMapper objectMapper) throws IOException {
+        json = objectMapper.writeValueAsBytes(catalog);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(json);
+        }
+        gzip = compressed.toByteArray();
+        String hash = sha256(json);
+        etag = "\"" + hash + "\"";
+        gzipEtag = "\"" + hash + "-" + GZIP + "\"";
+    }
+
+    /**
+     * Builds the response to a catalog request.
+     *
+     * @param ifNoneMatch    value of the If-None-Match header, may be null.
+     * @param acceptEncoding value of the Accept-Encoding header, may be null.
+     * @return the response.
+     */
+    Response toResponse(String ifNoneMatch, String acceptEncoding) {
+        boolean useGzip = acceptsGzip(acceptEncoding);
+        String responseEtag = useGzip ? gzipEtag : etag;
+        if (matches(ifNoneMatch)) {
+            return Response.notModified().header(HttpHeaders.ETAG, responseEtag)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        Response.ResponseBuilder builder = Response.ok(useGzip ? gzip : json)
+                .header(HttpHeaders.ETAG, responseEtag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (useGzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Whether any of the entity tags of an If-None-Match header is the tag of one of the representations. As
+     * required for If-None-Match, weak tags are compared as if they were strong.
+     */
+    private boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag) || tag.equals(gzipEtag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].trim().equalsIgnoreCase(GZIP)) {
+                for (int i = 1; i < parts.length; i++) {
+                    String param = parts[i].trim().replace(" ", "");
+                    if (param.startsWith("q=") && isZero(param.substring(2))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isZero(String qvalue) {
+        try {
+            return Double.parseDouble(qvalue) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(data);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,443 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.oracle.oci.osb.mbean.GaugeRegistry;
+import com.oracle.oci.osb.mbean.GaugeRegistry.Gauge;
+import com.oracle.oci.osb.util.Constants;
+import com.oracle.oci.osb.util.Utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.oracle.oci.osb.util.Utils.getLogger;
+
+/**
+ * AuditLog writes the {@link AuditRecord}s of the requests made to the broker as JSON lines, to the rolling file
+ * given as {@link Constants#AUDIT_FILE} or to the standard output if none is given.
+ * <p>
+ * {@link #log(AuditRecord)} only puts the record on a bounded lock-free ring buffer, of
+ * {@link Constants#AUDIT_QUEUE_SIZE} records. A single writer thread takes the records off the buffer, serializes them
+ * and writes them in batches of up to {@link Constants#AUDIT_BATCH_SIZE} records, flushing once per batch. When the
+ * buffer is full the request thread waits for the writer for up to {@link Constants#AUDIT_MAX_BLOCK_MILLIS}, after
+ * which the record is dropped and counted, so that a slow disk never holds up the broker for longer.
+ */
+public class AuditLog {
+
+    private static final Logger LOGGER = getLogger(AuditLog.class);
+
+    private static final int DEFAULT_QUEUE_SIZE = 8192;
+
+    private static final int DEFAULT_BATCH_SIZE = 256;
+
+    private static final int DEFAULT_MAX_BLOCK_MILLIS = 5;
+
+    private static final int DEFAULT_MAX_FILE_MB = 100;
+
+    private static final int DEFAULT_MAX_FILES = 5;
+
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+    private static volatile AuditLog instance;
+
+    private final RingBuffer buffer;
+
+    private final int batchSize;
+
+    private final long maxBlockNanos;
+
+    private final Sink sink;
+
+    private final ObjectWriter writer = new ObjectMapper().writerFor(AuditRecord.class);
+
+    private final LongAdder writtenCount = new LongAdder();
+
+    private final LongAdder droppedCount = new LongAdder();
+
+    private final LongAdder blockedCount = new LongAdder();
+
+    private final LongAdder batchCount = new LongAdder();
+
+    private final Thread writerThread;
+
+    private volatile boolean writerWaiting;
+
+    private volatile boolean closed;
+
+    AuditLog(Sink sink, int queueSize, int batchSize, long maxBlockMillis) {
+        this.sink = sink;
+        this.buffer = new RingBuffer(queueSize);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxBlockNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxBlockMillis));
+        this.writerThread = new Thread(this::run, "audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * @return the audit log of the broker, configured from the system properties.
+     */
+    public static AuditLog getInstance() {
+        AuditLog auditLog = instance;
+        if (auditLog == null) {
+            synchronized (AuditLog.class) {
+                auditLog = instance;
+                if (auditLog == null) {
+                    auditLog = new AuditLog(createSink(),
+                            Integer.getInteger(Constants.AUDIT_QUEUE_SIZE, DEFAULT_QUEUE_SIZE),
+                            Integer.getInteger(Constants.AUDIT_BATCH_SIZE, DEFAULT_BATCH_SIZE),
+                            Integer.getInteger(Constants.AUDIT_MAX_BLOCK_MILLIS, DEFAULT_MAX_BLOCK_MILLIS));
+                    instance = auditLog;
+                    GaugeRegistry.register(Gauge.AUDIT_RECORDS, auditLog::getWrittenCount);
+                    GaugeRegistry.register(Gauge.AUDIT_DROPPED, auditLog::getDroppedCount);
+                    GaugeRegistry.register(Gauge.AUDIT_BLOCKED, auditLog::getBlockedCount);
+                }
+            }
+        }
+        return auditLog;
+    }
+
+    /**
+     * Writes out the records logged so far and stops the audit log of the broker, if it was started.
+     */
+    public static void shutdown() {
+        AuditLog auditLog = instance;
+        if (auditLog != null) {
+            auditLog.close();
+        }
+    }
+
+    /**
+     * Queues a record to be written.
+     *
+     * @param record the record.
+     * @return false if the record was dropped as the buffer stayed full.
+     */
+    public boolean log(AuditRecord record) {
+        if (!closed && buffer.offer(record)) {
+            wakeWriter();
+            return true;
+        }
+        if (!closed && maxBlockNanos > 0) {
+            blockedCount.increment();
+            long deadline = System.nanoTime() + maxBlockNanos;
+            do {
+                wakeWriter();
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                if (buffer.offer(record)) {
+                    wakeWriter();
+                    return true;
+                }
+            } while (!closed && System.nanoTime() - deadline < 0);
+        }
+        droppedCount.increment();
+        return false;
+    }
+
+    /**
+     * @return the total number of records written.
+     */
+    public long getWrittenCount() {
+        return writtenCount.sum();
+    }
+
+    /**
+     * @return the total number of records dropped, as the buffer was full or they could not be written.
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * @return the total number of records that found the buffer full and waited for the writer.
+     */
+    public long getBlockedCount() {
+        return blockedCount.sum();
+    }
+
+    /**
+     * @return the total number of batches written.
+     */
+    public long getBatchCount() {
+        return batchCount.sum();
+    }
+
+    /**
+     * Writes out the records logged so far and stops the writer. Records logged afterwards are dropped.
+     */
+    void close() {
+        closed = true;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void wakeWriter() {
+        if (writerWaiting) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    private void run() {
+        List<AuditRecord> batch = new ArrayList<>(batchSize);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        while (true) {
+            AuditRecord record;
+            while (batch.size() < batchSize && (record = buffer.poll()) != null) {
+                batch.add(record);
+            }
+            if (batch.isEmpty()) {
+                if (closed) {
+                    break;
+                }
+                writerWaiting = true;
+                if (buffer.isEmpty() && !closed) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                writerWaiting = false;
+                continue;
+            }
+            write(batch, out);
+            batch.clear();
+            out.reset();
+        }
+        try {
+            sink.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Error closing the audit log", e);
+        }
+    }
+
+    private void write(List<AuditRecord> batch, ByteArrayOutputStream out) {
+        int count = 0;
+        for (AuditRecord record : batch) {
+            try {
+                out.write(writer.writeValueAsBytes(record));
+                out.write('\n');
+                count++;
+            } catch (IOException e) {
+                droppedCount.increment();
+                LOGGER.log(Level.WARNING, "Error serializing audit record", e);
+            }
+        }
+        try {
+            sink.write(out.toByteArray());
+            writtenCount.add(count);
+            batchCount.increment();
+        } catch (IOException e) {
+            droppedCount.add(count);
+            LOGGER.log(Level.WARNING, "Error writing " + count + " audit records", e);
+        }
+    }
+
+    private static Sink createSink() {
+        String file = System.getProperty(Constants.AUDIT_FILE);
+        if (Utils.isNullOrEmptyString(file)) {
+            return new StandardOutput(System.out);
+        }
+        try {
+            return new RollingFile(Paths.get(file.trim()),
+                    Integer.getInteger(Constants.AUDIT_MAX_FILE_MB, DEFAULT_MAX_FILE_MB) * 1024L * 1024L,
+                    Integer.getInteger(Constants.AUDIT_MAX_FILES, DEFAULT_MAX_FILES));
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Error opening audit log file " + file + ", writing to standard output", e);
+            return new StandardOutput(System.out);
+        }
+    }
+
+    /**
+     * Destination of the audit records.
+     */
+    interface Sink extends Closeable {
+
+        /**
+         * Writes and flushes a batch of records.
+         */
+        void write(byte[] lines) throws IOException;
+    }
+
+    private static class StandardOutput implements Sink {
+
+        private final PrintStream out;
+
+        StandardOutput(PrintStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(byte[] lines) throws IOException {
+            out.write(lines, 0, lines.length);
+            out.flush();
+            if (out.checkError()) {
+                throw new IOException("Error writing to standard output");
+            }
+        }
+
+        @Override
+        public void close() {
+            out.flush();
+        }
+    }
+
+    /**
+     * File rolled over once it would grow beyond the maximum size, to file.1, file.1 to file.2 and so on, keeping
+     * at most the given number of files.
+     */
+    private static class RollingFile implements Sink {
+
+        private final Path file;
+
+        private final long maxBytes;
+
+        private final int maxFiles;
+
+        private FileChannel channel;
+
+        private long size;
+
+        RollingFile(Path file, long maxBytes, int maxFiles) throws IOException {
+            this.file = file;
+            this.maxBytes = maxBytes;
+            this.maxFiles = Math.max(1, maxFiles);
+            open();
+        }
+
+        @Override
+        public void write(byte[] lines) throws IOException {
+            if (size > 0 && size + lines.length > maxBytes) {
+                roll();
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(lines);
+            while (buffer.hasRemaining()) {
+                size += channel.write(buffer);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private void open() throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            size = channel.size();
+        }
+
+        private void roll() throws IOException {
+            channel.close();
+            if (maxFiles == 1) {
+                Files.deleteIfExists(file);
+            }
+            for (int i = maxFiles - 2; i >= 0; i--) {
+                Path source = (i == 0) ? file : rolled(i);
+                if (Files.exists(source)) {
+                    Files.move(source, rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            open();
+        }
+
+        private Path rolled(int index) {
+            return file.resolveSibling(file.getFileName() + "." + index);
+        }
+    }
+
+    /**
+     * Bounded multi-producer, single-consumer queue. Each slot carries a sequence number telling whether it is free
+     * for the producer of a position or holds the record for the consumer, so that producers only contend on the
+     * compare-and-set of the tail and never take a lock.
+     */
+    static class RingBuffer {
+
+        private final int mask;
+
+        private final AtomicReferenceArray<AuditRecord> slots;
+
+        private final AtomicLongArray sequences;
+
+        private final AtomicLong tail = new AtomicLong();
+
+        /**
+         * Next position to take, only used by the writer thread.
+         */
+        private volatile long head;
+
+        RingBuffer(int capacity) {
+            int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+            mask = size - 1;
+            slots = new AtomicReferenceArray<>(size);
+            sequences = new AtomicLongArray(size);
+            for (int i = 0; i < size; i++) {
+                sequences.set(i, i);
+            }
+        }
+
+        boolean offer(AuditRecord record) {
+            while (true) {
+                long position = tail.get();
+                int index = (int) (position & mask);
+                long available = sequences.get(index) - position;
+                if (available == 0) {
+                    if (tail.compareAndSet(position, position + 1)) {
+                        slots.lazySet(index, record);
+                        sequences.set(index, position + 1);
+                        return true;
+                    }
+                } else if (available < 0) {
+                    // the slot still holds the record written one lap ago
+                    return false;
+                }
+            }
+        }
+
+        AuditRecord poll() {
+            long position = head;
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                return null;
+            }
+            AuditRecord record = slots.get(index);
+            slots.lazySet(index, null);
+            head = position + 1;
+            sequences.set(index, position + mask + 1);
+            return record;
+        }
+
+        boolean isEmpty() {
+            long position = head;
+            return sequences.get((int) (position & mask)) != position + 1;
+        }
+    }
+}
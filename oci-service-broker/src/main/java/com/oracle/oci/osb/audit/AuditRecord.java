@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.audit;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.oracle.oci.osb.store.ServiceData;
+
+import java.time.Instant;
+
+/**
+ * AuditRecord is the audit log entry of a request made to the broker, written as a single JSON line. The fields are
+ * those of the former pipe delimited audit message, each under its own name.
+ * <p>
+ * The service data is copied when the record is built, as it is serialized later by the audit writer while the
+ * request handlers may still change it.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"version", "time", "operation", "status", "user", "serviceId", "serviceName", "planId",
+        "instanceId", "bindingId", "serviceData"})
+public class AuditRecord {
+
+    /**
+     * Version of the record schema, incremented when a field is renamed or removed.
+     */
+    public static final int VERSION = 1;
+
+    private final String time;
+
+    private final String operation;
+
+    private final Integer status;
+
+    private final String user;
+
+    private final String serviceId;
+
+    private final String serviceName;
+
+    private final String planId;
+
+    private final String instanceId;
+
+    private final String bindingId;
+
+    private final ServiceData serviceData;
+
+    private AuditRecord(Builder builder) {
+        this.time = Instant.ofEpochMilli(builder.timeMillis).toString();
+        this.operation = builder.operation;
+        this.status = builder.status;
+        this.user = builder.user;
+        this.serviceId = builder.serviceId;
+        this.serviceName = builder.serviceName;
+        this.planId = builder.planId;
+        this.instanceId = builder.instanceId;
+        this.bindingId = builder.bindingId;
+        this.serviceData = builder.serviceData;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getVersion() {
+        return VERSION;
+    }
+
+    /**
+     * @return when the request completed, as an ISO-8601 instant.
+     */
+    public String getTime() {
+        return time;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    /**
+     * @return the HTTP status of the response, null if the request got no response.
+     */
+    public Integer getStatus() {
+        return status;
+    }
+
+    /**
+     * @return the user the request was made on behalf of, from the originating identity header.
+     */
+    public String getUser() {
+        return user;
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public String getPlanId() {
+        return planId;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public String getBindingId() {
+        return bindingId;
+    }
+
+    public ServiceData getServiceData() {
+        return serviceData;
+    }
+
+    public static class Builder {
+
+        private long timeMillis = System.currentTimeMillis();
+
+        private String operation;
+
+        private Integer status;
+
+        private String user;
+
+        private String serviceId;
+
+        private String serviceName;
+
+        private String planId;
+
+        private String instanceId;
+
+        private String bindingId;
+
+        private ServiceData serviceData;
+
+        public Builder timeMillis(long timeMillis) {
+            this.timeMillis = timeMillis;
+            return this;
+        }
+
+        public Builder operation(String operation) {
+            this.operation = operation;
+            return this;
+        }
+
+        public Builder status(Integer status) {
+            this.status = status;
+            return this;
+        }
+
+        public Builder user(String user) {
+            this.user = user;
+            return this;
+        }
+
+        public Builder serviceId(String serviceId) {
+            this.serviceId = serviceId;
+            return this;
+        }
+
+        public Builder serviceName(String serviceName) {
+            this.serviceName = serviceName;
+            return this;
+        }
+
+        public Builder planId(String planId) {
+            this.planId = planId;
+            return this;
+        }
+
+        public Builder instanceId(String instanceId) {
+            this.instanceId = instanceId;
+            return this;
+        }
+
+        public Builder bindingId(String bindingId) {
+            this.bindingId = bindingId;
+            return this;
+        }
+
+        public Builder serviceData(ServiceData serviceData) {
+            this.serviceData = (serviceData != null) ? serviceData.copy() : null;
+            return this;
+        }
+
+        public AuditRecord build() {
+            return new AuditRecord(this);
+        }
+    }
+}
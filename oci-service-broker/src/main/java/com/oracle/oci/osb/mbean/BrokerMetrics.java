@@ -5,290 +5,611 @@
 
 package com.oracle.oci.osb.mbean;
 
-import java.util.concurrent.atomic.AtomicLong;
+import com.oracle.oci.osb.mbean.GaugeRegistry.Gauge;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Concrete implementation of {@link BrokerMetricsMBean}.
  */
 public class BrokerMetrics implements BrokerMetricsMBean {
 
+    /**
+     * OSB operations for which the latency is recorded.
+     */
+    public enum Operation {
+        PROVISION, UPDATE, DEPROVISION, BIND, UNBIND, GET_INSTANCE, GET_BINDING, LAST_OPERATION_INSTANCE,
+        LAST_OPERATION_BINDING
+    }
+
+    /**
+     * Latency of the requests, per operation.
+     */
+    private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+
+    /**
+     * Time spent by a request in the DataStore.
+     */
+    private final LatencyHistogram dataStoreLatency = new LatencyHistogram();
+
+    /**
+     * Time spent by a request in the service adapter.
+     */
+    private final LatencyHistogram adapterLatency = new LatencyHistogram();
+
+    /**
+     * Count of requests by operation, service, plan and status code.
+     */
+    private final RequestCounters requestCounters = new RequestCounters();
+
+    public BrokerMetrics() {
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+        }
+    }
+
     /**
      * Count of total number of requests.
      */
-    private AtomicLong requestCount = new AtomicLong();
+    private final LongAdder requestCount = new LongAdder();
 
     /**
      * Count of total number of failed requests.
      */
-    private AtomicLong failedRequestCount = new AtomicLong();
+    private final LongAdder failedRequestCount = new LongAdder();
 
     /**
      * Count of total number of provision requests.
      */
-    private AtomicLong provisionRequestcount = new AtomicLong();
+    private final LongAdder provisionRequestcount = new LongAdder();
 
     /**
      * Count of total number of failed provision requests.
      */
-    private AtomicLong failedProvisionRequestcount = new AtomicLong();
+    private final LongAdder failedProvisionRequestcount = new LongAdder();
 
     /**
      * Count of total number of binding requests.
      */
-    private AtomicLong bindingRequestcount = new AtomicLong();
+    private final LongAdder bindingRequestcount = new LongAdder();
 
     /**
      * Count of total number of failed binding requests.
      */
-    private AtomicLong failedBindingRequestcount = new AtomicLong();
+    private final LongAdder failedBindingRequestcount = new LongAdder();
 
     /**
      * Count of total number of deprovision requests.
      */
-    private AtomicLong deprovisionRequestcount = new AtomicLong();
+    private final LongAdder deprovisionRequestcount = new LongAdder();
 
     /**
      * Count of total number of failed deprovision requests.
      */
-    private AtomicLong failedDeprovisionRequestcount = new AtomicLong();
+    private final LongAdder failedDeprovisionRequestcount = new LongAdder();
 
     /**
      * Count of total number of unbind requests.
      */
-    private AtomicLong unbindRequestcount = new AtomicLong();
+    private final LongAdder unbindRequestcount = new LongAdder();
 
     /**
      * Count of total number of failed unbind requests.
      */
-    private AtomicLong failedUnbindRequestcount = new AtomicLong();
+    private final LongAdder failedUnbindRequestcount = new LongAdder();
 
     /**
      * Count of total number of last operation(instance level) requests.
      */
-    private AtomicLong lastOperationInstanceRequestcount = new AtomicLong();
+    private final LongAdder lastOperationInstanceRequestcount = new LongAdder();
 
     /**
      * Count of total number of failed last operation(instance level) requests.
      */
-    private AtomicLong failedlastOperationInstanceRequestcount = new AtomicLong();
+    private final LongAdder failedlastOperationInstanceRequestcount = new LongAdder();
 
     /**
      * Count of total number of update requests.
      */
-    private AtomicLong updateRequestcount = new AtomicLong();
+    private final LongAdder updateRequestcount = new LongAdder();
 
     /**
      * Count of total number of failed update requests.
      */
-    private AtomicLong failedUpdateRequestcount = new AtomicLong();
+    private final LongAdder failedUpdateRequestcount = new LongAdder();
 
     /**
      * Count of total number of GetInstance requests.
      */
-    private AtomicLong getInstanceRequestcount = new AtomicLong();
+    private final LongAdder getInstanceRequestcount = new LongAdder();
 
     /**
      * Count of total number of failed GetInstance requests.
      */
-    private AtomicLong failedGetInstanceRequestcount = new AtomicLong();
+    private final LongAdder failedGetInstanceRequestcount = new LongAdder();
 
     /**
      * Count of total number of GetBinding requests.
      */
-    private AtomicLong getBindingRequestcount = new AtomicLong();
+    private final LongAdder getBindingRequestcount = new LongAdder();
 
     /**
      * Count of total number of failed GetBinding requests.
      */
-    private AtomicLong failedGetBindingRequestcount = new AtomicLong();
+    private final LongAdder failedGetBindingRequestcount = new LongAdder();
 
     /**
      * Count of total number of last operation(binding level) requests.
      */
-    private AtomicLong lastOperationBindingRequestcount = new AtomicLong();
+    private final LongAdder lastOperationBindingRequestcount = new LongAdder();
 
     /**
      * Count of total number of failed last operation(binding level) requests.
      */
-    private AtomicLong failedlastOperationBindingRequestcount = new AtomicLong();
+    private final LongAdder failedlastOperationBindingRequestcount = new LongAdder();
+
+    /**
+     * Count of total number of requests rejected as the broker was busy.
+     */
+    private final LongAdder rejectedRequestcount = new LongAdder();
 
     @Override
     public long getRequestCount() {
-        return requestCount.get();
+        return requestCount.sum();
     }
 
     @Override
     public long getFailedRequestCount() {
-        return failedRequestCount.get();
+        return failedRequestCount.sum();
     }
 
     @Override
     public long getProvisionRequestCount() {
-        return provisionRequestcount.get();
+        return provisionRequestcount.sum();
     }
 
     @Override
     public long getFailedProvisionRequestCount() {
-        return failedProvisionRequestcount.get();
+        return failedProvisionRequestcount.sum();
     }
 
     @Override
     public long getBindingRequestCount() {
-        return bindingRequestcount.get();
+        return bindingRequestcount.sum();
     }
 
     @Override
     public long getFailedBindingRequestCount() {
-        return failedBindingRequestcount.get();
+        return failedBindingRequestcount.sum();
     }
 
     @Override
     public long getDeprovisionRequestCount() {
-        return deprovisionRequestcount.get();
+        return deprovisionRequestcount.sum();
     }
 
     @Override
     public long getFailedDeprovisionRequestCount() {
-        return failedDeprovisionRequestcount.get();
+        return failedDeprovisionRequestcount.sum();
     }
 
     @Override
     public long getUnbindRequestCount() {
-        return unbindRequestcount.get();
+        return unbindRequestcount.sum();
     }
 
     @Override
     public long getFailedUnbindRequestCount() {
-        return failedUnbindRequestcount.get();
+        return failedUnbindRequestcount.sum();
     }
 
     @Override
     public long getLastOperationInstanceRequestCount() {
-        return lastOperationInstanceRequestcount.get();
+        return lastOperationInstanceRequestcount.sum();
     }
 
     @Override
     public long getFailedLastOperationInstanceRequestCount() {
-        return failedlastOperationInstanceRequestcount.get();
+        return failedlastOperationInstanceRequestcount.sum();
     }
 
     @Override
     public long getLastOperationBindingRequestCount() {
-        return lastOperationBindingRequestcount.get();
+        return lastOperationBindingRequestcount.sum();
     }
 
     @Override
     public long getFailedLastOperationBindingRequestCount() {
-        return failedlastOperationBindingRequestcount.get();
+        return failedlastOperationBindingRequestcount.sum();
     }
 
     @Override
     public long getUpdateRequestCount() {
-        return updateRequestcount.get();
+        return updateRequestcount.sum();
     }
 
     @Override
     public long getFailedUpdateRequestCount() {
-        return failedUpdateRequestcount.get();
+        return failedUpdateRequestcount.sum();
     }
 
     @Override
     public long getGetInstanceRequestCount() {
-        return getInstanceRequestcount.get();
+        return getInstanceRequestcount.sum();
     }
 
     @Override
     public long getFailedGetInstanceRequestCount() {
-        return failedGetInstanceRequestcount.get();
+        return failedGetInstanceRequestcount.sum();
     }
 
     @Override
     public long getGetBindingRequestCount() {
-        return getBindingRequestcount.get();
+        return getBindingRequestcount.sum();
     }
 
     @Override
     public long getFailedGetBindingRequestCount() {
-        return failedGetBindingRequestcount.get();
+        return failedGetBindingRequestcount.sum();
+    }
+
+    @Override
+    public long getRejectedRequestCount() {
+        return rejectedRequestcount.sum();
+    }
+
+    @Override
+    public long getDataStoreCacheHitCount() {
+        return GaugeRegistry.get(Gauge.DATA_STORE_CACHE_HITS);
+    }
+
+    @Override
+    public long getDataStoreCacheMissCount() {
+        return GaugeRegistry.get(Gauge.DATA_STORE_CACHE_MISSES);
+    }
+
+    @Override
+    public long getWalletCacheHitCount() {
+        return GaugeRegistry.get(Gauge.WALLET_CACHE_HITS);
+    }
+
+    @Override
+    public long getWalletCacheMissCount() {
+        return GaugeRegistry.get(Gauge.WALLET_CACHE_MISSES);
+    }
+
+    @Override
+    public long getPreauthenticatedRequestListAvoidedCount() {
+        return GaugeRegistry.get(Gauge.PAR_INDEX_LISTS_AVOIDED);
+    }
+
+    @Override
+    public long getPreauthenticatedRequestListCount() {
+        return GaugeRegistry.get(Gauge.PAR_INDEX_LISTS);
+    }
+
+    @Override
+    public long getAuditRecordCount() {
+        return GaugeRegistry.get(Gauge.AUDIT_RECORDS);
+    }
+
+    @Override
+    public long getAuditDroppedCount() {
+        return GaugeRegistry.get(Gauge.AUDIT_DROPPED);
+    }
+
+    @Override
+    public long getAuditBlockedCount() {
+        return GaugeRegistry.get(Gauge.AUDIT_BLOCKED);
+    }
+
+    @Override
+    public long getAdapterRejectedOperationCount() {
+        return GaugeRegistry.get(Gauge.ADAPTER_REJECTED_OPERATIONS);
+    }
+
+    @Override
+    public long getOciRetryCount() {
+        return GaugeRegistry.get(Gauge.OCI_RETRIES);
+    }
+
+    @Override
+    public long getOciThrottledCount() {
+        return GaugeRegistry.get(Gauge.OCI_THROTTLED);
     }
 
     public void incrementServiceBindingRequestCount() {
-        bindingRequestcount.incrementAndGet();
+        bindingRequestcount.increment();
     }
 
     public void incrementFailedServiceBindingRequestCount() {
-        failedBindingRequestcount.incrementAndGet();
+        failedBindingRequestcount.increment();
     }
 
     public void incrementProvisionRequestCount() {
-        provisionRequestcount.incrementAndGet();
+        provisionRequestcount.increment();
     }
 
     public void incrementFailedProvisionRequestCount() {
-        failedProvisionRequestcount.incrementAndGet();
+        failedProvisionRequestcount.increment();
     }
 
     public void incrementUnBindRequestCount() {
-        unbindRequestcount.incrementAndGet();
+        unbindRequestcount.increment();
     }
 
     public void incrementFailedUnBindRequestCount() {
-        failedUnbindRequestcount.incrementAndGet();
+        failedUnbindRequestcount.increment();
     }
 
     public void incrementDeprovisionRequestCount() {
-        deprovisionRequestcount.incrementAndGet();
+        deprovisionRequestcount.increment();
     }
 
     public void incrementFailedDeprovisionRequestCount() {
-        failedDeprovisionRequestcount.incrementAndGet();
+        failedDeprovisionRequestcount.increment();
     }
 
     public void incrementUpdateRequestCount() {
-        updateRequestcount.incrementAndGet();
+        updateRequestcount.increment();
     }
 
     public void incrementFailedUpdateRequestCount() {
-        failedUpdateRequestcount.incrementAndGet();
+        failedUpdateRequestcount.increment();
     }
 
     public void incrementServiceBindingLastOperationCount() {
-        lastOperationBindingRequestcount.incrementAndGet();
+        lastOperationBindingRequestcount.increment();
     }
 
     public void incrementFailedServiceBindingLastOperationCount() {
-        failedlastOperationBindingRequestcount.incrementAndGet();
+        failedlastOperationBindingRequestcount.increment();
     }
 
     public void incrementServiceLastOperationCount() {
-        lastOperationInstanceRequestcount.incrementAndGet();
+        lastOperationInstanceRequestcount.increment();
     }
 
     public void incrementFailedServiceLastOperationCount() {
-        failedlastOperationInstanceRequestcount.incrementAndGet();
+        failedlastOperationInstanceRequestcount.increment();
     }
 
     public void incrementServiceBindingGetOperationCount() {
-        getBindingRequestcount.incrementAndGet();
+        getBindingRequestcount.increment();
     }
 
     public void incrementFailedServiceBindinGetOperationCount() {
-        failedGetBindingRequestcount.incrementAndGet();
+        failedGetBindingRequestcount.increment();
     }
 
     public void incrementInstanceGetOperationCount() {
-        getInstanceRequestcount.incrementAndGet();
+        getInstanceRequestcount.increment();
     }
 
     public void incrementFailedInstanceGetOperationCount() {
-        failedGetInstanceRequestcount.incrementAndGet();
+        failedGetInstanceRequestcount.increment();
     }
 
     public void incrementTotalRequestCount() {
-        requestCount.incrementAndGet();
+        requestCount.increment();
     }
 
     public void incrementFailedTotalRequestCount() {
-        failedRequestCount.incrementAndGet();
+        failedRequestCount.increment();
+    }
+
+    public void incrementRejectedRequestCount() {
+        rejectedRequestcount.increment();
+    }
+
+    @Override
+    public double getProvisionLatencyP50() {
+        return latencies.get(Operation.PROVISION).getPercentile(50);
+    }
+
+    @Override
+    public double getProvisionLatencyP99() {
+        return latencies.get(Operation.PROVISION).getPercentile(99);
+    }
+
+    @Override
+    public double getProvisionLatencyP999() {
+        return latencies.get(Operation.PROVISION).getPercentile(99.9);
+    }
+
+    @Override
+    public double getUpdateLatencyP50() {
+        return latencies.get(Operation.UPDATE).getPercentile(50);
+    }
+
+    @Override
+    public double getUpdateLatencyP99() {
+        return latencies.get(Operation.UPDATE).getPercentile(99);
+    }
+
+    @Override
+    public double getUpdateLatencyP999() {
+        return latencies.get(Operation.UPDATE).getPercentile(99.9);
+    }
+
+    @Override
+    public double getDeprovisionLatencyP50() {
+        return latencies.get(Operation.DEPROVISION).getPercentile(50);
+    }
+
+    @Override
+    public double getDeprovisionLatencyP99() {
+        return latencies.get(Operation.DEPROVISION).getPercentile(99);
+    }
+
+    @Override
+    public double getDeprovisionLatencyP999() {
+        return latencies.get(Operation.DEPROVISION).getPercentile(99.9);
+    }
+
+    @Override
+    public double getBindLatencyP50() {
+        return latencies.get(Operation.BIND).getPercentile(50);
+    }
+
+    @Override
+    public double getBindLatencyP99() {
+        return latencies.get(Operation.BIND).getPercentile(99);
+    }
+
+    @Override
+    public double getBindLatencyP999() {
+        return latencies.get(Operation.BIND).getPercentile(99.9);
+    }
+
+    @Override
+    public double getUnbindLatencyP50() {
+        return latencies.get(Operation.UNBIND).getPercentile(50);
+    }
+
+    @Override
+    public double getUnbindLatencyP99() {
+        return latencies.get(Operation.UNBIND).getPercentile(99);
+    }
+
+    @Override
+    public double getUnbindLatencyP999() {
+        return latencies.get(Operation.UNBIND).getPercentile(99.9);
+    }
+
+    @Override
+    public double getGetInstanceLatencyP50() {
+        return latencies.get(Operation.GET_INSTANCE).getPercentile(50);
+    }
+
+    @Override
+    public double getGetInstanceLatencyP99() {
+        return latencies.get(Operation.GET_INSTANCE).getPercentile(99);
+    }
+
+    @Override
+    public double getGetInstanceLatencyP999() {
+        return latencies.get(Operation.GET_INSTANCE).getPercentile(99.9);
+    }
+
+    @Override
+    public double getGetBindingLatencyP50() {
+        return latencies.get(Operation.GET_BINDING).getPercentile(50);
+    }
+
+    @Override
+    public double getGetBindingLatencyP99() {
+        return latencies.get(Operation.GET_BINDING).getPercentile(99);
+    }
+
+    @Override
+    public double getGetBindingLatencyP999() {
+        return latencies.get(Operation.GET_BINDING).getPercentile(99.9);
+    }
+
+    @Override
+    public double getLastOperationInstanceLatencyP50() {
+        return latencies.get(Operation.LAST_OPERATION_INSTANCE).getPercentile(50);
+    }
+
+    @Override
+    public double getLastOperationInstanceLatencyP99() {
+        return latencies.get(Operation.LAST_OPERATION_INSTANCE).getPercentile(99);
+    }
+
+    @Override
+    public double getLastOperationInstanceLatencyP999() {
+        return latencies.get(Operation.LAST_OPERATION_INSTANCE).getPercentile(99.9);
+    }
+
+    @Override
+    public double getLastOperationBindingLatencyP50() {
+        return latencies.get(Operation.LAST_OPERATION_BINDING).getPercentile(50);
+    }
+
+    @Override
+    public double getLastOperationBindingLatencyP99() {
+        return latencies.get(Operation.LAST_OPERATION_BINDING).getPercentile(99);
+    }
+
+    @Override
+    public double getLastOperationBindingLatencyP999() {
+        return latencies.get(Operation.LAST_OPERATION_BINDING).getPercentile(99.9);
+    }
+
+    @Override
+    public double getDataStoreLatencyP50() {
+        return dataStoreLatency.getPercentile(50);
+    }
+
+    @Override
+    public double getDataStoreLatencyP99() {
+        return dataStoreLatency.getPercentile(99);
+    }
+
+    @Override
+    public double getDataStoreLatencyP999() {
+        return dataStoreLatency.getPercentile(99.9);
+    }
+
+    @Override
+    public double getAdapterLatencyP50() {
+        return adapterLatency.getPercentile(50);
+    }
+
+    @Override
+    public double getAdapterLatencyP99() {
+        return adapterLatency.getPercentile(99);
+    }
+
+    @Override
+    public double getAdapterLatencyP999() {
+        return adapterLatency.getPercentile(99.9);
+    }
+
+    /**
+     * Records the latency of a request.
+     *
+     * @param operation      operation requested.
+     * @param nanos          total time taken to process the request.
+     * @param dataStoreNanos time spent in the DataStore.
+     * @param adapterNanos   time spent in the service adapter.
+     */
+    public void recordLatency(Operation operation, long nanos, long dataStoreNanos, long adapterNanos) {
+        latencies.get(operation).record(nanos);
+        dataStoreLatency.record(dataStoreNanos);
+        adapterLatency.record(adapterNanos);
+    }
+
+    /**
+     * Counts a request against its service, plan and response status code. Ids that are not in the catalog are
+     * counted as unknown, as they may come from the client.
+     *
+     * @param operation  operation requested.
+     * @param serviceId  service of the request, null if not known.
+     * @param planId     plan of the request, null if not known.
+     * @param statusCode response status code.
+     */
+    public void recordRequest(Operation operation, String serviceId, String planId, int statusCode) {
+        requestCounters.increment(operation, RequestLabels.catalogIdOrNull(serviceId),
+                RequestLabels.catalogIdOrNull(planId), statusCode);
+    }
+
+    public RequestCounters getRequestCounters() {
+        return requestCounters;
+    }
+
+    public LatencyHistogram getLatencyHistogram(Operation operation) {
+        return latencies.get(operation);
+    }
+
+    public LatencyHistogram getDataStoreLatencyHistogram() {
+        return dataStoreLatency;
+    }
+
+    public LatencyHistogram getAdapterLatencyHistogram() {
+        return adapterLatency;
     }
 }
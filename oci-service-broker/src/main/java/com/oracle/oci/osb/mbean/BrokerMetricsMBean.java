@@ -110,4 +110,235 @@ public interface BrokerMetricsMBean {
      */
     long getFailedLastOperationBindingRequestCount();
 
+    /**
+     * @return the total number of requests rejected as the broker was busy
+     */
+    long getRejectedRequestCount();
+
+    /**
+     * @return the total number of DataStore lookups served from the cache
+     */
+    long getDataStoreCacheHitCount();
+
+    /**
+     * @return the total number of DataStore lookups not served from the cache
+     */
+    long getDataStoreCacheMissCount();
+
+    /**
+     * @return the total number of Autonomous Database binds served from the wallet cache
+     */
+    long getWalletCacheHitCount();
+
+    /**
+     * @return the total number of Autonomous Database binds that downloaded a wallet
+     */
+    long getWalletCacheMissCount();
+
+    /**
+     * @return the total number of Object Storage binds that found the pre-authenticated requests of the bucket in
+     * the index instead of listing them
+     */
+    long getPreauthenticatedRequestListAvoidedCount();
+
+    /**
+     * @return the total number of pre-authenticated request listings made to fill the Object Storage index
+     */
+    long getPreauthenticatedRequestListCount();
+
+    /**
+     * @return the total number of audit records written
+     */
+    long getAuditRecordCount();
+
+    /**
+     * @return the total number of audit records dropped as the audit buffer was full or they could not be written
+     */
+    long getAuditDroppedCount();
+
+    /**
+     * @return the total number of audit records that found the audit buffer full and waited for the writer
+     */
+    long getAuditBlockedCount();
+
+    /**
+     * @return the total number of adapter operations rejected as the bulkhead of the adapter was full
+     */
+    long getAdapterRejectedOperationCount();
+
+    /**
+     * @return the total number of OCI calls retried after being throttled or failing
+     */
+    long getOciRetryCount();
+
+    /**
+     * @return the total number of OCI calls throttled by OCI
+     */
+    long getOciThrottledCount();
+
+    /**
+     * @return the 50th percentile latency of provision requests, in milliseconds
+     */
+    double getProvisionLatencyP50();
+
+    /**
+     * @return the 99th percentile latency of provision requests, in milliseconds
+     */
+    double getProvisionLatencyP99();
+
+    /**
+     * @return the 99.9th percentile latency of provision requests, in milliseconds
+     */
+    double getProvisionLatencyP999();
+
+    /**
+     * @return the 50th percentile latency of update requests, in milliseconds
+     */
+    double getUpdateLatencyP50();
+
+    /**
+     * @return the 99th percentile latency of update requests, in milliseconds
+     */
+    double getUpdateLatencyP99();
+
+    /**
+     * @return the 99.9th percentile latency of update requests, in milliseconds
+     */
+    double getUpdateLatencyP999();
+
+    /**
+     * @return the 50th percentile latency of deprovision requests, in milliseconds
+     */
+    double getDeprovisionLatencyP50();
+
+    /**
+     * @return the 99th percentile latency of deprovision requests, in milliseconds
+     */
+    double getDeprovisionLatencyP99();
+
+    /**
+     * @return the 99.9th percentile latency of deprovision requests, in milliseconds
+     */
+    double getDeprovisionLatencyP999();
+
+    /**
+     * @return the 50th percentile latency of binding requests, in milliseconds
+     */
+    double getBindLatencyP50();
+
+    /**
+     * @return the 99th percentile latency of binding requests, in milliseconds
+     */
+    double getBindLatencyP99();
+
+    /**
+     * @return the 99.9th percentile latency of binding requests, in milliseconds
+     */
+    double getBindLatencyP999();
+
+    /**
+     * @return the 50th percentile latency of unbind requests, in milliseconds
+     */
+    double getUnbindLatencyP50();
+
+    /**
+     * @return the 99th percentile latency of unbind requests, in milliseconds
+     */
+    double getUnbindLatencyP99();
+
+    /**
+     * @return the 99.9th percentile latency of unbind requests, in milliseconds
+     */
+    double getUnbindLatencyP999();
+
+    /**
+     * @return the 50th percentile latency of GetInstance requests, in milliseconds
+     */
+    double getGetInstanceLatencyP50();
+
+    /**
+     * @return the 99th percentile latency of GetInstance requests, in milliseconds
+     */
+    double getGetInstanceLatencyP99();
+
+    /**
+     * @return the 99.9th percentile latency of GetInstance requests, in milliseconds
+     */
+    double getGetInstanceLatencyP999();
+
+    /**
+     * @return the 50th percentile latency of GetBinding requests, in milliseconds
+     */
+    double getGetBindingLatencyP50();
+
+    /**
+     * @return the 99th percentile latency of GetBinding requests, in milliseconds
+     */
+    double getGetBindingLatencyP99();
+
+    /**
+     * @return the 99.9th percentile latency of GetBinding requests, in milliseconds
+     */
+    double getGetBindingLatencyP999();
+
+    /**
+     * @return the 50th percentile latency of last operation requests for instance specific operations, in milliseconds
+     */
+    double getLastOperationInstanceLatencyP50();
+
+    /**
+     * @return the 99th percentile latency of last operation requests for instance specific operations, in milliseconds
+     */
+    double getLastOperationInstanceLatencyP99();
+
+    /**
+     * @return the 99.9th percentile latency of last operation requests for instance specific operations, in milliseconds
+     */
+    double getLastOperationInstanceLatencyP999();
+
+    /**
+     * @return the 50th percentile latency of last operation requests for binding specific operations, in milliseconds
+     */
+    double getLastOperationBindingLatencyP50();
+
+    /**
+     * @return the 99th percentile latency of last operation requests for binding specific operations, in milliseconds
+     */
+    double getLastOperationBindingLatencyP99();
+
+    /**
+     * @return the 99.9th percentile latency of last operation requests for binding specific operations, in milliseconds
+     */
+    double getLastOperationBindingLatencyP999();
+
+    /**
+     * @return the 50th percentile of the time a request spends in the DataStore, in milliseconds
+     */
+    double getDataStoreLatencyP50();
+
+    /**
+     * @return the 99th percentile of the time a request spends in the DataStore, in milliseconds
+     */
+    double getDataStoreLatencyP99();
+
+    /**
+     * @return the 99.9th percentile of the time a request spends in the DataStore, in milliseconds
+     */
+    double getDataStoreLatencyP999();
+
+    /**
+     * @return the 50th percentile of the time a request spends in the service adapter, mostly calling OCI, in milliseconds
+     */
+    double getAdapterLatencyP50();
+
+    /**
+     * @return the 99th percentile of the time a request spends in the service adapter, mostly calling OCI, in milliseconds
+     */
+    double getAdapterLatencyP99();
+
+    /**
+     * @return the 99.9th percentile of the time a request spends in the service adapter, mostly calling OCI, in milliseconds
+     */
+    double getAdapterLatencyP999();
+
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.mbean;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * GaugeRegistry holds the values that the subsystems of the broker (stores, caches, audit log, bulkheads, OCI clients)
+ * expose through {@link BrokerMetricsMBean}. Each subsystem registers its gauges once it is created, so the metrics
+ * do not depend on the subsystems. A gauge that was not registered, as its subsystem is not in use, reads 0.
+ */
+public final class GaugeRegistry {
+
+    /**
+     * Gauges exposed through {@link BrokerMetricsMBean}.
+     */
+    public enum Gauge {
+        DATA_STORE_CACHE_HITS, DATA_STORE_CACHE_MISSES, WALLET_CACHE_HITS, WALLET_CACHE_MISSES,
+        PAR_INDEX_LISTS_AVOIDED, PAR_INDEX_LISTS, AUDIT_RECORDS, AUDIT_DROPPED, AUDIT_BLOCKED,
+        ADAPTER_REJECTED_OPERATIONS, OCI_RETRIES, OCI_THROTTLED
+    }
+
+    private static final Map<Gauge, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    private GaugeRegistry() {
+    }
+
+    /**
+     * Registers the value of a gauge, replacing the value registered before.
+     *
+     * @param gauge gauge to register.
+     * @param value reads the current value of the gauge.
+     */
+    public static void register(Gauge gauge, LongSupplier value) {
+        gauges.put(gauge, value);
+    }
+
+    /**
+     * @param gauge gauge to read.
+     * @return the current value of the gauge, 0 if it was not registered.
+     */
+    public static long get(Gauge gauge) {
+        LongSupplier value = gauges.get(gauge);
+        return (value != null) ? value.getAsLong() : 0;
+    }
+}
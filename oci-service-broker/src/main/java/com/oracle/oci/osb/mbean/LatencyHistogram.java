@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.mbean;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram records latencies into log-linear buckets, in the style of an HDR histogram. Each power of two
+ * range of microseconds is split into {@value #SUB_BUCKETS} linear buckets, so a percentile read from the histogram
+ * is within about 6% of the recorded value, from one microsecond up to several hours. Recording is lock free and
+ * takes constant time.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Values from 2^MAX_EXPONENT microseconds (about 9.5 hours) onwards are recorded in the last bucket.
+     */
+    private static final int MAX_EXPONENT = 35;
+
+    private static final int BUCKETS = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final LongAdder sumNanos = new LongAdder();
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos latency in nanoseconds.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketIndex(TimeUnit.NANOSECONDS.toMicros(value)));
+        sumNanos.add(value);
+    }
+
+    /**
+     * Returns the latency at the given percentile of the recorded values.
+     *
+     * @param percentile percentile between 0 and 100.
+     * @return latency in milliseconds, 0 if no value has been recorded.
+     */
+    public double getPercentile(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return bucketMidpointMicros(i) / 1000.0;
+            }
+        }
+        return bucketMidpointMicros(BUCKETS - 1) / 1000.0;
+    }
+
+    /**
+     * @return the number of recorded values.
+     */
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * @return the sum of the recorded values, in nanoseconds.
+     */
+    public long getSum() {
+        return sumNanos.sum();
+    }
+
+    private static int bucketIndex(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    private static double bucketMidpointMicros(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        long lowerBound = (1L << exponent) + subBucket * width;
+        return lowerBound + width / 2.0;
+    }
+}
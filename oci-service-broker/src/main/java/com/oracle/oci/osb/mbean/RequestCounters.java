@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.mbean;
+
+import com.oracle.oci.osb.mbean.BrokerMetrics.Operation;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RequestCounters counts the requests by operation, service, plan and response status code.
+ * <p>
+ * The counters are looked up through nested maps keyed by the labels and an array indexed by the status code, so
+ * once a counter exists, counting a request neither allocates nor contends on a shared cache line.
+ */
+public class RequestCounters {
+
+    /**
+     * Label used when the service or plan of a request is not known.
+     */
+    public static final String UNKNOWN = "unknown";
+
+    private static final int MAX_STATUS_CODE = 600;
+
+    private static final int EXPECTED_SERVICES = 8;
+
+    private static final int EXPECTED_PLANS = 8;
+
+    private final Map<Operation, ConcurrentHashMap<String, ConcurrentHashMap<String, StatusCounters>>> counters =
+            new EnumMap<>(Operation.class);
+
+    public RequestCounters() {
+        for (Operation operation : Operation.values()) {
+            counters.put(operation, new ConcurrentHashMap<>(EXPECTED_SERVICES));
+        }
+    }
+
+    /**
+     * Counts a request.
+     *
+     * @param operation  operation requested.
+     * @param serviceId  service of the request, null if not known.
+     * @param planId     plan of the request, null if not known.
+     * @param statusCode response status code.
+     */
+    public void increment(Operation operation, String serviceId, String planId, int statusCode) {
+        ConcurrentHashMap<String, ConcurrentHashMap<String, StatusCounters>> byService = counters.get(operation);
+        String service = (serviceId != null) ? serviceId : UNKNOWN;
+        ConcurrentHashMap<String, StatusCounters> byPlan = byService.get(service);
+        if (byPlan == null) {
+            byPlan = byService.computeIfAbsent(service, s -> new ConcurrentHashMap<>(EXPECTED_PLANS));
+        }
+        String plan = (planId != null) ? planId : UNKNOWN;
+        StatusCounters byStatus = byPlan.get(plan);
+        if (byStatus == null) {
+            byStatus = byPlan.computeIfAbsent(plan, p -> new StatusCounters());
+        }
+        byStatus.increment(statusCode);
+    }
+
+    /**
+     * Calls the visitor for every counter that has counted at least one request.
+     *
+     * @param visitor receives the labels and the value of each counter.
+     */
+    public void forEach(CounterVisitor visitor) {
+        for (Map.Entry<Operation, ConcurrentHashMap<String, ConcurrentHashMap<String, StatusCounters>>> opEntry :
+                counters.entrySet()) {
+            for (Map.Entry<String, ConcurrentHashMap<String, StatusCounters>> svcEntry : opEntry.getValue()
+                    .entrySet()) {
+                for (Map.Entry<String, StatusCounters> planEntry : svcEntry.getValue().entrySet()) {
+                    StatusCounters byStatus = planEntry.getValue();
+                    for (int status = 0; status < MAX_STATUS_CODE; status++) {
+                        LongAdder counter = byStatus.counters.get(status);
+                        if (counter != null) {
+                            visitor.visit(opEntry.getKey(), svcEntry.getKey(), planEntry.getKey(), status,
+                                    counter.sum());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Receives the counters from {@link #forEach(CounterVisitor)}.
+     */
+    public interface CounterVisitor {
+        void visit(Operation operation, String serviceId, String planId, int statusCode, long count);
+    }
+
+    private static class StatusCounters {
+
+        private final AtomicReferenceArray<LongAdder> counters = new AtomicReferenceArray<>(MAX_STATUS_CODE);
+
+        void increment(int statusCode) {
+            int index = (statusCode >= 0 && statusCode < MAX_STATUS_CODE) ? statusCode : 0;
+            LongAdder counter = counters.get(index);
+            if (counter == null) {
+                counters.compareAndSet(index, null, new LongAdder());
+                counter = counters.get(index);
+            }
+            counter.increment();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.mbean;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * RequestLabels holds the service and plan of the request being processed by the current thread, once they are
+ * known, so that the request can be counted against them in {@link BrokerMetrics}.
+ */
+public final class RequestLabels {
+
+    /**
+     * Ids of the services and plans in the catalog, the only ids the requests are counted against, so that ids sent
+     * by clients do not create counters.
+     */
+    private static final Set<String> catalogIds = ConcurrentHashMap.newKeySet();
+
+    private static final ThreadLocal<String[]> labels = ThreadLocal.withInitial(RequestLabels::newLabels);
+
+    private static final int SERVICE = 0;
+
+    private static final int PLAN = 1;
+
+    private RequestLabels() {
+    }
+
+    /**
+     * Clears the labels before a new request is processed on the current thread.
+     */
+    public static void reset() {
+        set(null, null);
+    }
+
+    /**
+     * @return the labels of the request processed by the current thread.
+     */
+    static String[] current() {
+        return labels.get();
+    }
+
+    /**
+     * Makes the given labels the labels of the request processed by the current thread.
+     *
+     * @return the labels of the thread before.
+     */
+    static String[] replace(String[] current) {
+        String[] previous = labels.get();
+        labels.set(current);
+        return previous;
+    }
+
+    static String[] newLabels() {
+        return new String[2];
+    }
+
+    public static void set(String serviceId, String planId) {
+        String[] current = labels.get();
+        current[SERVICE] = serviceId;
+        current[PLAN] = planId;
+    }
+
+    /**
+     * Adds the id of a service or plan of the catalog to the ids requests can be counted against.
+     */
+    public static void addCatalogId(String id) {
+        if (id != null) {
+            catalogIds.add(id);
+        }
+    }
+
+    /**
+     * @return the id if it is the id of a service or plan of the catalog, null otherwise.
+     */
+    static String catalogIdOrNull(String id) {
+        return (id != null && catalogIds.contains(id)) ? id : null;
+    }
+
+    public static String getServiceId() {
+        return labels.get()[SERVICE];
+    }
+
+    public static String getPlanId() {
+        return labels.get()[PLAN];
+    }
+}
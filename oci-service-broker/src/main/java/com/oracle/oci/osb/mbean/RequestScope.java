@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.mbean;
+
+import com.oracle.oci.osb.model.Identity;
+import com.oracle.oci.osb.util.OriginatingIdentity;
+
+import java.util.concurrent.Executor;
+
+/**
+ * RequestScope carries the per thread state of a request, its {@link RequestTimings}, {@link RequestLabels} and
+ * {@link OriginatingIdentity}, over to the threads that complete the request when it is processed asynchronously.
+ * <p>
+ * As an {@link Executor}, it runs the given tasks on the calling thread with the state of the request in place, and
+ * restores the state of the thread afterwards.
+ */
+public final class RequestScope implements Executor {
+
+    private final long[] timings;
+
+    private final String[] labels;
+
+    private final Identity identity;
+
+    private RequestScope(long[] timings, String[] labels, Identity identity) {
+        this.timings = timings;
+        this.labels = labels;
+        this.identity = identity;
+    }
+
+    /**
+     * @return the scope of the request processed by the current thread.
+     */
+    public static RequestScope current() {
+        return new RequestScope(RequestTimings.current(), RequestLabels.current(),
+                OriginatingIdentity.getIdentity());
+    }
+
+    /**
+     * Takes the state of the request processed by the current thread, which is left with a fresh state, so that the
+     * thread can process another request while this one completes elsewhere.
+     *
+     * @return the scope of the request.
+     */
+    public static RequestScope detach() {
+        RequestScope scope = current();
+        RequestTimings.replace(RequestTimings.newTimings());
+        RequestLabels.replace(RequestLabels.newLabels());
+        return scope;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        long[] previousTimings = RequestTimings.replace(timings);
+        String[] previousLabels = RequestLabels.replace(labels);
+        Identity previousIdentity = OriginatingIdentity.getIdentity();
+        OriginatingIdentity.setIdentity(identity);
+        try {
+            command.run();
+        } finally {
+            RequestTimings.replace(previousTimings);
+            RequestLabels.replace(previousLabels);
+            OriginatingIdentity.setIdentity(previousIdentity);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.mbean;
+
+/**
+ * RequestTimings accumulates the time the request being processed by the current thread spends in the DataStore
+ * and in the service adapters, so that it can be recorded in {@link BrokerMetrics} when the response is sent.
+ */
+public final class RequestTimings {
+
+    private static final ThreadLocal<long[]> timings = ThreadLocal.withInitial(RequestTimings::newTimings);
+
+    private static final int DATA_STORE = 0;
+
+    private static final int ADAPTER = 1;
+
+    private RequestTimings() {
+    }
+
+    /**
+     * Starts accumulating the timings of a new request on the current thread.
+     */
+    public static void reset() {
+        long[] current = timings.get();
+        current[DATA_STORE] = 0;
+        current[ADAPTER] = 0;
+    }
+
+    /**
+     * @return the timings of the request processed by the current thread.
+     */
+    static long[] current() {
+        return timings.get();
+    }
+
+    /**
+     * Makes the current thread accumulate into the given timings.
+     *
+     * @return the timings the thread accumulated into before.
+     */
+    static long[] replace(long[] current) {
+        long[] previous = timings.get();
+        timings.set(current);
+        return previous;
+    }
+
+    static long[] newTimings() {
+        return new long[2];
+    }
+
+    public static void addDataStoreTime(long nanos) {
+        timings.get()[DATA_STORE] += nanos;
+    }
+
+    public static void addAdapterTime(long nanos) {
+        timings.get()[ADAPTER] += nanos;
+    }
+
+    public static long getDataStoreTime() {
+        return timings.get()[DATA_STORE];
+    }
+
+    public static long getAdapterTime() {
+        return timings.get()[ADAPTER];
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.ociclient;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.oracle.bmc.model.BmcException;
+import com.oracle.oci.osb.mbean.GaugeRegistry;
+import com.oracle.oci.osb.mbean.GaugeRegistry.Gauge;
+import com.oracle.oci.osb.util.Constants;
+import com.oracle.oci.osb.util.Errors;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.oracle.oci.osb.util.Utils.debugLog;
+import static com.oracle.oci.osb.util.Utils.getLogger;
+
+/**
+ * OCIRateLimiter paces the calls made to an OCI service, so that the broker stays under the tenancy limits instead of
+ * having its calls throttled. There is one limiter per service and {@link Kind} of operation, shared by all the
+ * adapters calling the service.
+ * <p>
+ * Calls take a permit from a token bucket refilled at {@link Constants#OCI_RATE_LIMIT_READS_PER_SECOND} or
+ * {@link Constants#OCI_RATE_LIMIT_WRITES_PER_SECOND}, which can be set for a service by suffixing the property with
+ * its name, e.g. {@code -DociRateLimit.writesPerSecond.database=2}. The bucket holds up to a second of permits, and a
+ * call arriving when it is empty waits for its turn. A call throttled anyway (429) empties the bucket, so the other
+ * callers slow down too, and is retried, as are the calls failed because the service is unavailable (5xx for reads,
+ * 503 for writes, which may otherwise have been applied, so the creates carry a
+ * {@link #retryToken(String, String, Object)}
+ * or are made with {@link #callUnlessUnavailable(Supplier)}). Retries wait with decorrelated jitter, between
+ * {@link Constants#OCI_RETRY_BASE_DELAY_MILLIS} and {@link Constants#OCI_RETRY_MAX_DELAY_MILLIS}, up to
+ * {@link Constants#OCI_RETRY_MAX_ATTEMPTS} attempts.
+ * <p>
+ * Calls made within {@link #withDeadline(long, TimeUnit, Supplier)} neither wait for a permit nor retry past the
+ * deadline.
+ */
+public class OCIRateLimiter {
+
+    /**
+     * Kind of operation, reads and writes are limited separately.
+     */
+    public enum Kind {
+        READ, WRITE
+    }
+
+    private static final Logger LOGGER = getLogger(OCIRateLimiter.class);
+
+    private static final int DEFAULT_READS_PER_SECOND = 20;
+
+    private static final int DEFAULT_WRITES_PER_SECOND = 5;
+
+    private static final int DEFAULT_MAX_ATTEMPTS = 5;
+
+    private static final int DEFAULT_BASE_DELAY_MILLIS = 200;
+
+    private static final int DEFAULT_MAX_DELAY_MILLIS = 10000;
+
+    /**
+     * Serializes the details of a create the same way on every replica, see
+     * {@link #retryToken(String, String, Object)}.
+     */
+    private static final ObjectMapper RETRY_TOKEN_MAPPER = new ObjectMapper()
+            .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private static final int SERVICE_UNAVAILABLE = 503;
+
+    private static final ConcurrentSkipListMap<String, OCIRateLimiter> limiters = new ConcurrentSkipListMap<>();
+
+    static {
+        GaugeRegistry.register(Gauge.OCI_RETRIES,
+                () -> limiters.values().stream().mapToLong(OCIRateLimiter::getRetryCount).sum());
+        GaugeRegistry.register(Gauge.OCI_THROTTLED,
+                () -> limiters.values().stream().mapToLong(OCIRateLimiter::getThrottledCount).sum());
+    }
+
+    /**
+     * Deadline of the calls made by the current thread, in {@link System#nanoTime()} time.
+     */
+    private static final ThreadLocal<Long> deadline = new ThreadLocal<>();
+
+    private final String name;
+
+    private final Kind kind;
+
+    /**
+     * Permits added to the bucket per second, 0 if the calls are not limited.
+     */
+    private final double permitsPerSecond;
+
+    private final int maxAttempts;
+
+    private final long baseDelayMillis;
+
+    private final long maxDelayMillis;
+
+    /**
+     * Permits in the bucket, negative when calls are waiting for the permits they reserved.
+     */
+    private double permits;
+
+    private long refilledAt = System.nanoTime();
+
+    private final LongAdder waitCount = new LongAdder();
+
+    private final LongAdder retryCount = new LongAdder();
+
+    private final LongAdder throttledCount = new LongAdder();
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    private OCIRateLimiter(String service, Kind kind) {
+        this.name = service + "." + kind.name().toLowerCase(Locale.ROOT);
+        this.kind = kind;
+        this.permitsPerSecond = Math.max(0, (kind == Kind.READ)
+                ? getSetting(Constants.OCI_RATE_LIMIT_READS_PER_SECOND, service, DEFAULT_READS_PER_SECOND)
+                : getSetting(Constants.OCI_RATE_LIMIT_WRITES_PER_SECOND, service, DEFAULT_WRITES_PER_SECOND));
+        this.permits = permitsPerSecond;
+        this.maxAttempts = Math.max(1, getSetting(Constants.OCI_RETRY_MAX_ATTEMPTS, service,
+                DEFAULT_MAX_ATTEMPTS));
+        this.baseDelayMillis = Math.max(1, getSetting(Constants.OCI_RETRY_BASE_DELAY_MILLIS, service,
+                DEFAULT_BASE_DELAY_MILLIS));
+        this.maxDelayMillis = Math.max(baseDelayMillis, getSetting(Constants.OCI_RETRY_MAX_DELAY_MILLIS, service,
+                DEFAULT_MAX_DELAY_MILLIS));
+    }
+
+    /**
+     * @param service name of the OCI service called, e.g. {@code database}.
+     * @param kind    kind of the operations called.
+     * @return the limiter of the operations of that kind on the service.
+     */
+    public static OCIRateLimiter get(String service, Kind kind) {
+        return limiters.computeIfAbsent(service + "." + kind.name().toLowerCase(Locale.ROOT),
+                n -> new OCIRateLimiter(service, kind));
+    }
+
+    /**
+     * @return the limiters in use, ordered by name.
+     */
+    public static Collection<OCIRateLimiter> getRateLimiters() {
+        return Collections.unmodifiableCollection(limiters.values());
+    }
+
+    /**
+     * Runs an operation whose calls to OCI must complete within the given time. A deadline already set by the
+     * caller is kept if it is earlier.
+     *
+     * @param timeout time the calls must complete within.
+     * @param unit    unit of the timeout.
+     * @param call    operation making the calls.
+     * @param <T>     type of the result of the operation.
+     * @return the result of the operation.
+     */
+    public static <T> T withDeadline(long timeout, TimeUnit unit, Supplier<T> call) {
+        Long previous = deadline.get();
+        long newDeadline = System.nanoTime() + unit.toNanos(timeout);
+        deadline.set((previous != null && previous - newDeadline < 0) ? previous : newDeadline);
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) {
+                deadline.remove();
+            } else {
+                deadline.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Returns the OCI retry token of an operation made for a broker instance. The token is the same for every attempt
+     * of the operation with the same details, from this broker or another replica, so that OCI applies a create
+     * retried after a 503 once. A create made again for the instance with other details, e.g. after editing the
+     * parameters of a failed provision, gets another token.
+     *
+     * @param operation name of the operation, e.g. {@code createStream}.
+     * @param id        broker instance id.
+     * @param details   details of the create request.
+     * @return the retry token, the hex encoded SHA-256 digest of the operation, id and details.
+     */
+    public static String retryToken(String operation, String id, Object details) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((operation + "/" + id + "/").getBytes(StandardCharsets.UTF_8));
+            byte[] hash = digest.digest(RETRY_TOKEN_MAPPER.writeValueAsBytes(details));
+            StringBuilder sb = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Error computing the retry token of " + operation, e);
+        }
+    }
+
+    /**
+     * Makes a call to OCI once a permit is available, and retries it while it is throttled or the service is
+     * unavailable.
+     *
+     * @param call call to make.
+     * @param <T>  type of the response.
+     * @return the response.
+     * @throws BmcException the exception of the last attempt.
+     * @throws com.oracle.oci.osb.util.BrokerHttpException if no permit is available before the deadline.
+     */
+    public <T> T call(Supplier<T> call) {
+        return call(call, true);
+    }
+
+    /**
+     * Makes a call to OCI once a permit is available, and retries it while it is throttled but not when the service
+     * is unavailable. Used for the writes that cannot be given a retry token, and may have been applied despite the
+     * 503.
+     *
+     * @param call call to make.
+     * @param <T>  type of the response.
+     * @return the response.
+     * @throws BmcException the exception of the last attempt.
+     * @throws com.oracle.oci.osb.util.BrokerHttpException if no permit is available before the deadline.
+     */
+    public <T> T callUnlessUnavailable(Supplier<T> call) {
+        return call(call, false);
+    }
+
+    private <T> T call(Supplier<T> call, boolean retryUnavailable) {
+        Long deadlineNanos = deadline.get();
+        long delayMillis = baseDelayMillis;
+        for (int attempt = 1; ; attempt++) {
+            acquire(deadlineNanos);
+            try {
+                return call.get();
+            } catch (BmcException e) {
+                if (e.getStatusCode() == TOO_MANY_REQUESTS) {
+                    throttledCount.increment();
+                    drain();
+                }
+                if (attempt >= maxAttempts || !isRetryable(e, retryUnavailable)) {
+                    throw e;
+                }
+                // decorrelated jitter: random between the base delay and three times the previous delay
+                delayMillis = Math.min(maxDelayMillis,
+                        ThreadLocalRandom.current().nextLong(baseDelayMillis, delayMillis * 3 + 1));
+                if (deadlineNanos != null
+                        && System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis) - deadlineNanos > 0) {
+                    throw e;
+                }
+                retryCount.increment();
+                debugLog(LOGGER, "Retrying %s call in %d ms after status %d", Level.FINE, name, delayMillis,
+                        e.getStatusCode());
+                if (!sleep(TimeUnit.MILLISECONDS.toNanos(delayMillis))) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the number of calls that waited for a permit.
+     */
+    public long getWaitCount() {
+        return waitCount.sum();
+    }
+
+    /**
+     * @return the number of calls retried.
+     */
+    public long getRetryCount() {
+        return retryCount.sum();
+    }
+
+    /**
+     * @return the number of calls throttled by OCI.
+     */
+    public long getThrottledCount() {
+        return throttledCount.sum();
+    }
+
+    /**
+     * @return the number of calls not made as no permit was available before their deadline.
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    private boolean isRetryable(BmcException e, boolean retryUnavailable) {
+        int status = e.getStatusCode();
+        if (status == TOO_MANY_REQUESTS || (status == SERVICE_UNAVAILABLE && retryUnavailable)) {
+            return true;
+        }
+        return kind == Kind.READ && (status >= 500 || e.isTimeout());
+    }
+
+    private void acquire(Long deadlineNanos) {
+        if (permitsPerSecond == 0) {
+            return;
+        }
+        long waitNanos = reserve();
+        if (waitNanos <= 0) {
+            return;
+        }
+        if (deadlineNanos != null && System.nanoTime() + waitNanos - deadlineNanos > 0) {
+            unreserve();
+            rejectedCount.increment();
+            throw Errors.ociRateLimited();
+        }
+        waitCount.increment();
+        if (!sleep(waitNanos)) {
+            throw Errors.ociRateLimited();
+        }
+    }
+
+    /**
+     * Takes a permit, reserving the next one to be added if the bucket is empty.
+     *
+     * @return the time to wait for the permit, in nanoseconds.
+     */
+    private synchronized long reserve() {
+        refill();
+        permits -= 1;
+        return (permits >= 0) ? 0 : (long) (-permits * TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+    }
+
+    private synchronized void unreserve() {
+        permits += 1;
+    }
+
+    private synchronized void drain() {
+        if (permitsPerSecond > 0) {
+            refill();
+            permits = Math.min(permits, 0);
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        permits = Math.min(permitsPerSecond, permits + (now - refilledAt) * permitsPerSecond
+                / TimeUnit.SECONDS.toNanos(1));
+        refilledAt = now;
+    }
+
+    /**
+     * @return false if the thread was interrupted.
+     */
+    private static boolean sleep(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static int getSetting(String property, String service, int defaultValue) {
+        return Integer.getInteger(property + "." + service, Integer.getInteger(property, defaultValue));
+    }
+}
@@ -5,44 +5,311 @@
 
 package com.oracle.oci.osb.ociclient;
 
+import com.google.common.base.Optional;
 import com.oracle.bmc.auth.AuthenticationDetailsProvider;
-import com.oracle.bmc.auth.SimpleAuthenticationDetailsProvider;
+import com.oracle.bmc.common.ClientBuilderBase;
+import com.oracle.bmc.http.signing.RequestSigner;
+import com.oracle.bmc.http.signing.RequestSignerFactory;
+import com.oracle.bmc.http.signing.SigningStrategy;
+import com.oracle.bmc.http.signing.internal.KeySupplier;
+import com.oracle.bmc.http.signing.internal.PEMFileRSAPrivateKeySupplier;
+import com.oracle.bmc.http.signing.internal.RequestSignerImpl;
 import com.oracle.oci.osb.util.Utils;
 import com.oracle.oci.osb.util.Constants;
 
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.oracle.oci.osb.util.Utils.getLogger;
 
 /**
  * SystemPropsAuthProvider constructs the {@code AuthenticationDetailsProvider}
  * by gathering the required details from the system properties.
+ * <p>
+ * A single provider is shared by the whole broker, see {@link #getInstance()}. Its private key is read and parsed
+ * once, and the OCI clients built with {@link #buildClient(ClientBuilderBase)} share its request signers instead of
+ * each parsing the key for every signing strategy. The key file is checked for changes at most every
+ * {@link Constants#PRIVATEKEY_CHECK_SECONDS}, so that a rotated secret is picked up without restarting the broker.
+ * The key id the requests are signed with carries the fingerprint of the key in use, computed from its public part,
+ * so that it follows the key; the configured {@link Constants#FINGERPRINT} is only used for a key it cannot be
+ * computed from.
  */
 public class SystemPropsAuthProvider implements AuthProvider {
 
+    private static final Logger LOGGER = getLogger(SystemPropsAuthProvider.class);
+
+    private static final int DEFAULT_KEY_CHECK_SECONDS = 10;
+
+    private static volatile SystemPropsAuthProvider instance;
+
     private final AuthenticationDetailsProvider authDetails;
 
-    public SystemPropsAuthProvider() {
-        SimpleAuthenticationDetailsProvider.SimpleAuthenticationDetailsProviderBuilder authBuilder =
-                SimpleAuthenticationDetailsProvider.builder().fingerprint(System.getProperty(Constants.FINGERPRINT))
-                        .tenantId(System.getProperty(Constants.TENANCY))
-                        .userId(System.getProperty(Constants.USER))
-                        .privateKeySupplier(() -> {
-                            try {
-                                return new FileInputStream(System.getProperty(Constants.PRIVATEKEY));
-                            } catch (FileNotFoundException e) {
-                                throw new RuntimeException(e);
-                            }
-                        });
+    private final RequestSignerFactory signerFactory;
+
+    private final Map<SigningStrategy, RequestSignerFactory> signerFactories;
 
+    private SystemPropsAuthProvider() {
         String passphrase = System.getProperty(Constants.PASSPHRASE);
-        if (!Utils.isNullOrEmptyString(passphrase)) {
-            authBuilder.passphraseCharacters(passphrase.toCharArray());
+        char[] passphraseCharacters = Utils.isNullOrEmptyString(passphrase) ? null : passphrase.toCharArray();
+        SigningKey signingKey = new SigningKey(Paths.get(System.getProperty(Constants.PRIVATEKEY)),
+                passphraseCharacters, System.getProperty(Constants.FINGERPRINT),
+                TimeUnit.SECONDS.toNanos(Integer.getInteger(Constants.PRIVATEKEY_CHECK_SECONDS,
+                DEFAULT_KEY_CHECK_SECONDS)));
+        authDetails = new SigningKeyAuthenticationDetails(System.getProperty(Constants.TENANCY),
+                System.getProperty(Constants.USER), signingKey);
+
+        Map<SigningStrategy, RequestSignerFactory> factories = new EnumMap<>(SigningStrategy.class);
+        for (SigningStrategy strategy : SigningStrategy.values()) {
+            RequestSigner signer = new RequestSignerImpl(signingKey, strategy, authDetails::getKeyId);
+            factories.put(strategy, (service, provider) -> signer);
+        }
+        signerFactory = factories.get(SigningStrategy.STANDARD);
+        signerFactories = Collections.unmodifiableMap(factories);
+    }
+
+    /**
+     * @return the provider shared by the broker.
+     */
+    public static SystemPropsAuthProvider getInstance() {
+        SystemPropsAuthProvider provider = instance;
+        if (provider == null) {
+            synchronized (SystemPropsAuthProvider.class) {
+                provider = instance;
+                if (provider == null) {
+                    provider = new SystemPropsAuthProvider();
+                    instance = provider;
+                }
+            }
         }
-        authDetails = authBuilder.build();
+        return provider;
     }
 
     @Override
     public AuthenticationDetailsProvider getAuthProvider() {
         return authDetails;
     }
+
+    /**
+     * Builds an OCI client signing its requests with the shared signers.
+     *
+     * @param builder builder of the client.
+     * @param <C>     type of the client.
+     * @return the client.
+     */
+    public <C> C buildClient(ClientBuilderBase<?, C> builder) {
+        builder.requestSignerFactory(signerFactory);
+        builder.signingStrategyRequestSignerFactories(signerFactories);
+        return builder.build(authDetails);
+    }
+
+    /**
+     * Private key read from the file given as {@link Constants#PRIVATEKEY}, parsed when first used and again whenever
+     * the file changes. A key that fails to be reloaded is logged and the previous key kept.
+     */
+    private static class SigningKey implements KeySupplier<RSAPrivateKey> {
+
+        private final Path path;
+
+        private final char[] passphrase;
+
+        private final String configuredFingerprint;
+
+        private final long checkNanos;
+
+        private volatile KeyFile current;
+
+        private volatile long checkedAt;
+
+        SigningKey(Path path, char[] passphrase, String configuredFingerprint, long checkNanos) {
+            this.path = path;
+            this.passphrase = passphrase;
+            this.configuredFingerprint = configuredFingerprint;
+            this.checkNanos = checkNanos;
+        }
+
+        @Override
+        public Optional<RSAPrivateKey> getKey(String keyId) {
+            return Optional.of(get().key);
+        }
+
+        byte[] getPem() {
+            return get().pem.clone();
+        }
+
+        String getFingerprint() {
+            return get().fingerprint;
+        }
+
+        char[] getPassphrase() {
+            return passphrase;
+        }
+
+        private KeyFile get() {
+            KeyFile keyFile = current;
+            if (keyFile != null && System.nanoTime() - checkedAt < checkNanos) {
+                return keyFile;
+            }
+            synchronized (this) {
+                keyFile = current;
+                long now = System.nanoTime();
+                if (keyFile != null && now - checkedAt < checkNanos) {
+                    return keyFile;
+                }
+                checkedAt = now;
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    if (keyFile != null && keyFile.isSame(attributes)) {
+                        return keyFile;
+                    }
+                    KeyFile loaded = new KeyFile(attributes, Files.readAllBytes(path), passphrase,
+                            configuredFingerprint);
+                    if (keyFile == null && configuredFingerprint != null
+                            && !configuredFingerprint.equalsIgnoreCase(loaded.fingerprint)) {
+                        LOGGER.warning("The fingerprint of the OCI API private key " + loaded.fingerprint
+                                + " differs from the configured fingerprint, signing with the key's");
+                    }
+                    if (keyFile != null) {
+                        LOGGER.info("Reloaded the OCI API private key from " + path);
+                    }
+                    current = loaded;
+                    return loaded;
+                } catch (IOException | RuntimeException e) {
+                    if (keyFile == null) {
+                        throw new RuntimeException(e);
+                    }
+                    LOGGER.log(Level.WARNING, "Error reloading the OCI API private key from " + path
+                            + ", keeping the previous key", e);
+                    return keyFile;
+                }
+            }
+        }
+    }
+
+    /**
+     * Contents of the key file, with the attributes it had when read.
+     */
+    private static class KeyFile {
+
+        private final long modified;
+
+        private final long size;
+
+        private final byte[] pem;
+
+        private final RSAPrivateKey key;
+
+        /**
+         * Fingerprint of the key as OCI computes it, the MD5 digest of its DER encoded public key, or the configured
+         * fingerprint if the public part is not available from the private key.
+         */
+        private final String fingerprint;
+
+        KeyFile(BasicFileAttributes attributes, byte[] pem, char[] passphrase, String configuredFingerprint) {
+            this.modified = attributes.lastModifiedTime().toMillis();
+            this.size = attributes.size();
+            this.pem = pem;
+            this.key = new PEMFileRSAPrivateKeySupplier(new ByteArrayInputStream(pem), passphrase).getKey().get();
+            this.fingerprint = fingerprint(key, configuredFingerprint);
+        }
+
+        boolean isSame(BasicFileAttributes attributes) {
+            return modified == attributes.lastModifiedTime().toMillis() && size == attributes.size();
+        }
+
+        private static String fingerprint(RSAPrivateKey key, String configuredFingerprint) {
+            if (!(key instanceof RSAPrivateCrtKey)) {
+                return configuredFingerprint;
+            }
+            RSAPrivateCrtKey crtKey = (RSAPrivateCrtKey) key;
+            try {
+                byte[] publicKey = KeyFactory.getInstance("RSA").generatePublic(new RSAPublicKeySpec(
+                        crtKey.getModulus(), crtKey.getPublicExponent())).getEncoded();
+                byte[] digest = MessageDigest.getInstance("MD5").digest(publicKey);
+                StringBuilder sb = new StringBuilder(digest.length * 3);
+                for (byte b : digest) {
+                    if (sb.length() > 0) {
+                        sb.append(':');
+                    }
+                    sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+                }
+                return sb.toString();
+            } catch (GeneralSecurityException e) {
+                LOGGER.log(Level.WARNING, "Error computing the fingerprint of the OCI API private key", e);
+                return configuredFingerprint;
+            }
+        }
+    }
+
+    /**
+     * Authentication details of the broker user, with the private key and fingerprint of the current
+     * {@link SigningKey}.
+     */
+    private static class SigningKeyAuthenticationDetails implements AuthenticationDetailsProvider {
+
+        private final String tenantId;
+
+        private final String userId;
+
+        private final SigningKey signingKey;
+
+        SigningKeyAuthenticationDetails(String tenantId, String userId, SigningKey signingKey) {
+            this.tenantId = tenantId;
+            this.userId = userId;
+            this.signingKey = signingKey;
+        }
+
+        @Override
+        public String getKeyId() {
+            return tenantId + "/" + userId + "/" + getFingerprint();
+        }
+
+        @Override
+        public InputStream getPrivateKey() {
+            return new ByteArrayInputStream(signingKey.getPem());
+        }
+
+        @Override
+        @Deprecated
+        public String getPassPhrase() {
+            char[] passphrase = signingKey.getPassphrase();
+            return (passphrase != null) ? new String(passphrase) : null;
+        }
+
+        @Override
+        public char[] getPassphraseCharacters() {
+            return signingKey.getPassphrase();
+        }
+
+        @Override
+        public String getFingerprint() {
+            return signingKey.getFingerprint();
+        }
+
+        @Override
+        public String getTenantId() {
+            return tenantId;
+        }
+
+        @Override
+        public String getUserId() {
+            return userId;
+        }
+    }
 }
@@ -6,6 +6,7 @@
 package com.oracle.oci.osb.rest;
 
 import com.oracle.oci.osb.store.DataStoreFactory;
+import com.oracle.oci.osb.util.Startup;
 
 import javax.inject.Singleton;
 import javax.ws.rs.GET;
@@ -23,4 +24,17 @@ public class Health {
         }
         return Response.ok().build();
     }
+
+    /**
+     * Readiness of the broker: unavailable until the broker has completed its {@link Startup}, and while the store is
+     * not healthy.
+     */
+    @GET
+    @Path("/ready")
+    public Response ready() {
+        if (!Startup.getInstance().isReady()) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE.getStatusCode()).build();
+        }
+        return get();
+    }
 }
@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.rest;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpsExchange;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerException;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.spi.Container;
+import org.glassfish.jersey.server.spi.ContainerResponseWriter;
+
+import javax.ws.rs.core.Application;
+import javax.ws.rs.core.SecurityContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.oracle.oci.osb.util.Utils.getLogger;
+
+/**
+ * JdkHttpContainer runs the Jersey application on the JDK HTTP server. Unlike the container of
+ * jersey-container-jdk-http, it supports suspended requests: the exchange of a request suspended through
+ * {@link javax.ws.rs.container.AsyncResponse} is left open when the resource method returns, and the server thread
+ * goes back to the pool until the response is resumed from another thread.
+ */
+public class JdkHttpContainer implements HttpHandler, Container {
+
+    private static final Logger LOGGER = getLogger(JdkHttpContainer.class);
+
+    /**
+     * Fires the timeouts of the suspended requests.
+     */
+    private static final ScheduledExecutorService timeouts = createTimeoutScheduler();
+
+    private volatile ApplicationHandler appHandler;
+
+    public JdkHttpContainer(Application application) {
+        this.appHandler = new ApplicationHandler(application);
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        URI exchangeUri = exchange.getRequestURI();
+        String basePath = exchange.getHttpContext().getPath();
+        if (!basePath.endsWith("/")) {
+            if (basePath.equals(exchangeUri.getPath())) {
+                exchange.getResponseHeaders().set("Location", exchangeUri.getPath() + "/");
+                exchange.sendResponseHeaders(301, -1);
+                exchange.close();
+                return;
+            }
+            basePath += "/";
+        }
+        boolean secure = exchange instanceof HttpsExchange;
+        URI baseUri = getBaseUri(exchange, basePath, secure ? "https" : "http");
+        URI requestUri;
+        try {
+            requestUri = new URI(new URI(baseUri.getScheme(), null, baseUri.getHost(), baseUri.getPort(), null,
+                    null, null).toString() + exchangeUri);
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException(e);
+        }
+
+        ResponseWriter responseWriter = new ResponseWriter(exchange);
+        ContainerRequest request = new ContainerRequest(baseUri, requestUri, exchange.getRequestMethod(),
+                new ExchangeSecurityContext(exchange.getPrincipal(), secure), new MapPropertiesDelegate(),
+                appHandler.getConfiguration());
+        request.setEntityStream(exchange.getRequestBody());
+        request.getHeaders().putAll(exchange.getRequestHeaders());
+        request.setWriter(responseWriter);
+        try {
+            appHandler.handle(request);
+        } finally {
+            if (!responseWriter.suspended) {
+                responseWriter.closeIfNotCommitted();
+            }
+        }
+    }
+
+    @Override
+    public ResourceConfig getConfiguration() {
+        return appHandler.getConfiguration();
+    }
+
+    @Override
+    public ApplicationHandler getApplicationHandler() {
+        return appHandler;
+    }
+
+    @Override
+    public void reload() {
+        reload(getConfiguration());
+    }
+
+    @Override
+    public void reload(ResourceConfig configuration) {
+        appHandler.onShutdown(this);
+        appHandler = new ApplicationHandler(configuration);
+        appHandler.onReload(this);
+        appHandler.onStartup(this);
+    }
+
+    /**
+     * Notifies the application that the server started.
+     */
+    public void onServerStart() {
+        appHandler.onStartup(this);
+    }
+
+    /**
+     * Notifies the application that the server stopped.
+     */
+    public void onServerStop() {
+        appHandler.onShutdown(this);
+    }
+
+    private static URI getBaseUri(HttpExchange exchange, String basePath, String scheme) {
+        try {
+            List<String> hostHeader = exchange.getRequestHeaders().get("Host");
+            if (hostHeader != null) {
+                return new URI(scheme + "://" + hostHeader.get(0) + basePath);
+            }
+            InetSocketAddress address = exchange.getLocalAddress();
+            return new URI(scheme, null, address.getHostName(), address.getPort(), basePath, null, null);
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static ScheduledExecutorService createTimeoutScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "osb-async-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    private static class ResponseWriter implements ContainerResponseWriter {
+
+        private final HttpExchange exchange;
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private volatile boolean suspended;
+
+        private TimeoutHandler timeoutHandler;
+
+        private ScheduledFuture<?> timeout;
+
+        ResponseWriter(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        @Override
+        public OutputStream writeResponseStatusAndHeaders(long contentLength, ContainerResponse response)
+                throws ContainerException {
+            cancelTimeout();
+            Headers headers = exchange.getResponseHeaders();
+            for (Map.Entry<String, List<String>> e : response.getStringHeaders().entrySet()) {
+                for (String value : e.getValue()) {
+                    headers.add(e.getKey(), value);
+                }
+            }
+            try {
+                int status = response.getStatus();
+                // The JDK HTTP server expects no body for these, -1 is the length of an empty body, 0 means chunked.
+                if (status == 204 || status == 304 || contentLength == 0) {
+                    exchange.sendResponseHeaders(status, -1);
+                } else {
+                    exchange.sendResponseHeaders(status, contentLength < 0 ? 0 : contentLength);
+                }
+            } catch (IOException e) {
+                throw new ContainerException("Error writing the response headers", e);
+            }
+            return exchange.getResponseBody();
+        }
+
+        @Override
+        public synchronized boolean suspend(long timeOut, TimeUnit timeUnit, TimeoutHandler timeoutHandler) {
+            if (suspended) {
+                return false;
+            }
+            this.suspended = true;
+            this.timeoutHandler = timeoutHandler;
+            scheduleTimeout(timeOut, timeUnit);
+            return true;
+        }
+
+        @Override
+        public synchronized void setSuspendTimeout(long timeOut, TimeUnit timeUnit) {
+            if (!suspended) {
+                throw new IllegalStateException("The request is not suspended");
+            }
+            cancelTimeout();
+            scheduleTimeout(timeOut, timeUnit);
+        }
+
+        @Override
+        public void commit() {
+            cancelTimeout();
+            if (closed.compareAndSet(false, true)) {
+                exchange.close();
+            }
+        }
+
+        @Override
+        public void failure(Throwable error) {
+            try {
+                if (!closed.get()) {
+                    exchange.sendResponseHeaders(500, -1);
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Error sending the failure response", e);
+            } finally {
+                commit();
+            }
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            }
+            if (error instanceof Error) {
+                throw (Error) error;
+            }
+            throw new ContainerException(error);
+        }
+
+        @Override
+        public boolean enableResponseBuffering() {
+            return true;
+        }
+
+        void closeIfNotCommitted() {
+            if (closed.compareAndSet(false, true)) {
+                cancelTimeout();
+                exchange.close();
+                LOGGER.warning("The response was not committed by the application");
+            }
+        }
+
+        private synchronized void scheduleTimeout(long timeOut, TimeUnit timeUnit) {
+            if (timeOut > 0 && timeUnit != null) {
+                timeout = timeouts.schedule(() -> timeoutHandler.onTimeout(this), timeOut, timeUnit);
+            }
+        }
+
+        private synchronized void cancelTimeout() {
+            if (timeout != null) {
+                timeout.cancel(false);
+                timeout = null;
+            }
+        }
+    }
+
+    private static class ExchangeSecurityContext implements SecurityContext {
+
+        private final Principal principal;
+
+        private final boolean secure;
+
+        ExchangeSecurityContext(Principal principal, boolean secure) {
+            this.principal = principal;
+            this.secure = secure;
+        }
+
+        @Override
+        public Principal getUserPrincipal() {
+            return principal;
+        }
+
+        @Override
+        public boolean isUserInRole(String role) {
+            return false;
+        }
+
+        @Override
+        public boolean isSecure() {
+            return secure;
+        }
+
+        @Override
+        public String getAuthenticationScheme() {
+            return null;
+        }
+    }
+}
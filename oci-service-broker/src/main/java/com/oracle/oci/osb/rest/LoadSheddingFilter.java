@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.rest;
+
+import com.oracle.oci.osb.mbean.BrokerMetrics;
+import com.oracle.oci.osb.util.Constants;
+import com.oracle.oci.osb.util.Errors;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.PreMatching;
+import javax.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Filter that aborts requests with 503 (Service Unavailable) and a Retry-After header when the broker is overloaded,
+ * either because the {@link RequestExecutor} rejected them or because
+ * {@link Constants#REQUEST_MAX_IN_FLIGHT} requests are in flight already. Health checks and metrics scrapes are never
+ * rejected.
+ * <p>
+ * As the OSB API suspends the requests while the service adapters process them, the request threads no longer bound
+ * the requests in flight. They are counted from the request filter to the response filter instead, which also runs
+ * when a suspended request is resumed or times out.
+ */
+@Provider
+@PreMatching
+public class LoadSheddingFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final int DEFAULT_RETRY_AFTER_SECONDS = 5;
+
+    private static final int DEFAULT_MAX_IN_FLIGHT = 320;
+
+    private static final String HEALTH_PATH = "health";
+
+    private static final String METRICS_PATH = "metrics";
+
+    /**
+     * Set on the requests counted as in flight.
+     */
+    private static final String IN_FLIGHT_PROPERTY = LoadSheddingFilter.class.getName() + ".inFlight";
+
+    private final BrokerMetrics brokerMBean;
+
+    private final int retryAfterSeconds;
+
+    private final int maxInFlight;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public LoadSheddingFilter(BrokerMetrics brokerMBean) {
+        this.brokerMBean = brokerMBean;
+        this.retryAfterSeconds = Integer.getInteger(Constants.REQUEST_EXECUTOR_RETRY_AFTER,
+                DEFAULT_RETRY_AFTER_SECONDS);
+        this.maxInFlight = Math.max(1, Integer.getInteger(Constants.REQUEST_MAX_IN_FLIGHT, DEFAULT_MAX_IN_FLIGHT));
+    }
+
+    @Override
+    public void filter(ContainerRequestContext ctx) throws IOException {
+        String path = ctx.getUriInfo().getPath();
+        if (path.endsWith(HEALTH_PATH) || path.endsWith(METRICS_PATH)) {
+            return;
+        }
+        if (RequestExecutor.isRequestRejected()) {
+            shed(ctx);
+            return;
+        }
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            shed(ctx);
+            return;
+        }
+        ctx.setProperty(IN_FLIGHT_PROPERTY, Boolean.TRUE);
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestCtx, ContainerResponseContext responseCtx) throws IOException {
+        if (requestCtx.getProperty(IN_FLIGHT_PROPERTY) != null) {
+            requestCtx.removeProperty(IN_FLIGHT_PROPERTY);
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void shed(ContainerRequestContext ctx) {
+        brokerMBean.incrementRejectedRequestCount();
+        ctx.abortWith(Errors.brokerOverloaded(retryAfterSeconds));
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.rest;
+
+import com.oracle.oci.osb.mbean.BrokerMetrics;
+import com.oracle.oci.osb.mbean.BrokerMetrics.Operation;
+import com.oracle.oci.osb.mbean.LatencyHistogram;
+import com.oracle.oci.osb.ociclient.OCIRateLimiter;
+import com.oracle.oci.osb.util.Bulkhead;
+import com.oracle.oci.osb.util.Startup;
+
+import javax.inject.Singleton;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import java.util.Locale;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Exposes the broker metrics in the Prometheus text exposition format, so that they can be scraped without a JMX
+ * exporter. The counters are the ones of the {@link com.oracle.oci.osb.mbean.BrokerMetricsMBean}, labelled with the
+ * operation, service, plan and status code of the requests.
+ */
+@Path("/metrics")
+@Singleton
+public class Metrics {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+    private final BrokerMetrics brokerMBean;
+
+    public Metrics(BrokerMetrics brokerMBean) {
+        this.brokerMBean = brokerMBean;
+    }
+
+    @GET
+    @Produces(CONTENT_TYPE)
+    public String get() {
+        StringBuilder sb = new StringBuilder(4096);
+
+        sb.append("# HELP osb_requests_total Requests handled by the broker.\n");
+        sb.append("# TYPE osb_requests_total counter\n");
+        brokerMBean.getRequestCounters().forEach((operation, serviceId, planId, statusCode, count) -> {
+            sb.append("osb_requests_total{operation=\"").append(label(operation)).append("\",service=\"");
+            appendEscaped(sb, serviceId);
+            sb.append("\",plan=\"");
+            appendEscaped(sb, planId);
+            sb.append("\",code=\"").append(statusCode).append("\"} ").append(count).append('\n');
+        });
+
+        sb.append("# HELP osb_request_duration_seconds Time taken to handle the requests.\n");
+        sb.append("# TYPE osb_request_duration_seconds summary\n");
+        for (Operation operation : Operation.values()) {
+            appendSummary(sb, "osb_request_duration_seconds", "operation=\"" + label(operation) + "\"",
+                    brokerMBean.getLatencyHistogram(operation));
+        }
+
+        sb.append("# HELP osb_datastore_duration_seconds Time spent by a request in the DataStore.\n");
+        sb.append("# TYPE osb_datastore_duration_seconds summary\n");
+        appendSummary(sb, "osb_datastore_duration_seconds", null, brokerMBean.getDataStoreLatencyHistogram());
+
+        sb.append("# HELP osb_adapter_duration_seconds Time spent by a request in the service adapter.\n");
+        sb.append("# TYPE osb_adapter_duration_seconds summary\n");
+        appendSummary(sb, "osb_adapter_duration_seconds", null, brokerMBean.getAdapterLatencyHistogram());
+
+        appendCounter(sb, "osb_rejected_requests_total", "Requests rejected as the broker was busy.",
+                brokerMBean.getRejectedRequestCount());
+        appendCounter(sb, "osb_datastore_cache_hits_total", "Reads served from the DataStore cache.",
+                brokerMBean.getDataStoreCacheHitCount());
+        appendCounter(sb, "osb_datastore_cache_misses_total", "Reads not served from the DataStore cache.",
+                brokerMBean.getDataStoreCacheMissCount());
+        appendCounter(sb, "osb_wallet_cache_hits_total", "Autonomous Database binds served from the wallet cache.",
+                brokerMBean.getWalletCacheHitCount());
+        appendCounter(sb, "osb_wallet_cache_misses_total", "Autonomous Database binds that downloaded a wallet.",
+                brokerMBean.getWalletCacheMissCount());
+        appendCounter(sb, "osb_par_index_lists_avoided_total",
+                "Object Storage binds that found the pre-authenticated requests of the bucket in the index.",
+                brokerMBean.getPreauthenticatedRequestListAvoidedCount());
+        appendCounter(sb, "osb_par_index_lists_total",
+                "Pre-authenticated request listings made to fill the Object Storage index.",
+                brokerMBean.getPreauthenticatedRequestListCount());
+        appendCounter(sb, "osb_audit_records_total", "Audit records written.", brokerMBean.getAuditRecordCount());
+        appendCounter(sb, "osb_audit_dropped_total",
+                "Audit records dropped as the audit buffer was full or they could not be written.",
+                brokerMBean.getAuditDroppedCount());
+        appendCounter(sb, "osb_audit_blocked_total",
+                "Audit records that found the audit buffer full and waited for the writer.",
+                brokerMBean.getAuditBlockedCount());
+
+        appendBulkheadGauge(sb, "osb_adapter_bulkhead_limit",
+                "Adapter operations currently allowed in progress by the bulkhead.", Bulkhead::getLimit);
+        appendBulkheadGauge(sb, "osb_adapter_bulkhead_max_concurrency",
+                "Adapter operations allowed in progress by the bulkhead at most.", Bulkhead::getMaxConcurrency);
+        appendBulkheadGauge(sb, "osb_adapter_bulkhead_in_flight",
+                "Adapter operations in progress within the bulkhead.", Bulkhead::getInFlight);
+        appendBulkheadGauge(sb, "osb_adapter_bulkhead_queued",
+                "Adapter operations waiting for the bulkhead.", Bulkhead::getQueued);
+        sb.append("# HELP osb_adapter_bulkhead_rejected_total Adapter operations rejected as the bulkhead was full.\n");
+        sb.append("# TYPE osb_adapter_bulkhead_rejected_total counter\n");
+        for (Bulkhead bulkhead : Bulkhead.getBulkheads()) {
+            appendBulkheadSample(sb, "osb_adapter_bulkhead_rejected_total", bulkhead, bulkhead.getRejectedCount());
+        }
+
+        appendLimiterCounter(sb, "osb_oci_rate_limit_waits_total", "OCI calls that waited for the rate limiter.",
+                OCIRateLimiter::getWaitCount);
+        appendLimiterCounter(sb, "osb_oci_rate_limit_rejected_total",
+                "OCI calls not made as the rate limiter had no permit before their deadline.",
+                OCIRateLimiter::getRejectedCount);
+        appendLimiterCounter(sb, "osb_oci_throttled_total", "OCI calls throttled by OCI.",
+                OCIRateLimiter::getThrottledCount);
+        appendLimiterCounter(sb, "osb_oci_retries_total", "OCI calls retried.", OCIRateLimiter::getRetryCount);
+
+        Startup startup = Startup.getInstance();
+        sb.append("# HELP osb_startup_ready Whether the broker has completed its startup.\n");
+        sb.append("# TYPE osb_startup_ready gauge\n");
+        sb.append("osb_startup_ready ").append(startup.isReady() ? 1 : 0).append('\n');
+        long readyMillis = startup.getReadyMillis();
+        if (readyMillis >= 0) {
+            sb.append("# HELP osb_startup_seconds Time from the start of the JVM to the broker being ready.\n");
+            sb.append("# TYPE osb_startup_seconds gauge\n");
+            sb.append("osb_startup_seconds ").append(readyMillis / 1000.0).append('\n');
+        }
+        sb.append("# HELP osb_startup_phase_seconds Time taken by the startup phases.\n");
+        sb.append("# TYPE osb_startup_phase_seconds gauge\n");
+        for (Startup.Phase phase : startup.getPhases()) {
+            if (phase.getDurationMillis() >= 0) {
+                sb.append("osb_startup_phase_seconds{phase=\"");
+                appendEscaped(sb, phase.getName());
+                sb.append("\"} ").append(phase.getDurationMillis() / 1000.0).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void appendSummary(StringBuilder sb, String name, String labels, LatencyHistogram histogram) {
+        String prefix = (labels != null) ? labels + "," : "";
+        for (double quantile : QUANTILES) {
+            sb.append(name).append('{').append(prefix).append("quantile=\"").append(quantile).append("\"} ")
+                    .append(histogram.getPercentile(quantile * 100) / 1000.0).append('\n');
+        }
+        String suffix = (labels != null) ? "{" + labels + "} " : " ";
+        sb.append(name).append("_sum").append(suffix).append(histogram.getSum() / 1e9).append('\n');
+        sb.append(name).append("_count").append(suffix).append(histogram.getCount()).append('\n');
+    }
+
+    private static void appendCounter(StringBuilder sb, String name, String help, long value) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(" counter\n");
+        sb.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void appendBulkheadGauge(StringBuilder sb, String name, String help,
+                                            ToIntFunction<Bulkhead> value) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(" gauge\n");
+        for (Bulkhead bulkhead : Bulkhead.getBulkheads()) {
+            appendBulkheadSample(sb, name, bulkhead, value.applyAsInt(bulkhead));
+        }
+    }
+
+    private static void appendBulkheadSample(StringBuilder sb, String name, Bulkhead bulkhead, long value) {
+        sb.append(name).append("{bulkhead=\"");
+        appendEscaped(sb, bulkhead.getName());
+        sb.append("\"} ").append(value).append('\n');
+    }
+
+    private static void appendLimiterCounter(StringBuilder sb, String name, String help,
+                                             ToLongFunction<OCIRateLimiter> value) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(" counter\n");
+        for (OCIRateLimiter limiter : OCIRateLimiter.getRateLimiters()) {
+            sb.append(name).append("{limiter=\"");
+            appendEscaped(sb, limiter.getName());
+            sb.append("\"} ").append(value.applyAsLong(limiter)).append('\n');
+        }
+    }
+
+    private static String label(Operation operation) {
+        return operation.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Escapes a label value as required by the exposition format.
+     */
+    private static void appendEscaped(StringBuilder sb, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                default:
+                    sb.append(c);
+                    break;
+            }
+        }
+    }
+}
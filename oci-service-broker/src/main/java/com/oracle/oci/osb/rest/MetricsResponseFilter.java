@@ -6,19 +6,52 @@
 package com.oracle.oci.osb.rest;
 
 import com.oracle.oci.osb.mbean.BrokerMetrics;
+import com.oracle.oci.osb.mbean.BrokerMetrics.Operation;
+import com.oracle.oci.osb.mbean.RequestLabels;
+import com.oracle.oci.osb.mbean.RequestTimings;
 
 import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
 import javax.ws.rs.container.ContainerResponseContext;
 import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.ext.Provider;
 import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
- * {@link ContainerResponseFilter} to update the broker metrics.
+ * {@link ContainerResponseFilter} to update the broker metrics. As a {@link ContainerRequestFilter} it notes when
+ * the processing of the request started, so that the latency of the request can be recorded.
  */
 @Provider
 @OSBAPI
-public class MetricsResponseFilter implements ContainerResponseFilter {
+public class MetricsResponseFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final String START_TIME_PROPERTY = "com.oracle.oci.osb.requestStartTime";
+
+    /**
+     * Operation served by each of the OSBV2API resource methods.
+     */
+    private static final Map<String, Operation> resourceMethodOperations = new HashMap<>();
+
+    static {
+        resourceMethodOperations.put("serviceInstanceProvision", Operation.PROVISION);
+        resourceMethodOperations.put("serviceInstanceUpdate", Operation.UPDATE);
+        resourceMethodOperations.put("serviceInstanceDeprovision", Operation.DEPROVISION);
+        resourceMethodOperations.put("serviceBindingBinding", Operation.BIND);
+        resourceMethodOperations.put("serviceBindingUnbinding", Operation.UNBIND);
+        resourceMethodOperations.put("serviceInstanceGet", Operation.GET_INSTANCE);
+        resourceMethodOperations.put("serviceBindingGet", Operation.GET_BINDING);
+        resourceMethodOperations.put("serviceInstanceLastOperationGet", Operation.LAST_OPERATION_INSTANCE);
+        resourceMethodOperations.put("serviceBindingLastOperationGet", Operation.LAST_OPERATION_BINDING);
+    }
+
+    @Context
+    private ResourceInfo resourceInfo;
 
     /**
      * The {@link com.oracle.oci.osb.mbean.BrokerMetricsMBean} to update.
@@ -29,9 +62,17 @@ public class MetricsResponseFilter implements ContainerResponseFilter {
         this.brokerMBean = brokerMBean;
     }
 
+    @Override
+    public void filter(ContainerRequestContext requestContext) throws IOException {
+        RequestTimings.reset();
+        RequestLabels.reset();
+        requestContext.setProperty(START_TIME_PROPERTY, System.nanoTime());
+    }
+
     @Override
     public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext)
             throws IOException {
+        recordLatency(requestContext, responseContext);
         String uri = requestContext.getUriInfo().getPath();
         switch (requestContext.getMethod().toLowerCase()) {
             case "put":
@@ -57,6 +98,30 @@ public class MetricsResponseFilter implements ContainerResponseFilter {
         }
     }
 
+    private void recordLatency(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        Object startTime = requestContext.getProperty(START_TIME_PROPERTY);
+        Method resourceMethod = (resourceInfo != null) ? resourceInfo.getResourceMethod() : null;
+        if (startTime == null || resourceMethod == null) {
+            return;
+        }
+        Operation operation = resourceMethodOperations.get(resourceMethod.getName());
+        if (operation != null) {
+            brokerMBean.recordLatency(operation, System.nanoTime() - (Long) startTime,
+                    RequestTimings.getDataStoreTime(), RequestTimings.getAdapterTime());
+            // The service and plan are known once the handler has looked up the instance, otherwise fall back to
+            // the ids passed by the platform, which last_operation requests carry as query parameters. Ids that are
+            // not in the catalog are counted as unknown by the metrics.
+            String serviceId = RequestLabels.getServiceId();
+            String planId = RequestLabels.getPlanId();
+            if (serviceId == null) {
+                MultivaluedMap<String, String> query = requestContext.getUriInfo().getQueryParameters();
+                serviceId = query.getFirst("service_id");
+                planId = query.getFirst("plan_id");
+            }
+            brokerMBean.recordRequest(operation, serviceId, planId, responseContext.getStatus());
+        }
+    }
+
     private void addToGetMetrics(String uri, ContainerResponseContext responseContext) {
         int responseCode = responseContext.getStatus();
         // there are  types of get operations, last_operation for for binding/instances
@@ -22,9 +22,11 @@ public class OCIOSBApplication extends ResourceConfig {
         super(OSBV2API.class, Health.class, OSBObjectMapperProvider.class, JacksonFeature.class, LoggingFeature.class);
         BrokerMetrics brokerMBean = new BrokerMetrics();
         registerBrokerMBean(brokerMBean);
+        register(new Metrics(brokerMBean));
         register(new OCIOSBApplicationBinder());
         register(new RequestValidationFilter());
         register(new MetricsResponseFilter(brokerMBean));
+        register(new LoadSheddingFilter(brokerMBean));
     }
 
 
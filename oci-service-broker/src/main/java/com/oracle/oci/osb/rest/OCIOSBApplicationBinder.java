@@ -16,7 +16,7 @@ import javax.inject.Singleton;
 public class OCIOSBApplicationBinder extends AbstractBinder {
     @Override
     protected void configure() {
-        bind(SystemPropsAuthProvider.class).to(AuthProvider.class);
+        bind(SystemPropsAuthProvider.getInstance()).to(AuthProvider.class);
         bind(MemoryStore.class).to(DataStore.class).in(Singleton.class);
     }
 }
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.rest;
+
+import com.oracle.oci.osb.util.Constants;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.oracle.oci.osb.util.Utils.getLogger;
+
+/**
+ * RequestExecutor is the {@link Executor} used by the broker HTTP server to process requests. Requests are executed
+ * either on a bounded pool of platform threads or, when the JVM supports it, on a new virtual thread per request.
+ * <p>
+ * Requests that arrive while the executor is saturated are not queued behind the running requests. They are handed
+ * over to a small overflow pool and marked as rejected, so that {@link LoadSheddingFilter} can answer them with
+ * 503 (Service Unavailable) and a Retry-After header without invoking the OSB API.
+ * <p>
+ * The executor only bounds the requests being dispatched: the OSB API suspends a request once it has handed it over
+ * to a service adapter, which releases its thread. The requests in flight, suspended or not, are bounded by
+ * {@link LoadSheddingFilter}.
+ */
+public class RequestExecutor implements Executor {
+
+    private static final Logger LOGGER = getLogger(RequestExecutor.class);
+
+    private static final int DEFAULT_MAX_THREADS = 64;
+
+    private static final int DEFAULT_QUEUE_SIZE = 256;
+
+    private static final int OVERFLOW_THREADS = 2;
+
+    /**
+     * Set on the thread that processes a request which was not admitted by the executor.
+     */
+    private static final ThreadLocal<Boolean> rejectedRequest = new ThreadLocal<>();
+
+    /**
+     * Available executor modes.
+     * PLATFORM - bounded pool of platform threads with a bounded queue.
+     * VIRTUAL  - a new virtual thread per request, the number of in-flight requests is bounded.
+     */
+    public enum Mode {
+        PLATFORM, VIRTUAL
+    }
+
+    private final Mode mode;
+
+    private final ExecutorService workers;
+
+    private final ThreadPoolExecutor overflow;
+
+    /**
+     * Bounds the number of in-flight requests in {@link Mode#VIRTUAL} mode. Not used in {@link Mode#PLATFORM} mode
+     * as the thread pool and its queue are bounded already.
+     */
+    private final Semaphore admission;
+
+    private RequestExecutor(Mode mode, int maxThreads, int queueSize) {
+        ExecutorService virtualExecutor = (mode == Mode.VIRTUAL) ? newVirtualThreadPerTaskExecutor() : null;
+        if (virtualExecutor != null) {
+            this.mode = Mode.VIRTUAL;
+            this.workers = virtualExecutor;
+            this.admission = new Semaphore(maxThreads + queueSize);
+        } else {
+            this.mode = Mode.PLATFORM;
+            this.workers = new ThreadPoolExecutor(maxThreads, maxThreads, 60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueSize), new NamedThreadFactory("osb-request-"),
+                    (r, executor) -> reject(r));
+            ((ThreadPoolExecutor) this.workers).allowCoreThreadTimeOut(true);
+            this.admission = null;
+        }
+        // When even the overflow pool is saturated the rejected request is answered on the dispatcher thread.
+        overflow = new ThreadPoolExecutor(OVERFLOW_THREADS, OVERFLOW_THREADS, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), new NamedThreadFactory("osb-overflow-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        overflow.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Creates a RequestExecutor configured through system properties.
+     *
+     * @return RequestExecutor
+     */
+    public static RequestExecutor create() {
+        String modeStr = System.getProperty(Constants.REQUEST_EXECUTOR_MODE, Mode.PLATFORM.name());
+        Mode mode;
+        try {
+            mode = Mode.valueOf(modeStr.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            LOGGER.warning("Invalid request executor mode " + modeStr + ". Using " + Mode.PLATFORM);
+            mode = Mode.PLATFORM;
+        }
+        int maxThreads = Math.max(1, Integer.getInteger(Constants.REQUEST_EXECUTOR_MAX_THREADS,
+                DEFAULT_MAX_THREADS));
+        int queueSize = Math.max(1, Integer.getInteger(Constants.REQUEST_EXECUTOR_QUEUE_SIZE, DEFAULT_QUEUE_SIZE));
+        RequestExecutor executor = new RequestExecutor(mode, maxThreads, queueSize);
+        LOGGER.info("Request executor mode: " + executor.mode + "; max concurrency: " + maxThreads
+                + "; queue size: " + queueSize);
+        return executor;
+    }
+
+    /**
+     * @return true if the request being processed by the current thread was rejected by the executor.
+     */
+    static boolean isRequestRejected() {
+        return Boolean.TRUE.equals(rejectedRequest.get());
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (admission == null) {
+            workers.execute(command);
+        } else if (admission.tryAcquire()) {
+            try {
+                workers.execute(() -> {
+                    try {
+                        command.run();
+                    } finally {
+                        admission.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                admission.release();
+                throw e;
+            }
+        } else {
+            reject(command);
+        }
+    }
+
+    /**
+     * Stop accepting new requests and release the threads.
+     */
+    public void shutdown() {
+        workers.shutdown();
+        overflow.shutdown();
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    private void reject(Runnable command) {
+        overflow.execute(() -> {
+            rejectedRequest.set(Boolean.TRUE);
+            try {
+                command.run();
+            } finally {
+                rejectedRequest.remove();
+            }
+        });
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        // Virtual threads are only available from JDK 21 onwards, hence the factory method is looked up reflectively.
+        try {
+            Method factory = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException e) {
+            LOGGER.warning("Virtual threads are not supported by this JVM. Using " + Mode.PLATFORM + " mode.");
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Error creating virtual thread executor. Using " + Mode.PLATFORM + " mode.", e);
+        }
+        return null;
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        private final String prefix;
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            return new Thread(r, prefix + threadCount.incrementAndGet());
+        }
+    }
+}
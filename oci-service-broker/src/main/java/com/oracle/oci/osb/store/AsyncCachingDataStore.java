@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.store;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * AsyncCachingDataStore is the {@link CachingDataStore} of an {@link AsyncDataStore}. It keeps the store usable
+ * without blocking: the lookups served from the cache complete immediately, the others and all the writes are passed
+ * on to the asynchronous operations of the delegate, and update the cache as they complete.
+ */
+public class AsyncCachingDataStore extends CachingDataStore implements AsyncDataStore {
+
+    private final AsyncDataStore delegate;
+
+    /**
+     * @param delegate   backing DataStore.
+     * @param maxEntries maximum number of entries cached for each of service and binding metadata.
+     * @param ttlSeconds time for which a cached entry is served without reading the backing store.
+     */
+    public AsyncCachingDataStore(AsyncDataStore delegate, int maxEntries, long ttlSeconds) {
+        super(delegate, maxEntries, ttlSeconds);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public CompletableFuture<Void> storeServiceDataAsync(String instanceId, ServiceData svcData) {
+        ServiceData cached = (svcData != null) ? svcData.copy() : null;
+        return delegate.storeServiceDataAsync(instanceId, svcData)
+                .thenRun(() -> cacheServiceData(instanceId, cached));
+    }
+
+    @Override
+    public CompletableFuture<ServiceData> getServiceDataAsync(String instanceId) {
+        ServiceData svcData = getCachedServiceData(instanceId);
+        if (svcData != null) {
+            return CompletableFuture.completedFuture(svcData);
+        }
+        return delegate.getServiceDataAsync(instanceId).thenApply(read -> {
+            cacheServiceData(instanceId, read);
+            return read;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> storeBindingAsync(String bindingId, BindingData bindingData) {
+        BindingData cached = (bindingData != null) ? bindingData.copy() : null;
+        return delegate.storeBindingAsync(bindingId, bindingData)
+                .thenRun(() -> cacheBindingData(bindingId, cached));
+    }
+
+    @Override
+    public CompletableFuture<BindingData> getBindingDataAsync(String bindingId) {
+        BindingData bindingData = getCachedBindingData(bindingId);
+        if (bindingData != null) {
+            return CompletableFuture.completedFuture(bindingData);
+        }
+        return delegate.getBindingDataAsync(bindingId).thenApply(read -> {
+            cacheBindingData(bindingId, read);
+            return read;
+        });
+    }
+
+    @Override
+    public CompletableFuture<InstanceAndBinding> getInstanceAndBindingAsync(String instanceId, String bindingId) {
+        ServiceData svcData = getCachedServiceData(instanceId);
+        BindingData bindingData = getCachedBindingData(bindingId);
+        if (svcData != null && bindingData != null) {
+            return CompletableFuture.completedFuture(new InstanceAndBinding(svcData, bindingData));
+        }
+        if (svcData != null) {
+            return delegate.getBindingDataAsync(bindingId).thenApply(read -> {
+                cacheBindingData(bindingId, read);
+                return new InstanceAndBinding(svcData, read);
+            });
+        }
+        if (bindingData != null) {
+            return delegate.getServiceDataAsync(instanceId).thenApply(read -> {
+                cacheServiceData(instanceId, read);
+                return new InstanceAndBinding(read, bindingData);
+            });
+        }
+        return delegate.getInstanceAndBindingAsync(instanceId, bindingId)
+                .thenApply(read -> cacheInstanceAndBinding(instanceId, bindingId, read));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeServiceDataAsync(String instanceId) {
+        return delegate.removeServiceDataAsync(instanceId)
+                .whenComplete((v, error) -> invalidateServiceData(instanceId));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeBindingDataAsync(String bindingId) {
+        return delegate.removeBindingDataAsync(bindingId)
+                .whenComplete((v, error) -> invalidateBindingData(bindingId));
+    }
+}
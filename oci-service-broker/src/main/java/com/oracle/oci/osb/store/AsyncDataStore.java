@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.store;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * AsyncDataStore is a {@link DataStore} that can also be used without blocking the calling thread. Each operation
+ * returns a {@link CompletableFuture} that completes once the store has processed the operation, or completes
+ * exceptionally if the operation failed or did not complete in time.
+ */
+public interface AsyncDataStore extends DataStore {
+
+    /**
+     * Store service related metadata for an Service instance.
+     *
+     * @param instanceId unique id of the service instance.
+     * @param svcData    service metadata
+     * @return future that completes when the metadata is stored.
+     */
+    CompletableFuture<Void> storeServiceDataAsync(String instanceId, ServiceData svcData);
+
+    /**
+     * Fetch service metadata for an Service Instance.
+     *
+     * @param instanceId unique id of the service instance.
+     * @return future that completes with the service metadata, or null if the instance does not exist.
+     */
+    CompletableFuture<ServiceData> getServiceDataAsync(String instanceId);
+
+    /**
+     * Store binding related metadata for an Service instance.
+     *
+     * @param bindingId   unique binding id .
+     * @param bindingData binding metadata.
+     * @return future that completes when the metadata is stored.
+     */
+    CompletableFuture<Void> storeBindingAsync(String bindingId, BindingData bindingData);
+
+    /**
+     * Fetch binding metadata for an Service Instance.
+     *
+     * @param bindingId unique binding id.
+     * @return future that completes with the binding metadata, or null if the binding does not exist.
+     */
+    CompletableFuture<BindingData> getBindingDataAsync(String bindingId);
+
+    /**
+     * Fetch the metadata of a Service Instance and of one of its bindings.
+     *
+     * @param instanceId unique id of the service instance.
+     * @param bindingId  unique binding id.
+     * @return future that completes with the service metadata and binding metadata.
+     */
+    CompletableFuture<InstanceAndBinding> getInstanceAndBindingAsync(String instanceId, String bindingId);
+
+    /**
+     * Remove service metadata related to an Service Instance.
+     *
+     * @param instanceId unique id of the service instance.
+     * @return future that completes when the metadata is removed.
+     */
+    CompletableFuture<Void> removeServiceDataAsync(String instanceId);
+
+    /**
+     * Remove binding metadata related to an Service Instance.
+     *
+     * @param bindingId unique binding id.
+     * @return future that completes when the metadata is removed.
+     */
+    CompletableFuture<Void> removeBindingDataAsync(String bindingId);
+}
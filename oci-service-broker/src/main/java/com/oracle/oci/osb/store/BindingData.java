@@ -86,6 +86,19 @@ public class BindingData {
         return metadata.remove(key);
     }
 
+    /**
+     * @return a copy of the binding metadata, sharing nothing mutable with it.
+     */
+    public BindingData copy() {
+        BindingData copy = new BindingData();
+        copy.instanceId = instanceId;
+        copy.serviceId = serviceId;
+        copy.planId = planId;
+        copy.bindingId = bindingId;
+        copy.metadata = (metadata != null) ? new HashMap<>(metadata) : null;
+        return copy;
+    }
+
     public HashMap<String, String> getMetadata() {
         return metadata;
     }
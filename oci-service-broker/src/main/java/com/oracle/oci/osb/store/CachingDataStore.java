@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.store;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CachingDataStore is a {@link DataStore} decorator that keeps the most recently used service and binding metadata
+ * in memory in front of a remote store.
+ * <p>
+ * Reads are served from the cache while the entry is younger than the configured TTL, otherwise they are read
+ * through to the delegate. Writes go to the delegate first and are then cached (write-through), removals invalidate
+ * the cached entry. The cache is bounded and the least recently used entries are evicted first. Lookups of missing
+ * entries are not cached. The cache holds its own copies of the metadata and hands out copies, so that a caller
+ * changing the metadata it got does not change what the other requests read.
+ * <p>
+ * The TTL bounds how long a change made by another broker replica sharing the same backing store can go unnoticed.
+ */
+public class CachingDataStore implements DataStore {
+
+    private final DataStore delegate;
+
+    private final LruCache<ServiceData> serviceDataCache;
+
+    private final LruCache<BindingData> bindingDataCache;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * @param delegate   backing DataStore.
+     * @param maxEntries maximum number of entries cached for each of service and binding metadata.
+     * @param ttlSeconds time for which a cached entry is served without reading the backing store.
+     */
+    public CachingDataStore(DataStore delegate, int maxEntries, long ttlSeconds) {
+        this.delegate = delegate;
+        long ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.serviceDataCache = new LruCache<>(maxEntries, ttlNanos);
+        this.bindingDataCache = new LruCache<>(maxEntries, ttlNanos);
+    }
+
+    @Override
+    public void storeServiceData(String instanceId, ServiceData svcData) {
+        delegate.storeServiceData(instanceId, svcData);
+        cacheServiceData(instanceId, svcData);
+    }
+
+    @Override
+    public ServiceData getServiceData(String instanceId) {
+        ServiceData svcData = getCachedServiceData(instanceId);
+        if (svcData != null) {
+            return svcData;
+        }
+        svcData = delegate.getServiceData(instanceId);
+        cacheServiceData(instanceId, svcData);
+        return svcData;
+    }
+
+    @Override
+    public void storeBinding(String bindingId, BindingData bindingData) {
+        delegate.storeBinding(bindingId, bindingData);
+        cacheBindingData(bindingId, bindingData);
+    }
+
+    @Override
+    public BindingData getBindingData(String bindingId) {
+        BindingData bindingData = getCachedBindingData(bindingId);
+        if (bindingData != null) {
+            return bindingData;
+        }
+        bindingData = delegate.getBindingData(bindingId);
+        cacheBindingData(bindingId, bindingData);
+        return bindingData;
+    }
+
+    @Override
+    public InstanceAndBinding getInstanceAndBinding(String instanceId, String bindingId) {
+        ServiceData svcData = getCachedServiceData(instanceId);
+        BindingData bindingData = getCachedBindingData(bindingId);
+        if (svcData != null && bindingData != null) {
+            return new InstanceAndBinding(svcData, bindingData);
+        }
+        if (svcData != null) {
+            bindingData = delegate.getBindingData(bindingId);
+            cacheBindingData(bindingId, bindingData);
+            return new InstanceAndBinding(svcData, bindingData);
+        }
+        if (bindingData != null) {
+            svcData = delegate.getServiceData(instanceId);
+            cacheServiceData(instanceId, svcData);
+            return new InstanceAndBinding(svcData, bindingData);
+        }
+        return cacheInstanceAndBinding(instanceId, bindingId, delegate.getInstanceAndBinding(instanceId, bindingId));
+    }
+
+    @Override
+    public void removeServiceData(String instanceId) {
+        try {
+            delegate.removeServiceData(instanceId);
+        } finally {
+            invalidateServiceData(instanceId);
+        }
+    }
+
+    @Override
+    public void removeBindingData(String bindingId) {
+        try {
+            delegate.removeBindingData(bindingId);
+        } finally {
+            invalidateBindingData(bindingId);
+        }
+    }
+
+    @Override
+    public Lease acquireLease(String name, Lease lease) {
+        return delegate.acquireLease(name, lease);
+    }
+
+    @Override
+    public Lease getLease(String name) {
+        return delegate.getLease(name);
+    }
+
+    @Override
+    public void releaseLease(String name, Lease lease) {
+        delegate.releaseLease(name, lease);
+    }
+
+    @Override
+    public boolean isStoreHealthy() {
+        return delegate.isStoreHealthy();
+    }
+
+    /**
+     * Returns a copy of the cached service metadata, counting the lookup as a hit or a miss.
+     *
+     * @return the copy, null if the entry is not cached.
+     */
+    ServiceData getCachedServiceData(String instanceId) {
+        ServiceData svcData = serviceDataCache.get(instanceId);
+        if (svcData == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return svcData.copy();
+    }
+
+    /**
+     * Returns a copy of the cached binding metadata, counting the lookup as a hit or a miss.
+     *
+     * @return the copy, null if the entry is not cached.
+     */
+    BindingData getCachedBindingData(String bindingId) {
+        BindingData bindingData = bindingDataCache.get(bindingId);
+        if (bindingData == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return bindingData.copy();
+    }
+
+    /**
+     * Caches a copy of the service metadata, so that the caller can go on changing its own.
+     */
+    void cacheServiceData(String instanceId, ServiceData svcData) {
+        if (svcData != null) {
+            serviceDataCache.put(instanceId, svcData.copy());
+        }
+    }
+
+    /**
+     * Caches a copy of the binding metadata, so that the caller can go on changing its own.
+     */
+    void cacheBindingData(String bindingId, BindingData bindingData) {
+        if (bindingData != null) {
+            bindingDataCache.put(bindingId, bindingData.copy());
+        }
+    }
+
+    InstanceAndBinding cacheInstanceAndBinding(String instanceId, String bindingId,
+                                               InstanceAndBinding instanceAndBinding) {
+        cacheServiceData(instanceId, instanceAndBinding.getServiceData());
+        cacheBindingData(bindingId, instanceAndBinding.getBindingData());
+        return instanceAndBinding;
+    }
+
+    void invalidateServiceData(String instanceId) {
+        serviceDataCache.remove(instanceId);
+    }
+
+    void invalidateBindingData(String bindingId) {
+        bindingDataCache.remove(bindingId);
+    }
+
+    /**
+     * @return the number of lookups served from the cache.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the number of lookups that were read through to the backing store.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Bounded, access ordered map whose entries expire after a fixed time.
+     */
+    private static class LruCache<V> {
+
+        private final long ttlNanos;
+
+        private final LinkedHashMap<String, CacheEntry<V>> entries;
+
+        LruCache(int maxEntries, long ttlNanos) {
+            this.ttlNanos = ttlNanos;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CacheEntry<V>> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        synchronized V get(String key) {
+            CacheEntry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.cachedAt > ttlNanos) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+
+        synchronized void put(String key, V value) {
+            entries.put(key, new CacheEntry<>(value, System.nanoTime()));
+        }
+
+        synchronized void remove(String key) {
+            entries.remove(key);
+        }
+    }
+
+    private static class CacheEntry<V> {
+
+        private final V value;
+
+        private final long cachedAt;
+
+        CacheEntry(V value, long cachedAt) {
+            this.value = value;
+            this.cachedAt = cachedAt;
+        }
+    }
+}
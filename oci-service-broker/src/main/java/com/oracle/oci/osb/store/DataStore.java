@@ -43,6 +43,18 @@ public interface DataStore {
      */
     BindingData getBindingData(String bindingId);
 
+    /**
+     * Fetch the metadata of a Service Instance and of one of its bindings. Stores backed by a remote service
+     * should override this to fetch both with a single round trip or concurrently.
+     *
+     * @param instanceId unique id of the service instance.
+     * @param bindingId  unique binding id.
+     * @return service metadata and binding metadata.
+     */
+    default InstanceAndBinding getInstanceAndBinding(String instanceId, String bindingId) {
+        return new InstanceAndBinding(getServiceData(instanceId), getBindingData(bindingId));
+    }
+
     /**
      * Remove service metadata related to an Service Instance.
      *
@@ -57,6 +69,38 @@ public interface DataStore {
      */
     void removeBindingData(String bindingId);
 
+    /**
+     * Takes the lease of the given name, unless it is held by another lease that has not expired. Stores shared by
+     * several brokers must take the lease atomically; the default implementation, for stores used by a single
+     * broker, grants every lease as the broker coordinates its own requests.
+     *
+     * @param name  name of the lease.
+     * @param lease lease to take.
+     * @return the given lease if it was taken, the lease holding the name otherwise.
+     */
+    default Lease acquireLease(String name, Lease lease) {
+        return lease;
+    }
+
+    /**
+     * Fetch the lease of the given name.
+     *
+     * @param name name of the lease.
+     * @return the lease, null if the lease is not held.
+     */
+    default Lease getLease(String name) {
+        return null;
+    }
+
+    /**
+     * Releases the lease of the given name if it is still held by the given lease.
+     *
+     * @param name  name of the lease.
+     * @param lease lease taken by {@link #acquireLease(String, Lease)}.
+     */
+    default void releaseLease(String name, Lease lease) {
+    }
+
     /**
      * Checks if the store is healthy.
      *
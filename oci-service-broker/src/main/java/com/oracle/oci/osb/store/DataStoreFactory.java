@@ -5,13 +5,26 @@
 
 package com.oracle.oci.osb.store;
 
+import com.oracle.oci.osb.mbean.GaugeRegistry;
+import com.oracle.oci.osb.mbean.GaugeRegistry.Gauge;
 import com.oracle.oci.osb.util.Constants;
 import com.oracle.oci.osb.util.Errors;
 
 public class DataStoreFactory {
 
+    private static final int DEFAULT_CACHE_MAX_ENTRIES = 1000;
+
+    private static final long DEFAULT_CACHE_TTL_SECONDS = 60;
+
     private static DataStore dataStore = createDataStore();
 
+    static {
+        GaugeRegistry.register(Gauge.DATA_STORE_CACHE_HITS, () -> (dataStore instanceof CachingDataStore)
+                ? ((CachingDataStore) dataStore).getHitCount() : 0);
+        GaugeRegistry.register(Gauge.DATA_STORE_CACHE_MISSES, () -> (dataStore instanceof CachingDataStore)
+                ? ((CachingDataStore) dataStore).getMissCount() : 0);
+    }
+
 
     /**
      * Returns the DataStore instance.
@@ -23,11 +36,25 @@ public class DataStoreFactory {
     }
 
     /**
-     * Creates a new instance of DataStore.
+     * Creates a new instance of DataStore. The store is wrapped in a {@link CachingDataStore} if the cache is
+     * enabled, an {@link AsyncCachingDataStore} if the store is an {@link AsyncDataStore}.
      *
      * @return DataStore
      */
     public static DataStore createDataStore() {
+        DataStore store = createBackingStore();
+        if (Boolean.getBoolean(Constants.STORE_CACHE_ENABLED)) {
+            int maxEntries = Integer.getInteger(Constants.STORE_CACHE_MAX_ENTRIES, DEFAULT_CACHE_MAX_ENTRIES);
+            long ttlSeconds = Long.getLong(Constants.STORE_CACHE_TTL_SECONDS, DEFAULT_CACHE_TTL_SECONDS);
+            if (store instanceof AsyncDataStore) {
+                return new AsyncCachingDataStore((AsyncDataStore) store, maxEntries, ttlSeconds);
+            }
+            return new CachingDataStore(store, maxEntries, ttlSeconds);
+        }
+        return store;
+    }
+
+    private static DataStore createBackingStore() {
         String storeType = System.getProperty(Constants.STORE_TYPE, Constants.OBJECT_STORE_TYPE);
         switch (storeType) {
             case Constants.MEMORY_TYPE:
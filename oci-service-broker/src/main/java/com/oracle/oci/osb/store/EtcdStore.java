@@ -10,6 +10,13 @@ import io.etcd.jetcd.KV;
 import io.etcd.jetcd.ByteSequence;
 import io.etcd.jetcd.KeyValue;
 import io.etcd.jetcd.kv.GetResponse;
+import io.etcd.jetcd.kv.TxnResponse;
+import io.etcd.jetcd.op.Cmp;
+import io.etcd.jetcd.op.CmpTarget;
+import io.etcd.jetcd.op.Op;
+import io.etcd.jetcd.options.DeleteOption;
+import io.etcd.jetcd.options.GetOption;
+import io.etcd.jetcd.options.PutOption;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.oracle.oci.osb.api.OSBV2API;
@@ -24,17 +31,29 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import static com.oracle.oci.osb.util.Utils.getLogger;
 
-public class EtcdStore implements DataStore {
+public class EtcdStore implements AsyncDataStore {
+
+    private static final long DEFAULT_TIMEOUT_SECONDS = 10;
+
+    private static final String LEASE_PREFIX = "lease-";
+
+    /**
+     * Number of times the lease is read and taken over again when another broker changed it in between.
+     */
+    private static final int MAX_LEASE_ATTEMPTS = 5;
 
     private KV kvClient;
     private ObjectMapper objMapper;
     private final ByteSequence readyKey;
+    private final long timeoutSeconds;
 
     private static final Logger LOGGER = getLogger(OSBV2API.class);
 
@@ -45,6 +64,7 @@ public class EtcdStore implements DataStore {
         }
 
         readyKey = getByteSequence(Constants.SVC_BROKER_PREFIX + podName + "-ready");
+        timeoutSeconds = Long.getLong(Constants.ETCD_TIMEOUT_SECONDS, DEFAULT_TIMEOUT_SECONDS);
 
         String serverHosts = System.getProperty(Constants.ETCD_SERVERS);
         if (serverHosts == null || serverHosts.trim().equals("")) {
@@ -105,76 +125,129 @@ public class EtcdStore implements DataStore {
 
     @Override
     public void storeServiceData(String instanceId, ServiceData svcData) {
-        try {
-            byte[] value = objMapper.writeValueAsBytes(svcData);
-            kvClient.put(getByteSequence(Constants.SVC_BROKER_PREFIX + instanceId), ByteSequence.from(value));
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
-        }
+        await(storeServiceDataAsync(instanceId, svcData));
     }
 
     @Override
     public ServiceData getServiceData(String instanceId) {
-        try {
-            GetResponse response = kvClient.get(getByteSequence(Constants.SVC_BROKER_PREFIX + instanceId)).get();
-            List<KeyValue> listKeyValues = response.getKvs();
-            if (listKeyValues != null) {
-                if (listKeyValues.size() == 1) {
-                    return objMapper.readValue(listKeyValues.get(0).getValue().getBytes(), ServiceData.class);
-                } else if (listKeyValues.size() > 1) {
-                    throw new RuntimeException("Ambiguous key value pair in the etcd database");
-                }
-            }
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        } catch (ExecutionException e) {
-            throw new RuntimeException(e);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        return null;
+        return await(getServiceDataAsync(instanceId));
     }
 
     @Override
     public void storeBinding(String bindingId, BindingData bindingData) {
-        try {
-            byte[] value = objMapper.writeValueAsBytes(bindingData);
-            kvClient.put(getByteSequence(Constants.SVC_BROKER_PREFIX + bindingId), ByteSequence.from(value));
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
-        }
+        await(storeBindingAsync(bindingId, bindingData));
     }
 
     @Override
     public BindingData getBindingData(String bindingId) {
-        try {
-            GetResponse response = kvClient.get(getByteSequence(Constants.SVC_BROKER_PREFIX + bindingId)).get();
-            List<KeyValue> listKeyValues = response.getKvs();
-            if (listKeyValues != null) {
-                if (listKeyValues.size() == 1) {
-                    return objMapper.readValue(listKeyValues.get(0).getValue().getBytes(), BindingData.class);
-                } else if (listKeyValues.size() > 1) {
-                    throw new RuntimeException("Ambiguous key value pair in the etcd database");
-                }
-            }
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        } catch (ExecutionException e) {
-            throw new RuntimeException(e);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        return null;
+        return await(getBindingDataAsync(bindingId));
+    }
+
+    @Override
+    public InstanceAndBinding getInstanceAndBinding(String instanceId, String bindingId) {
+        return await(getInstanceAndBindingAsync(instanceId, bindingId));
     }
 
     @Override
     public void removeServiceData(String instanceId) {
-        kvClient.delete(getByteSequence(Constants.SVC_BROKER_PREFIX + instanceId));
+        await(removeServiceDataAsync(instanceId));
     }
 
     @Override
     public void removeBindingData(String bindingId) {
-        kvClient.delete(getByteSequence(Constants.SVC_BROKER_PREFIX + bindingId));
+        await(removeBindingDataAsync(bindingId));
+    }
+
+    @Override
+    public CompletableFuture<Void> storeServiceDataAsync(String instanceId, ServiceData svcData) {
+        return put(instanceId, svcData);
+    }
+
+    @Override
+    public CompletableFuture<ServiceData> getServiceDataAsync(String instanceId) {
+        return get(instanceId, ServiceData.class);
+    }
+
+    @Override
+    public CompletableFuture<Void> storeBindingAsync(String bindingId, BindingData bindingData) {
+        return put(bindingId, bindingData);
+    }
+
+    @Override
+    public CompletableFuture<BindingData> getBindingDataAsync(String bindingId) {
+        return get(bindingId, BindingData.class);
+    }
+
+    @Override
+    public CompletableFuture<InstanceAndBinding> getInstanceAndBindingAsync(String instanceId, String bindingId) {
+        // both keys are read in a single transaction, hence with one round trip and from the same revision
+        return kvClient.txn()
+                .Then(Op.get(getByteSequence(Constants.SVC_BROKER_PREFIX + instanceId), GetOption.DEFAULT),
+                        Op.get(getByteSequence(Constants.SVC_BROKER_PREFIX + bindingId), GetOption.DEFAULT))
+                .commit()
+                .orTimeout(timeoutSeconds, TimeUnit.SECONDS)
+                .thenApply(response -> {
+                    List<GetResponse> getResponses = response.getGetResponses();
+                    return new InstanceAndBinding(readValue(getResponses.get(0), ServiceData.class),
+                            readValue(getResponses.get(1), BindingData.class));
+                });
+    }
+
+    @Override
+    public CompletableFuture<Void> removeServiceDataAsync(String instanceId) {
+        return delete(instanceId);
+    }
+
+    @Override
+    public CompletableFuture<Void> removeBindingDataAsync(String bindingId) {
+        return delete(bindingId);
+    }
+
+    @Override
+    public Lease acquireLease(String name, Lease lease) {
+        ByteSequence key = getByteSequence(Constants.SVC_BROKER_PREFIX + LEASE_PREFIX + name);
+        ByteSequence value = toByteSequence(lease);
+        // the lease is put if the key does not exist, or still holds the expired lease that was read last
+        Cmp condition = new Cmp(key, Cmp.Op.EQUAL, CmpTarget.version(0));
+        for (int attempt = 0; attempt < MAX_LEASE_ATTEMPTS; attempt++) {
+            TxnResponse response = await(kvClient.txn()
+                    .If(condition)
+                    .Then(Op.put(key, value, PutOption.DEFAULT))
+                    .Else(Op.get(key, GetOption.DEFAULT))
+                    .commit()
+                    .orTimeout(timeoutSeconds, TimeUnit.SECONDS));
+            if (response.isSucceeded()) {
+                return lease;
+            }
+            GetResponse getResponse = response.getGetResponses().get(0);
+            Lease current = readValue(getResponse, Lease.class);
+            if (current == null) {
+                condition = new Cmp(key, Cmp.Op.EQUAL, CmpTarget.version(0));
+            } else if (!current.isExpired(System.currentTimeMillis())) {
+                return current;
+            } else {
+                long modRevision = getResponse.getKvs().get(0).getModRevision();
+                condition = new Cmp(key, Cmp.Op.EQUAL, CmpTarget.modRevision(modRevision));
+            }
+        }
+        throw new RuntimeException("The lease " + name + " kept changing while it was being acquired");
+    }
+
+    @Override
+    public Lease getLease(String name) {
+        Lease lease = await(get(LEASE_PREFIX + name, Lease.class));
+        return (lease == null || lease.isExpired(System.currentTimeMillis())) ? null : lease;
+    }
+
+    @Override
+    public void releaseLease(String name, Lease lease) {
+        ByteSequence key = getByteSequence(Constants.SVC_BROKER_PREFIX + LEASE_PREFIX + name);
+        // the key is deleted only if it still holds the lease as written when it was acquired
+        await(kvClient.txn()
+                .If(new Cmp(key, Cmp.Op.EQUAL, CmpTarget.value(toByteSequence(lease))))
+                .Then(Op.delete(key, DeleteOption.DEFAULT))
+                .commit()
+                .orTimeout(timeoutSeconds, TimeUnit.SECONDS));
     }
 
     @Override
@@ -187,6 +260,68 @@ public class EtcdStore implements DataStore {
         return false;
     }
 
+    private CompletableFuture<Void> put(String key, Object data) {
+        byte[] value;
+        try {
+            value = objMapper.writeValueAsBytes(data);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return kvClient.put(getByteSequence(Constants.SVC_BROKER_PREFIX + key), ByteSequence.from(value))
+                .orTimeout(timeoutSeconds, TimeUnit.SECONDS)
+                .thenApply(response -> null);
+    }
+
+    private ByteSequence toByteSequence(Object data) {
+        try {
+            return ByteSequence.from(objMapper.writeValueAsBytes(data));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private <T> CompletableFuture<T> get(String key, Class<T> type) {
+        return kvClient.get(getByteSequence(Constants.SVC_BROKER_PREFIX + key))
+                .orTimeout(timeoutSeconds, TimeUnit.SECONDS)
+                .thenApply(response -> readValue(response, type));
+    }
+
+    private CompletableFuture<Void> delete(String key) {
+        return kvClient.delete(getByteSequence(Constants.SVC_BROKER_PREFIX + key))
+                .orTimeout(timeoutSeconds, TimeUnit.SECONDS)
+                .thenApply(response -> null);
+    }
+
+    private <T> T readValue(GetResponse response, Class<T> type) {
+        List<KeyValue> listKeyValues = response.getKvs();
+        if (listKeyValues != null) {
+            if (listKeyValues.size() == 1) {
+                try {
+                    return objMapper.readValue(listKeyValues.get(0).getValue().getBytes(), type);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            } else if (listKeyValues.size() > 1) {
+                throw new RuntimeException("Ambiguous key value pair in the etcd database");
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Waits for an etcd operation to complete. The operation future is already bound by the store timeout.
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
 
     private ByteSequence getByteSequence(String str) {
         try {
@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.store;
+
+/**
+ * InstanceAndBinding holds the service metadata and binding metadata fetched together by
+ * {@link DataStore#getInstanceAndBinding(String, String)}. Either of them is null if it does not exist in the store.
+ */
+public class InstanceAndBinding {
+
+    private final ServiceData serviceData;
+
+    private final BindingData bindingData;
+
+    public InstanceAndBinding(ServiceData serviceData, BindingData bindingData) {
+        this.serviceData = serviceData;
+        this.bindingData = bindingData;
+    }
+
+    public ServiceData getServiceData() {
+        return serviceData;
+    }
+
+    public BindingData getBindingData() {
+        return bindingData;
+    }
+}
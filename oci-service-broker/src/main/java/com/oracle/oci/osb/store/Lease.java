@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.store;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.Objects;
+
+/**
+ * Lease is a record held in the {@link DataStore} that lets one broker claim a piece of work, such as a provision
+ * request, for a limited time. The token identifies the work claimed, so that a broker finding the lease taken can
+ * tell whether it was taken for the same work.
+ */
+public class Lease {
+
+    private String owner;
+
+    private String token;
+
+    private long expiresAt;
+
+    public Lease() {
+    }
+
+    public Lease(String owner, String token, long expiresAt) {
+        this.owner = owner;
+        this.token = token;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    /**
+     * @return the time the lease expires at, in milliseconds since the epoch.
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * @param now current time in milliseconds since the epoch.
+     * @return true if the lease has expired, in which case it can be taken over.
+     */
+    @JsonIgnore
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+
+    /**
+     * @param other another lease, may be null.
+     * @return true if both leases were taken by the same owner for the same work.
+     */
+    @JsonIgnore
+    public boolean isSameAs(Lease other) {
+        return other != null && Objects.equals(owner, other.owner) && Objects.equals(token, other.token);
+    }
+
+    @Override
+    public String toString() {
+        return "Lease{owner=" + owner + ", token=" + token + ", expiresAt=" + expiresAt + "}";
+    }
+}
@@ -5,21 +5,73 @@
 
 package com.oracle.oci.osb.store;
 
-import java.util.HashMap;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oracle.oci.osb.util.Constants;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.oracle.oci.osb.util.Utils.getLogger;
 
 /**
- * MemoryStore is Memory backed implementation of the Datastore. The data is
- * not persisted anywhere and kept only in the memory.
+ * MemoryStore is Memory backed implementation of the Datastore. Reads are served from concurrent maps without
+ * locking.
+ * <p>
+ * By default the data is kept only in the memory. If a journal file is configured every change is also appended to
+ * the file, and the file is replayed when the store is created, so the data survives broker restarts. The journal is
+ * periodically compacted into a snapshot of the current data so that it does not grow without bound.
  */
 public class MemoryStore implements DataStore {
 
-    private final HashMap<String, ServiceData> store = new HashMap<>();
+    private static final Logger LOGGER = getLogger(MemoryStore.class);
+
+    private static final long DEFAULT_SNAPSHOT_INTERVAL_SECONDS = 300;
+
+    private final ConcurrentHashMap<String, ServiceData> store = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, BindingData> svcBindingStore = new ConcurrentHashMap<>();
+
+    /**
+     * Leases are only meaningful while the broker runs, they are not journaled.
+     */
+    private final ConcurrentHashMap<String, Lease> leases = new ConcurrentHashMap<>();
 
-    private final HashMap<String, BindingData> svcBindingStore = new HashMap<>();
+    private final Journal journal;
+
+    public MemoryStore() {
+        String journalFile = System.getProperty(Constants.MEMORY_STORE_FILE);
+        if (journalFile == null || journalFile.trim().isEmpty()) {
+            journal = null;
+        } else {
+            long snapshotInterval = Long.getLong(Constants.MEMORY_STORE_SNAPSHOT_INTERVAL,
+                    DEFAULT_SNAPSHOT_INTERVAL_SECONDS);
+            journal = new Journal(Paths.get(journalFile.trim()), snapshotInterval);
+        }
+    }
 
     @Override
     public void storeServiceData(String instanceId, ServiceData svcData) {
-        store.put(instanceId, svcData);
+        if (journal == null) {
+            store.put(instanceId, svcData);
+        } else {
+            journal.update(JournalRecord.putServiceData(instanceId, svcData), () -> store.put(instanceId, svcData));
+        }
     }
 
     @Override
@@ -29,7 +81,12 @@ public class MemoryStore implements DataStore {
 
     @Override
     public void storeBinding(String bindingId, BindingData bindingData) {
-        svcBindingStore.put(bindingId, bindingData);
+        if (journal == null) {
+            svcBindingStore.put(bindingId, bindingData);
+        } else {
+            journal.update(JournalRecord.putBindingData(bindingId, bindingData),
+                    () -> svcBindingStore.put(bindingId, bindingData));
+        }
     }
 
     @Override
@@ -39,16 +96,239 @@ public class MemoryStore implements DataStore {
 
     @Override
     public void removeServiceData(String instanceId) {
-        store.remove(instanceId);
+        if (journal == null) {
+            store.remove(instanceId);
+        } else {
+            journal.update(JournalRecord.of(JournalRecord.REMOVE_SERVICE, instanceId),
+                    () -> store.remove(instanceId));
+        }
     }
 
     @Override
     public void removeBindingData(String instanceId) {
-        svcBindingStore.remove(instanceId);
+        if (journal == null) {
+            svcBindingStore.remove(instanceId);
+        } else {
+            journal.update(JournalRecord.of(JournalRecord.REMOVE_BINDING, instanceId),
+                    () -> svcBindingStore.remove(instanceId));
+        }
+    }
+
+    @Override
+    public Lease acquireLease(String name, Lease lease) {
+        long now = System.currentTimeMillis();
+        return leases.compute(name, (key, current) -> (current == null || current.isExpired(now)) ? lease : current);
+    }
+
+    @Override
+    public Lease getLease(String name) {
+        Lease lease = leases.get(name);
+        return (lease == null || lease.isExpired(System.currentTimeMillis())) ? null : lease;
+    }
+
+    @Override
+    public void releaseLease(String name, Lease lease) {
+        leases.computeIfPresent(name, (key, current) -> current.isSameAs(lease) ? null : current);
     }
 
     @Override
     public boolean isStoreHealthy() {
-        return true;
+        return journal == null || journal.isOpen();
+    }
+
+    /**
+     * Append only file holding one JSON encoded {@link JournalRecord} per line.
+     */
+    private class Journal {
+
+        private final Path file;
+
+        private final ObjectMapper objMapper = new ObjectMapper();
+
+        /**
+         * Guards the journal file. Updates are applied to the maps while holding the lock, so the order of the
+         * records in the journal is the order in which the updates were applied.
+         */
+        private final Object lock = new Object();
+
+        private FileChannel channel;
+
+        private long recordsSinceSnapshot;
+
+        Journal(Path file, long snapshotIntervalSeconds) {
+            this.file = file;
+            try {
+                replay();
+                snapshot();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "memory-store-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::scheduledSnapshot, snapshotIntervalSeconds,
+                    snapshotIntervalSeconds, TimeUnit.SECONDS);
+        }
+
+        void update(JournalRecord record, Runnable mapUpdate) {
+            try {
+                byte[] line = toLine(record);
+                synchronized (lock) {
+                    write(channel, line);
+                    mapUpdate.run();
+                    recordsSinceSnapshot++;
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        boolean isOpen() {
+            synchronized (lock) {
+                return channel != null && channel.isOpen();
+            }
+        }
+
+        private void replay() throws IOException {
+            if (!Files.exists(file)) {
+                return;
+            }
+            int records = 0;
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+                    JournalRecord record;
+                    try {
+                        record = objMapper.readValue(line, JournalRecord.class);
+                    } catch (IOException e) {
+                        // Only the last record can be incomplete, if the broker stopped while it was being written.
+                        LOGGER.log(Level.WARNING, "Ignoring unreadable record in memory store journal " + file, e);
+                        break;
+                    }
+                    apply(record);
+                    records++;
+                }
+            }
+            LOGGER.info("Replayed " + records + " records from memory store journal " + file);
+        }
+
+        private void apply(JournalRecord record) {
+            switch (record.op) {
+                case JournalRecord.PUT_SERVICE:
+                    store.put(record.key, record.serviceData);
+                    break;
+                case JournalRecord.PUT_BINDING:
+                    svcBindingStore.put(record.key, record.bindingData);
+                    break;
+                case JournalRecord.REMOVE_SERVICE:
+                    store.remove(record.key);
+                    break;
+                case JournalRecord.REMOVE_BINDING:
+                    svcBindingStore.remove(record.key);
+                    break;
+                default:
+                    LOGGER.warning("Ignoring unknown memory store journal operation " + record.op);
+            }
+        }
+
+        private void scheduledSnapshot() {
+            try {
+                synchronized (lock) {
+                    if (recordsSinceSnapshot == 0) {
+                        return;
+                    }
+                }
+                snapshot();
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Error writing memory store snapshot to " + file, e);
+            }
+        }
+
+        /**
+         * Replaces the journal with a snapshot of the current data and continues appending to the new file.
+         */
+        private void snapshot() throws IOException {
+            Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp");
+            synchronized (lock) {
+                try (FileChannel snapshotChannel = FileChannel.open(tmpFile, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    for (Map.Entry<String, ServiceData> entry : store.entrySet()) {
+                        write(snapshotChannel, toLine(JournalRecord.putServiceData(entry.getKey(), entry.getValue())));
+                    }
+                    for (Map.Entry<String, BindingData> entry : svcBindingStore.entrySet()) {
+                        write(snapshotChannel, toLine(JournalRecord.putBindingData(entry.getKey(), entry.getValue())));
+                    }
+                    snapshotChannel.force(true);
+                }
+                Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                if (channel != null) {
+                    channel.close();
+                }
+                channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                recordsSinceSnapshot = 0;
+            }
+        }
+
+        private byte[] toLine(JournalRecord record) throws IOException {
+            byte[] json = objMapper.writeValueAsBytes(record);
+            byte[] line = new byte[json.length + 1];
+            System.arraycopy(json, 0, line, 0, json.length);
+            line[json.length] = '\n';
+            return line;
+        }
+
+        private void write(FileChannel fileChannel, byte[] line) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                fileChannel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * A single change to the store, as written to the journal.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    static class JournalRecord {
+
+        static final String PUT_SERVICE = "putService";
+
+        static final String PUT_BINDING = "putBinding";
+
+        static final String REMOVE_SERVICE = "removeService";
+
+        static final String REMOVE_BINDING = "removeBinding";
+
+        public String op;
+
+        public String key;
+
+        public ServiceData serviceData;
+
+        public BindingData bindingData;
+
+        static JournalRecord putServiceData(String key, ServiceData serviceData) {
+            JournalRecord record = of(PUT_SERVICE, key);
+            record.serviceData = serviceData;
+            return record;
+        }
+
+        static JournalRecord putBindingData(String key, BindingData bindingData) {
+            JournalRecord record = of(PUT_BINDING, key);
+            record.bindingData = bindingData;
+            return record;
+        }
+
+        static JournalRecord of(String op, String key) {
+            JournalRecord record = new JournalRecord();
+            record.op = op;
+            record.key = key;
+            return record;
+        }
     }
 }
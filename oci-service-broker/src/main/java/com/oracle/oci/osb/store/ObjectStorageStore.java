@@ -24,6 +24,14 @@ import com.oracle.oci.osb.util.Constants;
 import javax.ws.rs.core.Response;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * ObjectStorageStore class provides DataStore implementation that is backed by
@@ -37,6 +45,17 @@ public class ObjectStorageStore implements DataStore {
 
     private static final String COMPARTMENT_ID = "compartmentId";
 
+    private static final int DEFAULT_MULTIPART_THRESHOLD_MB = 8;
+
+    private static final int DEFAULT_LOOKUP_THREADS = 16;
+
+    private static final String LEASE_PREFIX = "leases/";
+
+    /**
+     * Number of times the lease is read and taken over again when another broker changed it in between.
+     */
+    private static final int MAX_LEASE_ATTEMPTS = 5;
+
     private final ObjectStorageClient objectStorageClient;
 
     private final ObjectMapper objMapper;
@@ -45,13 +64,38 @@ public class ObjectStorageStore implements DataStore {
 
     private final String namespace;
 
+    private final UploadManager uploadManager;
+
+    private final long multipartThresholdBytes;
+
+    /**
+     * Runs the lookups that are issued concurrently with the lookup made by the request thread. Once all its threads
+     * are busy the lookup runs on the request thread, after which the two lookups are made one after the other.
+     */
+    private final ThreadPoolExecutor lookupExecutor;
+
     public ObjectStorageStore() {
-        objectStorageClient = new ObjectStorageClient(new SystemPropsAuthProvider().getAuthProvider());
+        objectStorageClient = SystemPropsAuthProvider.getInstance().buildClient(ObjectStorageClient.builder());
         objectStorageClient.setRegion(Region.fromRegionId(System.getProperty(Constants.REGION_ID)));
         objMapper = new ObjectMapper();
+        int lookupThreads = Math.max(1, Integer.getInteger(Constants.OBJECT_STORE_LOOKUP_THREADS,
+                DEFAULT_LOOKUP_THREADS));
+        lookupExecutor = new ThreadPoolExecutor(lookupThreads, lookupThreads, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), r -> {
+                    Thread thread = new Thread(r, "object-storage-lookup");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        lookupExecutor.allowCoreThreadTimeOut(true);
         bucketName = System.getProperty(BUCKET_NAME);
         namespace = System.getProperty(NAMESPACE);
 
+        int multipartThresholdMB = Integer.getInteger(Constants.OBJECT_STORE_MULTIPART_THRESHOLD_MB,
+                DEFAULT_MULTIPART_THRESHOLD_MB);
+        multipartThresholdBytes = multipartThresholdMB * 1024L * 1024L;
+        uploadManager = new UploadManager(objectStorageClient, UploadConfiguration.builder()
+                .minimumLengthForMultipartUpload(multipartThresholdMB).build());
+
         try {
             objectStorageClient.createBucket(CreateBucketRequest.builder().namespaceName(namespace)
                     .createBucketDetails(CreateBucketDetails.builder().name(bucketName).compartmentId(System
@@ -127,6 +171,21 @@ public class ObjectStorageStore implements DataStore {
         }
     }
 
+    @Override
+    public InstanceAndBinding getInstanceAndBinding(String instanceId, String bindingId) {
+        CompletableFuture<BindingData> bindingDataFuture = CompletableFuture.supplyAsync(() ->
+                getBindingData(bindingId), lookupExecutor);
+        ServiceData svcData = getServiceData(instanceId);
+        try {
+            return new InstanceAndBinding(svcData, bindingDataFuture.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
     @Override
     public void removeServiceData(String instanceId) {
         objectStorageClient.deleteObject(DeleteObjectRequest.builder().namespaceName
@@ -139,21 +198,124 @@ public class ObjectStorageStore implements DataStore {
                 (namespace).bucketName(bucketName).objectName(bindingId).build());
     }
 
+    @Override
+    public Lease acquireLease(String name, Lease lease) {
+        byte[] value;
+        try {
+            value = objMapper.writeValueAsBytes(lease);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+        for (int attempt = 0; attempt < MAX_LEASE_ATTEMPTS; attempt++) {
+            StoredLease current = readLease(name);
+            if (current != null && !current.lease.isExpired(System.currentTimeMillis())) {
+                return current.lease;
+            }
+            // the lease is written only if the object does not exist, or still is the expired lease just read
+            PutObjectRequest.Builder request = PutObjectRequest.builder().bucketName(bucketName)
+                    .namespaceName(namespace).objectName(LEASE_PREFIX + name).contentType("application/json")
+                    .contentLength((long) value.length).putObjectBody(new ByteArrayInputStream(value));
+            if (current == null) {
+                request.ifNoneMatch("*");
+            } else {
+                request.ifMatch(current.eTag);
+            }
+            try {
+                objectStorageClient.putObject(request.build());
+                return lease;
+            } catch (BmcException e) {
+                if (e.getStatusCode() != Response.Status.PRECONDITION_FAILED.getStatusCode()) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+        throw new RuntimeException("The lease " + name + " kept changing while it was being acquired");
+    }
+
+    @Override
+    public Lease getLease(String name) {
+        StoredLease current = readLease(name);
+        return (current == null || current.lease.isExpired(System.currentTimeMillis())) ? null : current.lease;
+    }
+
+    @Override
+    public void releaseLease(String name, Lease lease) {
+        StoredLease current = readLease(name);
+        if (current == null || !current.lease.isSameAs(lease)) {
+            return;
+        }
+        try {
+            objectStorageClient.deleteObject(DeleteObjectRequest.builder().namespaceName(namespace)
+                    .bucketName(bucketName).objectName(LEASE_PREFIX + name).ifMatch(current.eTag).build());
+        } catch (BmcException e) {
+            // the lease was taken over or removed in the meantime, it is no longer ours to release
+            if (e.getStatusCode() != Response.Status.PRECONDITION_FAILED.getStatusCode()
+                    && e.getStatusCode() != Response.Status.NOT_FOUND.getStatusCode()) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
     @Override
     public boolean isStoreHealthy() {
         return true;
     }
 
     private void uploadByteArray(String key, byte[] value) {
-        ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(value);
         PutObjectRequest request = PutObjectRequest.builder().bucketName(bucketName).namespaceName(namespace)
                 .objectName(key).contentType("application/json").build();
 
-        UploadManager.UploadRequest uploadDetails = UploadManager.UploadRequest.builder(byteArrayInputStream, value
-                .length).allowOverwrite(true).build(request);
-        UploadConfiguration uploadConfiguration = UploadConfiguration.builder().build();
+        if (value.length < multipartThresholdBytes) {
+            // metadata records are a few hundred bytes, upload them with a single request
+            objectStorageClient.putObject(PutObjectRequest.builder().copy(request)
+                    .contentLength((long) value.length)
+                    .contentMD5(md5Base64(value))
+                    .putObjectBody(new ByteArrayInputStream(value)).build());
+        } else {
+            UploadManager.UploadRequest uploadDetails = UploadManager.UploadRequest.builder(
+                    new ByteArrayInputStream(value), value.length).allowOverwrite(true).build(request);
+            uploadManager.upload(uploadDetails);
+        }
+    }
+
+    private StoredLease readLease(String name) {
+        try {
+            GetObjectResponse getResponse = objectStorageClient.getObject(GetObjectRequest.builder().namespaceName
+                    (namespace).bucketName(bucketName).objectName(LEASE_PREFIX + name).build());
 
-        UploadManager uploadManager = new UploadManager(objectStorageClient, uploadConfiguration);
-        uploadManager.upload(uploadDetails);
+            try (final InputStream fileStream = getResponse.getInputStream()) {
+                return new StoredLease(objMapper.readValue(fileStream, Lease.class), getResponse.getETag());
+            }
+        } catch (BmcException e) {
+            if (e.getStatusCode() == Response.Status.NOT_FOUND.getStatusCode()) {
+                return null;
+            }
+            throw new RuntimeException(e);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static String md5Base64(byte[] value) {
+        try {
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("MD5").digest(value));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * A lease with the entity tag of the object holding it.
+     */
+    private static class StoredLease {
+
+        private final Lease lease;
+
+        private final String eTag;
+
+        StoredLease(Lease lease, String eTag) {
+            this.lease = lease;
+            this.eTag = eTag;
+        }
     }
 }
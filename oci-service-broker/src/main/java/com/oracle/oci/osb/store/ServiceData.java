@@ -105,6 +105,21 @@ public class ServiceData {
         return metadata.remove(key);
     }
 
+    /**
+     * @return a copy of the service metadata, sharing nothing mutable with it.
+     */
+    public ServiceData copy() {
+        ServiceData copy = new ServiceData();
+        copy.instanceId = instanceId;
+        copy.serviceId = serviceId;
+        copy.planId = planId;
+        copy.ocid = ocid;
+        copy.compartmentId = compartmentId;
+        copy.provisioning = provisioning;
+        copy.metadata = (metadata != null) ? new HashMap<>(metadata) : null;
+        return copy;
+    }
+
     @Deprecated
     public HashMap<String, String> getMetadata() {
         return metadata;
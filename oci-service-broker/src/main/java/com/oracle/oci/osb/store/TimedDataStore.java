@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.store;
+
+import com.oracle.oci.osb.mbean.RequestTimings;
+
+import java.util.function.Supplier;
+
+/**
+ * TimedDataStore is a {@link DataStore} decorator that adds the time spent in the store to the {@link RequestTimings}
+ * of the current request.
+ */
+public class TimedDataStore implements DataStore {
+
+    private final DataStore delegate;
+
+    public TimedDataStore(DataStore delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void storeServiceData(String instanceId, ServiceData svcData) {
+        timed(() -> delegate.storeServiceData(instanceId, svcData));
+    }
+
+    @Override
+    public ServiceData getServiceData(String instanceId) {
+        return timed(() -> delegate.getServiceData(instanceId));
+    }
+
+    @Override
+    public void storeBinding(String bindingId, BindingData bindingData) {
+        timed(() -> delegate.storeBinding(bindingId, bindingData));
+    }
+
+    @Override
+    public BindingData getBindingData(String bindingId) {
+        return timed(() -> delegate.getBindingData(bindingId));
+    }
+
+    @Override
+    public InstanceAndBinding getInstanceAndBinding(String instanceId, String bindingId) {
+        return timed(() -> delegate.getInstanceAndBinding(instanceId, bindingId));
+    }
+
+    @Override
+    public void removeServiceData(String instanceId) {
+        timed(() -> delegate.removeServiceData(instanceId));
+    }
+
+    @Override
+    public void removeBindingData(String bindingId) {
+        timed(() -> delegate.removeBindingData(bindingId));
+    }
+
+    @Override
+    public Lease acquireLease(String name, Lease lease) {
+        return timed(() -> delegate.acquireLease(name, lease));
+    }
+
+    @Override
+    public Lease getLease(String name) {
+        return timed(() -> delegate.getLease(name));
+    }
+
+    @Override
+    public void releaseLease(String name, Lease lease) {
+        timed(() -> delegate.releaseLease(name, lease));
+    }
+
+    @Override
+    public boolean isStoreHealthy() {
+        return delegate.isStoreHealthy();
+    }
+
+    private static <T> T timed(Supplier<T> operation) {
+        long start = System.nanoTime();
+        try {
+            return operation.get();
+        } finally {
+            RequestTimings.addDataStoreTime(System.nanoTime() - start);
+        }
+    }
+
+    private static void timed(Runnable operation) {
+        long start = System.nanoTime();
+        try {
+            operation.run();
+        } finally {
+            RequestTimings.addDataStoreTime(System.nanoTime() - start);
+        }
+    }
+}
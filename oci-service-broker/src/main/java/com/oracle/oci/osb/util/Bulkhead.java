@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bulkhead bounds the number of asynchronous operations in progress against a dependency, so that a slow dependency
+ * only holds up the operations made against it. Operations submitted while the bulkhead is at its limit wait in a
+ * bounded queue, and fail with a {@link RejectedExecutionException} once the queue is full.
+ * <p>
+ * The limit adapts to the latency observed: it is lowered when the recent latency of the operations rises above
+ * their long term latency, which means requests are queueing up in the dependency, and raised back towards
+ * {@code maxConcurrency} as the latency recovers. It never goes below {@code minConcurrency}.
+ */
+public class Bulkhead {
+
+    /**
+     * Weight of a sample in the recent latency.
+     */
+    private static final double SHORT_ALPHA = 0.1;
+
+    /**
+     * Weight of a sample in the long term latency.
+     */
+    private static final double LONG_ALPHA = 0.002;
+
+    /**
+     * Ratio of the recent to the long term latency tolerated before the limit is lowered.
+     */
+    private static final double TOLERANCE = 1.5;
+
+    /**
+     * Weight of a new limit in the limit, so that the limit moves gradually.
+     */
+    private static final double SMOOTHING = 0.2;
+
+    private static final ConcurrentSkipListMap<String, Bulkhead> bulkheads = new ConcurrentSkipListMap<>();
+
+    private final String name;
+
+    private final int minConcurrency;
+
+    private final int maxConcurrency;
+
+    private final int queueSize;
+
+    private final ArrayDeque<Pending<?>> queue = new ArrayDeque<>();
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    private double limit;
+
+    private int inFlight;
+
+    private double shortLatency;
+
+    private double longLatency;
+
+    public Bulkhead(String name, int minConcurrency, int maxConcurrency, int queueSize) {
+        this.name = name;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.minConcurrency = Math.max(1, Math.min(minConcurrency, this.maxConcurrency));
+        this.queueSize = Math.max(0, queueSize);
+        this.limit = this.maxConcurrency;
+    }
+
+    /**
+     * Registers a bulkhead so that it is reported in the metrics, replacing the bulkhead of the same name.
+     *
+     * @param bulkhead bulkhead to register.
+     */
+    public static void register(Bulkhead bulkhead) {
+        bulkheads.put(bulkhead.getName(), bulkhead);
+    }
+
+    /**
+     * @return the registered bulkheads, ordered by name.
+     */
+    public static Collection<Bulkhead> getBulkheads() {
+        return Collections.unmodifiableCollection(bulkheads.values());
+    }
+
+    /**
+     * Runs an operation within the bulkhead, now if the limit allows it, once an operation completes otherwise.
+     *
+     * @param operation starts the operation.
+     * @param <T>       type of the result of the operation.
+     * @return stage completed with the result of the operation, or failed with a
+     * {@link RejectedExecutionException} if the queue of the bulkhead is full.
+     */
+    public <T> CompletionStage<T> submit(Supplier<? extends CompletionStage<T>> operation) {
+        Pending<T> pending = new Pending<>(operation);
+        synchronized (this) {
+            if (inFlight >= currentLimit()) {
+                if (queue.size() >= queueSize) {
+                    rejectedCount.increment();
+                    return CompletableFuture.failedFuture(new RejectedExecutionException(
+                            "Too many operations in progress for " + name));
+                }
+                queue.add(pending);
+                return pending.result;
+            }
+            pending.inFlightAtStart = ++inFlight;
+        }
+        pending.start();
+        return pending.result;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * @return the number of operations currently allowed to be in progress.
+     */
+    public synchronized int getLimit() {
+        return currentLimit();
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return queue.size();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    private int currentLimit() {
+        return (int) limit;
+    }
+
+    private void onComplete(long latencyNanos, int inFlightAtStart) {
+        List<Pending<?>> ready = null;
+        synchronized (this) {
+            inFlight--;
+            updateLimit(latencyNanos, inFlightAtStart);
+            while (inFlight < currentLimit() && !queue.isEmpty()) {
+                Pending<?> pending = queue.poll();
+                pending.inFlightAtStart = ++inFlight;
+                if (ready == null) {
+                    ready = new ArrayList<>(2);
+                }
+                ready.add(pending);
+            }
+        }
+        if (ready != null) {
+            for (Pending<?> pending : ready) {
+                pending.start();
+            }
+        }
+    }
+
+    private void updateLimit(long latencyNanos, int inFlightAtStart) {
+        if (shortLatency == 0) {
+            shortLatency = latencyNanos;
+            longLatency = latencyNanos;
+            return;
+        }
+        shortLatency += (latencyNanos - shortLatency) * SHORT_ALPHA;
+        longLatency += (latencyNanos - longLatency) * LONG_ALPHA;
+        // Once the latency has dropped well below the long term latency, let the baseline follow it down quickly.
+        if (longLatency > 2 * shortLatency) {
+            longLatency *= 0.95;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longLatency / shortLatency));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        // An operation that ran while the bulkhead was mostly idle says nothing about a higher limit.
+        if (newLimit > limit && inFlightAtStart < limit / 2) {
+            return;
+        }
+        limit = Math.max(minConcurrency, Math.min(maxConcurrency, limit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+    }
+
+    private class Pending<T> {
+
+        private final Supplier<? extends CompletionStage<T>> operation;
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private int inFlightAtStart;
+
+        Pending(Supplier<? extends CompletionStage<T>> operation) {
+            this.operation = operation;
+        }
+
+        void start() {
+            long start = System.nanoTime();
+            CompletionStage<T> stage;
+            try {
+                stage = operation.get();
+            } catch (Throwable t) {
+                stage = CompletableFuture.failedFuture(t);
+            }
+            stage.whenComplete((value, error) -> {
+                onComplete(System.nanoTime() - start, inFlightAtStart);
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        }
+    }
+}
@@ -41,10 +41,13 @@ public class Constants {
     public static final String OBJECT_STORE_TYPE = "objectStorage";
     public static final String ETCD_TYPE = "etcd";
     public static final String MEMORY_TYPE = "memory";
+    public static final String OBJECT_STORE_MULTIPART_THRESHOLD_MB = "objectStorage.multipartThresholdMB";
+    public static final String OBJECT_STORE_LOOKUP_THREADS = "objectStorage.lookupThreads";
     public static final String ETCD_CA_PATH = "CAPath";
     public static final String CLIENT_CERT = "etcdClientCert";
     public static final String CLIENT_KEY = "etcdClientKey";
     public static final String ETCD_TLS_ENABLED = "etcdTlsEnabled";
+    public static final String ETCD_TIMEOUT_SECONDS = "etcd.timeoutSeconds";
     public static final String SERVICE_TAG = "serviceTag.";
     public static final String CREATED_BY = "CreatedBy";
     public static final String CREATED_ON_BEHALF = "CreatedOnBehalfOf";
@@ -77,4 +80,46 @@ public class Constants {
     public static final String OCID = "ocid";
     public static final String AUTOSCALING_ENABLED = "autoScaling";
     public static final String STREAM_POOL_ID = "streampoolId";
+    public static final String REQUEST_EXECUTOR_MODE = "requestExecutor.mode";
+    public static final String REQUEST_EXECUTOR_MAX_THREADS = "requestExecutor.maxThreads";
+    public static final String REQUEST_EXECUTOR_QUEUE_SIZE = "requestExecutor.queueSize";
+    public static final String REQUEST_EXECUTOR_RETRY_AFTER = "requestExecutor.retryAfterSeconds";
+    public static final String REQUEST_MAX_IN_FLIGHT = "requestExecutor.maxInFlight";
+    public static final String ADAPTER_BULKHEAD_MIN_CONCURRENCY = "adapterBulkhead.minConcurrency";
+    public static final String ADAPTER_BULKHEAD_MAX_CONCURRENCY = "adapterBulkhead.maxConcurrency";
+    public static final String ADAPTER_BULKHEAD_QUEUE_SIZE = "adapterBulkhead.queueSize";
+    public static final String ADAPTER_BULKHEAD_PER_PLAN = "adapterBulkhead.perPlan";
+    public static final String OCI_RATE_LIMIT_READS_PER_SECOND = "ociRateLimit.readsPerSecond";
+    public static final String OCI_RATE_LIMIT_WRITES_PER_SECOND = "ociRateLimit.writesPerSecond";
+    public static final String OCI_RETRY_MAX_ATTEMPTS = "ociRetry.maxAttempts";
+    public static final String OCI_RETRY_BASE_DELAY_MILLIS = "ociRetry.baseDelayMillis";
+    public static final String OCI_RETRY_MAX_DELAY_MILLIS = "ociRetry.maxDelayMillis";
+    public static final String ASYNC_RESPONSE_TIMEOUT_SECONDS = "asyncResponse.timeoutSeconds";
+    public static final String STORE_CACHE_ENABLED = "storeCache.enabled";
+    public static final String STORE_CACHE_MAX_ENTRIES = "storeCache.maxEntries";
+    public static final String STORE_CACHE_TTL_SECONDS = "storeCache.ttlSeconds";
+    public static final String MEMORY_STORE_FILE = "memoryStore.file";
+    public static final String MEMORY_STORE_SNAPSHOT_INTERVAL = "memoryStore.snapshotIntervalSeconds";
+    public static final String LAST_OPERATION_CACHE_MILLIS = "lastOperation.cacheMillis";
+    public static final String PROVISION_DEDUP_ENABLED = "provisionDedup.enabled";
+    public static final String PROVISION_DEDUP_LEASE_SECONDS = "provisionDedup.leaseSeconds";
+    public static final String OPERATION_TRACKER_ENABLED = "operationTracker.enabled";
+    public static final String OPERATION_TRACKER_WORKERS = "operationTracker.workers";
+    public static final String OPERATION_TRACKER_MIN_INTERVAL_SECONDS = "operationTracker.minIntervalSeconds";
+    public static final String OPERATION_TRACKER_MAX_INTERVAL_SECONDS = "operationTracker.maxIntervalSeconds";
+    public static final String OPERATION_TRACKER_RETENTION_SECONDS = "operationTracker.retentionSeconds";
+    public static final String ADB_INVENTORY_TTL_SECONDS = "adb.inventoryTtlSeconds";
+    public static final String ADB_WALLET_CACHE_ENABLED = "adb.walletCache.enabled";
+    public static final String ADB_WALLET_CACHE_MAX_ENTRIES = "adb.walletCache.maxEntries";
+    public static final String ADB_WALLET_CACHE_TTL_SECONDS = "adb.walletCache.ttlSeconds";
+    public static final String OSS_INVENTORY_TTL_SECONDS = "oss.inventoryTtlSeconds";
+    public static final String OSS_INVENTORY_FULL_REFRESH_SECONDS = "oss.inventoryFullRefreshSeconds";
+    public static final String OBJECT_STORAGE_PAR_INDEX_TTL_SECONDS = "objectStorage.parIndexTtlSeconds";
+    public static final String PRIVATEKEY_CHECK_SECONDS = "privatekey.checkSeconds";
+    public static final String AUDIT_FILE = "audit.file";
+    public static final String AUDIT_MAX_FILE_MB = "audit.maxFileMB";
+    public static final String AUDIT_MAX_FILES = "audit.maxFiles";
+    public static final String AUDIT_QUEUE_SIZE = "audit.queueSize";
+    public static final String AUDIT_BATCH_SIZE = "audit.batchSize";
+    public static final String AUDIT_MAX_BLOCK_MILLIS = "audit.maxBlockMillis";
 }
@@ -7,6 +7,7 @@ package com.oracle.oci.osb.util;
 
 import com.oracle.oci.osb.model.ErrorResponse;
 
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
@@ -45,6 +46,7 @@ public class Errors {
     public static final String INVALID_ORIGINATING_IDENTITY = "InvalidOriginatingIdentity";
     public static final String UNSUPPORTED_API_VERSION = "UnsupportedAPIVersion";
     public static final String UNSUPPORTED_OPERATION= "UnsupportedOperation";
+    public static final String SERVICE_UNAVAILABLE = "ServiceUnavailable";
 
 
     /**
@@ -249,6 +251,15 @@ public class Errors {
                 "Binding data is not present in the response", BINDING_DATA_MISSING);
     }
 
+    /**
+     * @return exception to be thrown when a provision request with different parameters is in progress for the
+     * same instance
+     */
+    public static BrokerHttpException provisionInProgressWithDifferentParameters() {
+        return new BrokerHttpException(Response.Status.CONFLICT.getStatusCode(),
+                "A provision request with different parameters is in progress for the instance", "ServiceExists");
+    }
+
     /**
      * @return  exception to be thrown when binding with same id exists
      */
@@ -348,6 +359,28 @@ public class Errors {
                 .build();
     }
 
+    /**
+     * @param retryAfterSeconds number of seconds after which the request can be retried.
+     * @return response to be returned when the broker is too busy to process the request.
+     */
+    public static Response brokerOverloaded(int retryAfterSeconds) {
+        return Response.status(Response.Status
+                .SERVICE_UNAVAILABLE.getStatusCode())
+                .type(MediaType.APPLICATION_JSON_TYPE)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds)
+                .entity(new ErrorResponse(SERVICE_UNAVAILABLE, "OCI Service Broker is busy processing other " +
+                        "requests. Retry after " + retryAfterSeconds + " seconds"))
+                .build();
+    }
+
+    /**
+     * @return exception to be thrown when a call to OCI cannot be made before the deadline of the request, as the
+     * calls to the service are rate limited
+     */
+    public static BrokerHttpException ociRateLimited() {
+        return new BrokerHttpException(Response.Status.SERVICE_UNAVAILABLE.getStatusCode(),
+                "Too many requests to OCI in progress, the request could not be made in time", SERVICE_UNAVAILABLE);
+    }
 
     /**
      * @return exception to be thrown when the keystore file cannot be found
@@ -14,6 +14,10 @@ public class OriginatingIdentity {
         threadLocal.set(identity);
     }
 
+    public static Identity getIdentity() {
+        return threadLocal.get();
+    }
+
     public static String getUserName() {
         Identity identity = threadLocal.get();
         if (identity != null) {
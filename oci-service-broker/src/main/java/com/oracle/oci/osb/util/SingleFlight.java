@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * SingleFlight coalesces concurrent calls for the same key: while a call is in flight, later callers for the key
+ * wait for its result instead of making their own call. A successful result is also returned to the callers that
+ * arrive within {@code resultTtlMillis} after it completed. Failures are never kept, so the next caller retries.
+ *
+ * @param <K> type of the key identifying the call.
+ * @param <V> type of the result of the call.
+ */
+public class SingleFlight<K, V> {
+
+    /**
+     * Number of entries from which completed entries are swept when a new call is made.
+     */
+    private static final int SWEEP_THRESHOLD = 1024;
+
+    private final ConcurrentHashMap<K, Flight> flights = new ConcurrentHashMap<>();
+
+    private final long resultTtlNanos;
+
+    public SingleFlight(long resultTtlMillis) {
+        this.resultTtlNanos = TimeUnit.MILLISECONDS.toNanos(resultTtlMillis);
+    }
+
+    /**
+     * Returns the result of the call in flight for the key or of the last successful call if still fresh, otherwise
+     * makes the call on the current thread.
+     *
+     * @param key  key identifying the call.
+     * @param call call to make.
+     * @return result of the call.
+     * @throws Exception the exception thrown by the call.
+     */
+    public V execute(K key, Callable<V> call) throws Exception {
+        while (true) {
+            Flight flight = flights.get(key);
+            if (flight != null && flight.isUsable(System.nanoTime())) {
+                return flight.await();
+            }
+            Flight newFlight = new Flight();
+            boolean owner = (flight == null) ? flights.putIfAbsent(key, newFlight) == null
+                    : flights.replace(key, flight, newFlight);
+            if (owner) {
+                if (flights.size() > SWEEP_THRESHOLD) {
+                    sweep();
+                }
+                return newFlight.run(call, key);
+            }
+        }
+    }
+
+    /**
+     * Asynchronous variant of {@link #execute(Object, Callable)}: returns a stage that completes with the result of
+     * the call in flight for the key or of the last successful call if still fresh, otherwise starts the call.
+     *
+     * @param key  key identifying the call.
+     * @param call starts the call.
+     * @return stage completed with the result of the call.
+     */
+    public CompletionStage<V> executeAsync(K key, Supplier<? extends CompletionStage<V>> call) {
+        while (true) {
+            Flight flight = flights.get(key);
+            if (flight != null && flight.isUsable(System.nanoTime())) {
+                return flight.future.minimalCompletionStage();
+            }
+            Flight newFlight = new Flight();
+            boolean owner = (flight == null) ? flights.putIfAbsent(key, newFlight) == null
+                    : flights.replace(key, flight, newFlight);
+            if (owner) {
+                if (flights.size() > SWEEP_THRESHOLD) {
+                    sweep();
+                }
+                return newFlight.start(call, key);
+            }
+        }
+    }
+
+    /**
+     * Discards the kept results of the keys matching the predicate, for instance once the state they reflect has
+     * changed. Calls in flight are not affected.
+     *
+     * @param predicate selects the keys to discard.
+     */
+    public void invalidateIf(Predicate<K> predicate) {
+        flights.entrySet().removeIf(e -> e.getValue().future.isDone() && predicate.test(e.getKey()));
+    }
+
+    private void sweep() {
+        long now = System.nanoTime();
+        flights.values().removeIf(f -> f.future.isDone() && !f.isUsable(now));
+    }
+
+    private class Flight {
+
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+
+        private volatile long expiresAt;
+
+        boolean isUsable(long now) {
+            if (!future.isDone()) {
+                return true;
+            }
+            return !future.isCompletedExceptionally() && now - expiresAt < 0;
+        }
+
+        V run(Callable<V> call, K key) throws Exception {
+            try {
+                V result = call.call();
+                complete(result, key);
+                return result;
+            } catch (Exception | Error e) {
+                fail(e, key);
+                throw e;
+            }
+        }
+
+        CompletionStage<V> start(Supplier<? extends CompletionStage<V>> call, K key) {
+            try {
+                call.get().whenComplete((result, e) -> {
+                    if (e == null) {
+                        complete(result, key);
+                    } else {
+                        fail(e, key);
+                    }
+                });
+            } catch (RuntimeException | Error e) {
+                fail(e, key);
+            }
+            return future.minimalCompletionStage();
+        }
+
+        private void complete(V result, K key) {
+            expiresAt = System.nanoTime() + resultTtlNanos;
+            future.complete(result);
+            if (resultTtlNanos <= 0) {
+                flights.remove(key, this);
+            }
+        }
+
+        private void fail(Throwable e, K key) {
+            flights.remove(key, this);
+            future.completeExceptionally(e);
+        }
+
+        V await() throws Exception {
+            try {
+                return future.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
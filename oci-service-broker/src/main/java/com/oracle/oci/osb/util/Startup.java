@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+package com.oracle.oci.osb.util;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.oracle.oci.osb.util.Utils.getLogger;
+
+/**
+ * Startup runs the steps the broker takes before it can serve requests as phases in parallel, while the HTTP server
+ * is already listening, and reports how long each phase took.
+ * <p>
+ * Phases are started with {@link #run(String, Callable)}, and {@link #finish()} is called once they all have been
+ * started. The broker is ready, see {@link #isReady()}, once they all have completed successfully. The startup report,
+ * with the time each phase started and took from the start of the JVM, is then logged as a single JSON line.
+ */
+public class Startup {
+
+    private static final Logger LOGGER = getLogger(Startup.class);
+
+    private static final Startup instance = new Startup();
+
+    private final long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+    private final List<Phase> phases = Collections.synchronizedList(new ArrayList<>());
+
+    private final List<CompletableFuture<?>> results = new ArrayList<>();
+
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "osb-startup-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile long readyMillis;
+
+    public static Startup getInstance() {
+        return instance;
+    }
+
+    /**
+     * Starts a phase.
+     *
+     * @param name name of the phase in the report.
+     * @param task work of the phase.
+     * @param <T>  type of the result of the phase.
+     * @return future completed with the result of the phase.
+     */
+    public <T> CompletableFuture<T> run(String name, Callable<T> task) {
+        Phase phase = new Phase(name, jvmStartMillis);
+        phases.add(phase);
+        CompletableFuture<T> result = CompletableFuture.supplyAsync(() -> {
+            phase.begin();
+            try {
+                return task.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor).whenComplete((value, error) -> phase.end(error));
+        synchronized (results) {
+            results.add(result);
+        }
+        return result;
+    }
+
+    /**
+     * Times a phase run on the calling thread.
+     *
+     * @param name name of the phase in the report.
+     * @param task work of the phase.
+     * @throws Exception the exception thrown by the phase.
+     */
+    public void runHere(String name, Callable<?> task) throws Exception {
+        Phase phase = new Phase(name, jvmStartMillis);
+        phases.add(phase);
+        phase.begin();
+        try {
+            task.call();
+            phase.end(null);
+        } catch (Exception e) {
+            phase.end(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Marks all the phases started, the broker becomes ready once they complete.
+     *
+     * @return future completed once all the phases completed, failed with the first failure of a phase.
+     */
+    public CompletableFuture<Void> finish() {
+        CompletableFuture<?>[] all;
+        synchronized (results) {
+            all = results.toArray(new CompletableFuture<?>[0]);
+        }
+        CompletableFuture.allOf(all).whenComplete((v, error) -> {
+            if (error != null) {
+                done.completeExceptionally((error instanceof CompletionException && error.getCause() != null)
+                        ? error.getCause() : error);
+            } else {
+                readyMillis = System.currentTimeMillis();
+                done.complete(null);
+            }
+            LOGGER.info("Startup report: " + getReport());
+        });
+        return done;
+    }
+
+    /**
+     * @return true once all the phases completed successfully.
+     */
+    public boolean isReady() {
+        return done.isDone() && !done.isCompletedExceptionally();
+    }
+
+    /**
+     * @return the phases started so far.
+     */
+    public List<Phase> getPhases() {
+        synchronized (phases) {
+            return new ArrayList<>(phases);
+        }
+    }
+
+    /**
+     * @return the time from the start of the JVM to the broker being ready, in milliseconds, -1 until then.
+     */
+    public long getReadyMillis() {
+        long ready = readyMillis;
+        return (ready > 0) ? ready - jvmStartMillis : -1;
+    }
+
+    /**
+     * @return the startup report, as JSON.
+     */
+    public String getReport() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("ready", isReady());
+        report.put("readyMillis", getReadyMillis());
+        report.put("phases", getPhases());
+        try {
+            return new ObjectMapper().writeValueAsString(report);
+        } catch (JsonProcessingException e) {
+            LOGGER.log(Level.WARNING, "Startup report could not be written", e);
+            return "{}";
+        }
+    }
+
+    /**
+     * Timing of a startup phase, in milliseconds from the start of the JVM.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Phase {
+
+        private final String name;
+
+        private final long jvmStartMillis;
+
+        private volatile String thread;
+
+        private volatile long startMillis = -1;
+
+        private volatile long durationMillis = -1;
+
+        private volatile String error;
+
+        private volatile long startNanos;
+
+        Phase(String name, long jvmStartMillis) {
+            this.name = name;
+            this.jvmStartMillis = jvmStartMillis;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getThread() {
+            return thread;
+        }
+
+        public long getStartMillis() {
+            return startMillis;
+        }
+
+        /**
+         * @return how long the phase took, -1 while it is in progress.
+         */
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        /**
+         * @return the error the phase failed with, null if it did not fail.
+         */
+        public String getError() {
+            return error;
+        }
+
+        void begin() {
+            thread = Thread.currentThread().getName();
+            startMillis = System.currentTimeMillis() - jvmStartMillis;
+            startNanos = System.nanoTime();
+        }
+
+        void end(Throwable failure) {
+            if (startMillis < 0) {
+                // failed before it began
+                startMillis = System.currentTimeMillis() - jvmStartMillis;
+                startNanos = System.nanoTime();
+            }
+            if (failure instanceof CompletionException && failure.getCause() != null) {
+                failure = failure.getCause();
+            }
+            if (failure != null) {
+                error = String.valueOf(failure.getMessage());
+            }
+            durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        }
+    }
+}
@@ -10,9 +10,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.ObjectWriter;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -63,24 +61,6 @@ public class Utils {
         }
     }
 
-    /**
-     * Read data from a Inputstream and return it as byte array.
-     * @param is Inputstream from which data needs to be read.
-     * @return byte array with the data read from Inputstream.
-     * @throws IOException If error reading data from InputStream.
-     */
-    public static byte[] toByteArray(InputStream is) throws IOException {
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        if(is != null) {
-            byte[] chunk = new byte[4096];
-            int read;
-            while ((read = is.read(chunk, 0, chunk.length)) != -1) {
-                bos.write(chunk, 0, read);
-            }
-        }
-        return bos.toByteArray();
-    }
-
     /**
      * Returns the k8s master url by reading environment variables set by k8s.
      *